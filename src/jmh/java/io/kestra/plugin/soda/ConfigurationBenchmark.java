@@ -0,0 +1,63 @@
+package io.kestra.plugin.soda;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Work done on the configuration and the checks of every scan: scrubbing of the configuration
+ * kept in the output and of the lines of the scan process, and YAML serialization of the input files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConfigurationBenchmark {
+    @Param({"1", "3", "5"})
+    int depth;
+
+    @Param({"5", "20"})
+    int width;
+
+    private Map<String, Object> configuration;
+    private Map<String, Object> checks;
+    private Redactor redactor;
+    private String line;
+
+    @Setup
+    public void setup() {
+        configuration = Fixtures.configuration(depth, width);
+        checks = Fixtures.checks(width * depth);
+        redactor = Redactor.of(configuration);
+        line = "[12:00:00] Query kestra.table_" + width + ".aggregation[0]: SELECT COUNT(*), SUM(CASE WHEN column_0 IS NULL THEN 1 ELSE 0 END) FROM table_" + depth;
+    }
+
+    @Benchmark
+    public Map<String, Object> scrub() {
+        return Scan.scrubSensitiveValues(configuration);
+    }
+
+    @Benchmark
+    public String redactLine() {
+        return redactor.line(line);
+    }
+
+    @Benchmark
+    public String configurationYaml() throws JsonProcessingException {
+        return AbstractSoda.MAPPER.writeValueAsString(configuration);
+    }
+
+    @Benchmark
+    public String checksYaml() throws JsonProcessingException {
+        return AbstractSoda.MAPPER.writeValueAsString(checks);
+    }
+}
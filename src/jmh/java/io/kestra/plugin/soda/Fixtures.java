@@ -0,0 +1,130 @@
+package io.kestra.plugin.soda;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Synthetic inputs of the benchmarks, generated in memory so that no large file is kept in the
+ * repository.
+ */
+final class Fixtures {
+    private static final String[] OUTCOMES = {"pass", "pass", "pass", "warn", "fail"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return a scan result as written by the scan process in the given format, with one metric per
+     * check spread over tables of 50 checks
+     */
+    static byte[] result(int checks, Scan.ResultFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonFactory factory = format == Scan.ResultFormat.CBOR ? new CBORFactory() : JacksonMapper.ofJson(false).getFactory();
+
+        try (JsonGenerator generator = factory.createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeStringField("definitionName", "benchmark");
+            generator.writeStringField("defaultDataSource", "kestra");
+            generator.writeStringField("dataTimestamp", "2024-01-01T00:00:00+00:00");
+            generator.writeStringField("scanStartTimestamp", "2024-01-01T00:00:00+00:00");
+            generator.writeStringField("scanEndTimestamp", "2024-01-01T00:01:00+00:00");
+            generator.writeBooleanField("hasErrors", false);
+            generator.writeBooleanField("hasWarnings", true);
+            generator.writeBooleanField("hasFailures", true);
+
+            generator.writeArrayFieldStart("metrics");
+            for (int i = 0; i < checks; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("identity", "metric-kestra-table_" + (i / 50) + "-column_" + i + "-missing_count");
+                generator.writeStringField("metricName", "missing_count");
+                generator.writeNumberField("value", i % 7);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("checks");
+            for (int i = 0; i < checks; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("identity", Integer.toHexString(i * 31 + 17));
+                generator.writeStringField("name", "missing_count(column_" + i + ") = 0");
+                generator.writeStringField("type", "generic");
+                generator.writeStringField("definition", "checks for table_" + (i / 50) + ":\n  - missing_count(column_" + i + ") = 0");
+                generator.writeStringField("dataSource", "kestra");
+                generator.writeStringField("table", "table_" + (i / 50));
+                generator.writeStringField("column", "column_" + i);
+                generator.writeArrayFieldStart("metrics");
+                generator.writeString("metric-kestra-table_" + (i / 50) + "-column_" + i + "-missing_count");
+                generator.writeEndArray();
+                generator.writeStringField("outcome", OUTCOMES[i % OUTCOMES.length]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("automatedMonitoringChecks");
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("profiling");
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("metadata");
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * @return a configuration map with {@code width} entries per level, nested {@code depth} levels
+     * deep, mixing sensitive and plain keys and lists of connection maps
+     */
+    static Map<String, Object> configuration(int depth, int width) {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+
+        for (int i = 0; i < width; i++) {
+            switch (i % 5) {
+                case 0 -> configuration.put("password_" + i, "secret-" + i);
+                case 1 -> configuration.put("Access-Token", "token-" + i);
+                case 2 -> configuration.put("host_" + i, "db-" + i + ".internal");
+                case 3 -> {
+                    List<Object> connections = new ArrayList<>();
+                    for (int j = 0; j < 3; j++) {
+                        connections.add(Map.of("username", "user_" + j, "private_key", "key-" + j, "port", 5432 + j));
+                    }
+                    configuration.put("connections_" + i, connections);
+                }
+                default -> configuration.put("schema_" + i, depth > 1 ? configuration(depth - 1, width) : "public");
+            }
+        }
+
+        return configuration;
+    }
+
+    /**
+     * @return a checks map with {@code tables} tables of 20 checks each
+     */
+    static Map<String, Object> checks(int tables) {
+        Map<String, Object> checks = new LinkedHashMap<>();
+
+        for (int i = 0; i < tables; i++) {
+            List<Object> entries = new ArrayList<>();
+            entries.add("row_count > 0");
+            for (int j = 0; j < 19; j++) {
+                entries.add(j % 2 == 0 ?
+                    "missing_count(column_" + j + ") = 0" :
+                    Map.of("duplicate_count(column_" + j + ") < 10", Map.of("name", "duplicates of column_" + j)));
+            }
+            checks.put("checks for table_" + i, entries);
+        }
+
+        return checks;
+    }
+}
@@ -0,0 +1,84 @@
+package io.kestra.plugin.soda;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ScanResult;
+
+/**
+ * Parsing of the result of a scan, in both formats the scan process can write, and construction of the
+ * task output from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScanResultBenchmark {
+    @Param({"10", "1000", "100000"})
+    int checks;
+
+    @Param({"JSON", "CBOR"})
+    Scan.ResultFormat format;
+
+    private byte[] result;
+
+    @Setup
+    public void setup() throws IOException {
+        result = Fixtures.result(checks, format);
+    }
+
+    @Benchmark
+    public ScanResult read(Blackhole blackhole) throws IOException {
+        return ScanResultReader.read(new ByteArrayInputStream(result), new ScanResultReader.Listener() {
+            @Override
+            public void metric(Metric metric) {
+                blackhole.consume(metric);
+            }
+
+            @Override
+            public void check(Check check) {
+                blackhole.consume(check);
+            }
+        });
+    }
+
+    @Benchmark
+    public Scan.Output output() throws IOException {
+        List<Metric> metrics = new ArrayList<>();
+        List<Check> checks = new ArrayList<>();
+
+        ScanResult header = ScanResultReader.read(new ByteArrayInputStream(result), new ScanResultReader.Listener() {
+            @Override
+            public void metric(Metric metric) {
+                metrics.add(metric);
+            }
+
+            @Override
+            public void check(Check check) {
+                checks.add(check);
+            }
+        });
+
+        return Scan.Output.builder()
+            .result(header.toBuilder().metrics(metrics).checks(checks).build())
+            .summary(ScanResultCollector.sum(List.of()))
+            .exitCode(header.getHasFailures() ? 2 : header.getHasWarnings() ? 1 : 0)
+            .configuration(Map.of())
+            .build();
+    }
+}
@@ -11,7 +11,11 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
@@ -23,8 +27,11 @@ import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.plugin.scripts.exec.scripts.models.DockerOptions;
 import io.kestra.plugin.scripts.exec.scripts.models.RunnerType;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
 import io.kestra.plugin.scripts.runner.docker.Docker;
+import io.kestra.plugin.scripts.runner.docker.FileHandlingStrategy;
+import io.kestra.plugin.scripts.runner.docker.PullPolicy;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
@@ -43,7 +50,11 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public abstract class AbstractSoda extends Task {
     private static final String DEFAULT_IMAGE = "sodadata/soda-core";
+    private static final DerivedImage.ImageBuilder IMAGE_BUILDER = new DockerCli();
+    private static final String PYTHON_PLATFORM = "import sys, sysconfig; print(sys.version.split()[0], sysconfig.get_platform())";
     protected static final ObjectMapper MAPPER = JacksonMapper.ofYaml();
+    static final String CONFIGURATION_FILE = "configuration.yml";
+    private static final ObjectWriter CONFIGURATION_WRITER = JacksonMapper.ofJson().writer(new PebbleEscapes());
 
     @Schema(
         title = "Runner to use",
@@ -103,6 +114,34 @@ public abstract class AbstractSoda extends Task {
     @PluginProperty(group = "advanced")
     protected Property<List<String>> requirements;
 
+    @Schema(
+        title = "Cache the installed `requirements` between executions",
+        description = "When set, the `requirements` are resolved once into a wheelhouse archive stored under a key computed from the container image and the rendered requirements list; " +
+            "later executions restore it and install offline instead of downloading every package again. " +
+            "The archive records the Python version and platform it was built for and is ignored when they don't match the running image."
+    )
+    @PluginProperty(group = "advanced")
+    private RequirementsCache requirementsCache;
+
+    @Schema(
+        title = "How the `requirements` are installed",
+        description = "`RUNTIME` installs them in a virtualenv at the start of every execution. " +
+            "`IMAGE` builds, once per Docker daemon, an image deriving from `containerImage` with the requirements installed and tagged with a hash of both, then runs the scan in it. " +
+            "`IMAGE` needs the Docker task runner and a `docker` command line on the Kestra worker, which builds the image on the daemon of the runner `host` when set and pulls the base image following the runner `pullPolicy`; " +
+            "the command line uses its own registry login, not the `credentials` of the runner. The task fails when the image can't be built. " +
+            "Requirements holding a line break are rejected."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<InstallMode> installMode = Property.ofValue(InstallMode.RUNTIME);
+
+    @Schema(
+        title = "Repository of the derived images built by the `IMAGE` install mode"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<String> derivedImageRepository = Property.ofValue("kestra-soda");
+
     @Schema(
         title = "Additional environment variables for the current process"
     )
@@ -116,39 +155,157 @@ public abstract class AbstractSoda extends Task {
     Property<Map<String, Object>> configuration;
 
     protected Map<String, String> finalInputFiles(RunContext runContext, Path workingDirectory) throws IOException, IllegalVariableEvaluationException {
-        Map<String, String> map = this.inputFiles != null ? new HashMap<>(PluginUtilsService.transformInputFiles(runContext, this.inputFiles)) : new HashMap<>();
+        return this.finalInputFiles(runContext, this.renderedConfiguration(runContext), "");
+    }
 
-        var renderedConfig = runContext.render(configuration).asMap(String.class, Object.class);
-        if (!renderedConfig.isEmpty()) {
-            map.put("configuration.yml", MAPPER.writeValueAsString(renderedConfig));
+    /**
+     * @param renderedConfiguration the configuration, already rendered
+     * @param prefix the directory, relative to the working directory, the configuration file is written in
+     */
+    Map<String, String> finalInputFiles(RunContext runContext, Map<String, Object> renderedConfiguration, String prefix) throws IOException, IllegalVariableEvaluationException {
+        Map<String, String> map = this.userInputFiles(runContext);
+
+        if (!renderedConfiguration.isEmpty()) {
+            map.put(prefix + CONFIGURATION_FILE, configurationFile(renderedConfiguration));
         }
 
         return map;
     }
 
+    /**
+     * @return the `inputFiles` only, without the configuration file
+     */
+    Map<String, String> userInputFiles(RunContext runContext) throws IllegalVariableEvaluationException {
+        return this.inputFiles != null ? new HashMap<>(PluginUtilsService.transformInputFiles(runContext, this.inputFiles)) : new HashMap<>();
+    }
+
+    Map<String, Object> renderedConfiguration(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(configuration).asMap(String.class, Object.class);
+    }
+
+    /**
+     * The content of the input files is rendered again when they are written, so the configuration,
+     * already rendered, is written as JSON (a subset of YAML) with its curly brackets escaped: a
+     * secret holding <code>{{</code> is then written as is instead of being evaluated a second time.
+     */
+    static String configurationFile(Map<String, Object> renderedConfiguration) throws JsonProcessingException {
+        return CONFIGURATION_WRITER.writeValueAsString(renderedConfiguration);
+    }
+
+    /**
+     * @return the redactor masking the secrets of the configuration in the lines of the scan process
+     */
+    Redactor redactor(RunContext runContext) throws IllegalVariableEvaluationException {
+        return Redactor.of(this.renderedConfiguration(runContext));
+    }
+
+    protected ScriptOutput execute(RunContext runContext) throws Exception {
+        try (SodaProcess process = this.prepare(runContext, null, this.finalInputFiles(runContext, runContext.workingDir().path()), this.redactor(runContext))) {
+            return process.run();
+        }
+    }
+
+    /**
+     * Writes the input files and prepares the commands of a scan process.
+     *
+     * @param directory a directory, relative to the working directory, holding the virtualenv and the
+     * result of the process so that several processes can share the working directory, or null to use
+     * the working directory itself
+     * @param inputFiles the files to write, relative to the working directory
+     * @param redactor masks the secrets of the configuration in the lines of the process
+     */
+    SodaProcess prepare(RunContext runContext, String directory, Map<String, String> inputFiles, Redactor redactor) throws Exception {
+        var containerImage = runContext.render(this.getContainerImage()).as(String.class).orElse(null);
+        var renderedRequirements = this.renderedRequirements(runContext);
+        var prefix = directory == null ? "" : directory + "/";
+
+        String derivedImage = this.derivedImage(runContext, containerImage, renderedRequirements, true);
+        WheelhouseCache cache = derivedImage != null ?
+            WheelhouseCache.disabled() :
+            WheelhouseCache.open(runContext, this.requirementsCache, containerImage, renderedRequirements, runContext.workingDir().path(), prefix);
+
+        try {
+            return new SodaProcess(runContext, cache, this.start(runContext, cache, derivedImage, directory, inputFiles, redactor), prefix);
+        } catch (Exception e) {
+            cache.close();
+            throw e;
+        }
+    }
+
+    List<String> renderedRequirements(RunContext runContext) throws IllegalVariableEvaluationException {
+        return this.requirements != null ? runContext.render(this.requirements).asList(String.class) : null;
+    }
+
+    /**
+     * @param onTaskRunner whether the image runs through the Docker task runner, and must then be built
+     * on the daemon of the runner rather than on the one of the worker command line
+     */
+    String derivedImage(RunContext runContext, String containerImage, List<String> requirements, boolean onTaskRunner) throws IllegalVariableEvaluationException, IOException, InterruptedException {
+        if (runContext.render(this.installMode).as(InstallMode.class).orElse(InstallMode.RUNTIME) != InstallMode.IMAGE ||
+            requirements == null || requirements.isEmpty()) {
+            return null;
+        }
+
+        if (!(this.taskRunner instanceof Docker docker) || containerImage == null) {
+            throw new IllegalArgumentException("The `IMAGE` install mode needs the Docker task runner and a `containerImage`");
+        }
+
+        String host = onTaskRunner ? runContext.render(docker.getHost()).as(String.class).orElse(null) : null;
+
+        return DerivedImage.ensure(
+            host == null ? IMAGE_BUILDER : new DockerCli("docker", host),
+            runContext.logger(),
+            runContext.render(this.derivedImageRepository).as(String.class).orElseThrow(),
+            containerImage,
+            runContext.render(docker.getPullPolicy()).as(PullPolicy.class).orElse(PullPolicy.IF_NOT_PRESENT),
+            requirements
+        );
+    }
+
     public CommandsWrapper start(RunContext runContext) throws Exception {
+        return this.start(runContext, WheelhouseCache.disabled(), null, null, this.finalInputFiles(runContext, runContext.workingDir().path()), this.redactor(runContext));
+    }
+
+    /**
+     * @param derivedImage an image with the requirements already installed, that replaces the container
+     * image and the runtime installation when not null
+     */
+    private CommandsWrapper start(RunContext runContext, WheelhouseCache cache, String derivedImage, String directory, Map<String, String> inputFiles, Redactor redactor) throws Exception {
         var env = runContext.render(this.getEnv()).asMap(String.class, String.class);
+        var prefix = directory == null ? "" : directory + "/";
+
+        // failed rows samples are only written when the scan captures them
+        List<String> outputFiles = new ArrayList<>(List.of(prefix + "samples*/**"));
+        if (!this.runsInWorkingDirectory(runContext)) {
+            outputFiles.add(prefix + "result*.json");
+        }
+        if (cache.getMode() == WheelhouseCache.Mode.BUILD) {
+            outputFiles.add(prefix + WheelhouseCache.ARCHIVE);
+        }
+
         CommandsWrapper commandsWrapper = new CommandsWrapper(runContext)
             .withEnv(env.isEmpty() ? new HashMap<>() : env)
             .withRunnerType(runContext.render(this.getRunner()).as(RunnerType.class).orElse(null))
-            .withTaskRunner(this.taskRunner)
-            .withContainerImage(runContext.render(this.getContainerImage()).as(String.class).orElse(null))
-            .withOutputFiles(List.of("result.json"))
+            .withTaskRunner(derivedImage != null ? localImageRunner((Docker) this.taskRunner) : this.taskRunner)
+            .withContainerImage(derivedImage != null ? derivedImage : runContext.render(this.getContainerImage()).as(String.class).orElse(null))
+            .withLogConsumer(new RedactingLogConsumer(runContext, redactor))
+            .withOutputFiles(outputFiles)
             .withDockerOptions(injectDefaults(this.getDocker()));
         Path workingDirectory = commandsWrapper.getWorkingDirectory();
 
         List<String> commands = new ArrayList<>();
-        if (this.requirements != null) {
-            commands.add(this.virtualEnvCommand(runContext, workingDirectory, runContext.render(this.requirements).asList(String.class)));
-            commands.add("./bin/python {{workingDir}}/main.py");
+        if (this.requirements != null && derivedImage == null) {
+            Path virtualEnv = directory == null ? workingDirectory : workingDirectory.resolve(directory);
+            commands.add(this.virtualEnvCommand(runContext, virtualEnv, prefix, runContext.render(this.requirements).asList(String.class), cache.getMode()));
+            commands.add("./" + prefix + "bin/python {{workingDir}}/" + prefix + "main.py");
         } else {
-            commands.add("python {{workingDir}}/main.py");
+            commands.add("python {{workingDir}}/" + prefix + "main.py");
         }
 
         PluginUtilsService.createInputFiles(
             runContext,
             workingDirectory,
-            this.finalInputFiles(runContext, workingDirectory),
+            inputFiles,
             this.taskRunner.additionalVars(runContext, commandsWrapper)
         );
 
@@ -163,6 +320,30 @@ public abstract class AbstractSoda extends Task {
             .withCommands(Property.ofExpression(JacksonMapper.ofJson().writeValueAsString(commands)));
     }
 
+    /**
+     * @return whether the task runner leaves the files written by the scan in the working directory of
+     * the worker, so that the result can be read in place rather than uploaded to the internal storage
+     * and downloaded back
+     */
+    boolean runsInWorkingDirectory(RunContext runContext) throws IllegalVariableEvaluationException {
+        if (this.taskRunner instanceof Docker docker) {
+            // a volume only gets the declared output files copied back
+            return runContext.render(docker.getFileHandlingStrategy()).as(FileHandlingStrategy.class).orElse(FileHandlingStrategy.MOUNT) == FileHandlingStrategy.MOUNT;
+        }
+
+        return runContext.render(this.runner).as(RunnerType.class).isPresent() ||
+            this.taskRunner instanceof io.kestra.plugin.core.runner.Process;
+    }
+
+    /**
+     * Derived images only exist on the local daemon, they must never be pulled.
+     */
+    private static Docker localImageRunner(Docker docker) {
+        return docker.toBuilder()
+            .pullPolicy(Property.ofValue(PullPolicy.NEVER))
+            .build();
+    }
+
     private DockerOptions injectDefaults(DockerOptions original) {
         if (original == null) {
             return null;
@@ -179,23 +360,52 @@ public abstract class AbstractSoda extends Task {
         return builder.build();
     }
 
-    private String virtualEnvCommand(RunContext runContext, Path workingDirectory, List<String> requirements) throws IllegalVariableEvaluationException {
+    private String virtualEnvCommand(RunContext runContext, Path virtualEnv, String prefix, List<String> requirements, WheelhouseCache.Mode cacheMode) throws IllegalVariableEvaluationException {
         List<String> renderer = new ArrayList<>();
 
         renderer.add("set -o errexit");
-        renderer.add("python -m venv --system-site-packages " + workingDirectory + " > /dev/null");
+        renderer.add("python -m venv --system-site-packages " + virtualEnv + " > /dev/null");
 
         if (requirements != null) {
             String installArgs = requirements.stream()
                 .map(AbstractSoda::shellQuote)
                 .collect(Collectors.joining(" "));
+            String bin = "./" + prefix + "bin/";
+            String archive = prefix + WheelhouseCache.ARCHIVE;
+            String wheelhouse = prefix + WheelhouseCache.DIRECTORY;
 
-            renderer.addAll(
-                Arrays.asList(
-                    "./bin/pip install pip --upgrade > /dev/null",
-                    "./bin/pip install " + installArgs + " > /dev/null"
-                )
-            );
+            switch (cacheMode) {
+                case RESTORE -> renderer.addAll(
+                    Arrays.asList(
+                        "if " + bin + "python -m zipfile -e " + archive + " ./" + prefix + " > /dev/null 2>&1 \\",
+                        "  && [ \"$(cat " + wheelhouse + "/" + WheelhouseCache.MARKER + ")\" = \"$(" + bin + "python -c '" + PYTHON_PLATFORM + "')\" ] \\",
+                        "  && " + bin + "pip install --no-index --find-links " + wheelhouse + " " + installArgs + " > /dev/null 2>&1; then",
+                        "  true",
+                        "else",
+                        "  " + bin + "pip install pip --upgrade > /dev/null",
+                        "  " + bin + "pip install " + installArgs + " > /dev/null",
+                        "fi"
+                    )
+                );
+                case BUILD -> renderer.addAll(
+                    Arrays.asList(
+                        bin + "pip install pip --upgrade > /dev/null",
+                        "if " + bin + "pip wheel --wheel-dir " + wheelhouse + " " + installArgs + " > /dev/null 2>&1; then",
+                        "  " + bin + "pip install --no-index --find-links " + wheelhouse + " " + installArgs + " > /dev/null",
+                        "  " + bin + "python -c '" + PYTHON_PLATFORM + "' > " + wheelhouse + "/" + WheelhouseCache.MARKER,
+                        "  " + bin + "python -m zipfile -c " + archive + " " + wheelhouse + " > /dev/null",
+                        "else",
+                        "  " + bin + "pip install " + installArgs + " > /dev/null",
+                        "fi"
+                    )
+                );
+                default -> renderer.addAll(
+                    Arrays.asList(
+                        bin + "pip install pip --upgrade > /dev/null",
+                        bin + "pip install " + installArgs + " > /dev/null"
+                    )
+                );
+            }
         }
 
         return String.join("\n", renderer);
@@ -209,7 +419,33 @@ public abstract class AbstractSoda extends Task {
      * character that cannot appear inside single quotes — the single quote itself — is escaped with
      * the standard {@code '\''} sequence (close quote, escaped quote, reopen quote).
      */
-    private static String shellQuote(String value) {
+    static String shellQuote(String value) {
         return "'" + value.replace("'", "'\\''") + "'";
     }
+
+    /**
+     * Escapes the opening curly bracket of JSON strings, so that no Pebble delimiter survives in them.
+     */
+    private static final class PebbleEscapes extends CharacterEscapes {
+        private final int[] escapes = standardAsciiEscapesForJSON();
+
+        private PebbleEscapes() {
+            this.escapes['{'] = ESCAPE_STANDARD;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return this.escapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            return null;
+        }
+    }
+
+    public enum InstallMode {
+        RUNTIME,
+        IMAGE
+    }
 }
@@ -0,0 +1,187 @@
+package io.kestra.plugin.soda;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Validated and normalized form of a SodaCL checks map, built before any scan process is started.
+ * <p>
+ * The sections of the map are checked against the SodaCL structure (known section names, non-empty
+ * lists of checks, single-key check configurations, dataset filters defined before being used) and
+ * every problem is reported at once. The checks of each table are then grouped under a single
+ * {@code checks for <table>} section, without duplicates.
+ * <p>
+ * Plans are immutable and kept in a small in-memory cache keyed by the hash of the rendered checks,
+ * so the flows that run the same checks over and over only parse them once per worker.
+ *
+ * @param tables the checks of each table, keyed by table name and optional filter name
+ * @param sections the other sections (filters, profiling, discovery...), as written
+ * @param hash the hash of the rendered checks the plan was built from
+ */
+record ChecksPlan(Map<String, List<Object>> tables, Map<String, Object> sections, String hash) {
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+    private static final int CACHE_SIZE = 256;
+    private static final Map<String, ChecksPlan> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ChecksPlan> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    private static final Pattern CHECKS_FOR = Pattern.compile("checks for\\s+(\"[^\"]+\"|[^\\s\\[]+)\\s*(?:\\[\\s*([^\\]]+?)\\s*])?");
+    private static final Pattern FILTER = Pattern.compile("filter\\s+(\"[^\"]+\"|[^\\s\\[]+)\\s*\\[\\s*([^\\]]+?)\\s*]");
+    private static final List<String> SECTIONS = List.of(
+        "for each ",
+        "profile columns",
+        "discover datasets",
+        "discover tables",
+        "automated monitoring",
+        "sample datasets",
+        "reconciliation ",
+        "configurations for "
+    );
+
+    /**
+     * @return the normalized checks map, ready to be written to {@code checks.yml}
+     */
+    Map<String, Object> checks() {
+        Map<String, Object> checks = new LinkedHashMap<>(sections);
+        tables.forEach((key, entries) -> checks.put(key, entries));
+
+        return checks;
+    }
+
+    /**
+     * @throws IllegalArgumentException listing every problem found in the checks
+     */
+    static ChecksPlan of(Map<String, Object> checks) {
+        if (checks == null || checks.isEmpty()) {
+            throw new IllegalArgumentException("Invalid SodaCL checks: no checks defined");
+        }
+
+        String hash = hash(checks);
+
+        ChecksPlan cached = CACHE.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        ChecksPlan plan = parse(checks, hash);
+        CACHE.put(hash, plan);
+
+        return plan;
+    }
+
+    private static ChecksPlan parse(Map<String, Object> checks, String hash) {
+        List<String> errors = new ArrayList<>();
+        Map<String, Set<Object>> tables = new LinkedHashMap<>();
+        Map<String, Object> sections = new LinkedHashMap<>();
+        Set<String> filters = new LinkedHashSet<>();
+        Map<String, String> usedFilters = new LinkedHashMap<>();
+
+        checks.forEach((key, value) -> {
+            String section = key.trim().replaceAll("\\s+", " ");
+
+            Matcher checksFor = CHECKS_FOR.matcher(section);
+            if (checksFor.matches()) {
+                String table = checksFor.group(1);
+                String filter = checksFor.group(2);
+                String normalized = ScanShards.CHECKS_FOR + table + (filter == null ? "" : " [" + filter + "]");
+
+                if (filter != null) {
+                    usedFilters.put(table + " [" + filter + "]", key);
+                }
+
+                validateChecks(key, value, errors);
+                if (value instanceof List<?> entries) {
+                    tables.computeIfAbsent(normalized, k -> new LinkedHashSet<>()).addAll(entries);
+                }
+                return;
+            }
+
+            Matcher filter = FILTER.matcher(section);
+            if (filter.matches()) {
+                filters.add(filter.group(1) + " [" + filter.group(2) + "]");
+                if (!(value instanceof Map<?, ?> map) || !(map.get("where") instanceof String where) || where.isBlank()) {
+                    errors.add("'" + key + "' must define a 'where' condition");
+                }
+                sections.put(key, value);
+                return;
+            }
+
+            if (section.startsWith("checks for")) {
+                errors.add("'" + key + "' does not name a table");
+            } else if (SECTIONS.stream().noneMatch(section::startsWith)) {
+                errors.add("'" + key + "' is not a SodaCL section");
+            } else if (value == null) {
+                errors.add("'" + key + "' is empty");
+            }
+
+            sections.put(key, value);
+        });
+
+        usedFilters.forEach((filter, key) -> {
+            if (!filters.contains(filter)) {
+                errors.add("'" + key + "' uses the filter '" + filter + "' which is not defined by a 'filter " + filter + "' section");
+            }
+        });
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid SodaCL checks:\n - " + String.join("\n - ", errors));
+        }
+
+        Map<String, List<Object>> grouped = new LinkedHashMap<>();
+        tables.forEach((table, entries) -> grouped.put(table, List.copyOf(entries)));
+
+        return new ChecksPlan(Collections.unmodifiableMap(grouped), Collections.unmodifiableMap(sections), hash);
+    }
+
+    private static void validateChecks(String key, Object value, List<String> errors) {
+        if (!(value instanceof List<?> entries) || entries.isEmpty()) {
+            errors.add("'" + key + "' must contain a list of checks");
+            return;
+        }
+
+        for (Object entry : entries) {
+            if (entry instanceof String line) {
+                if (line.isBlank()) {
+                    errors.add("'" + key + "' contains an empty check");
+                }
+            } else if (entry instanceof Map<?, ?> map) {
+                if (map.size() != 1) {
+                    errors.add("'" + key + "' contains a check with several definitions " + map.keySet() + ", each check must be a separate list item");
+                } else if (!(map.keySet().iterator().next() instanceof String line) || line.isBlank()) {
+                    errors.add("'" + key + "' contains a check without definition");
+                } else if (map.values().iterator().next() != null && !(map.values().iterator().next() instanceof Map<?, ?>)) {
+                    errors.add("'" + key + "' contains the check '" + line + "' whose configuration is not a map");
+                }
+            } else {
+                errors.add("'" + key + "' contains an invalid check: " + entry);
+            }
+        }
+    }
+
+    static String hash(Map<String, Object> checks) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(MAPPER.writeValueAsString(checks).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.Task;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckChange;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.MetricDelta;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Compare the results of two Soda scans",
+    description = "Joins the checks and the metrics stored by two `Scan` tasks with `store: true` on their identity, and writes the checks whose outcome got worse or better and the metrics that moved beyond a threshold to ION files in internal storage. " +
+        "Both results are sorted on disk before being merged, so the memory used does not depend on their size."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Compare the scan of the current deployment with the one of the previous deployment.",
+            full = true,
+            code = """
+                id: soda_compare
+                namespace: company.team
+
+                inputs:
+                  - id: previous_checks
+                    type: STRING
+                  - id: previous_metrics
+                    type: STRING
+
+                tasks:
+                  - id: scan
+                    type: io.kestra.plugin.soda.Scan
+                    store: true
+                    configuration:
+                      data_source kestra:
+                        type: postgres
+                        connection:
+                          host: localhost
+                          database: app
+                          username: kestra
+                          password: "{{ secret('PG_PASSWORD') }}"
+                    checks:
+                      checks for orders:
+                        - row_count > 0
+                    requirements:
+                      - soda-core-postgres
+
+                  - id: compare
+                    type: io.kestra.plugin.soda.CompareScans
+                    previousChecks: "{{ inputs.previous_checks }}"
+                    currentChecks: "{{ outputs.scan.checksUri }}"
+                    previousMetrics: "{{ inputs.previous_metrics }}"
+                    currentMetrics: "{{ outputs.scan.metricsUri }}"
+                    metricThreshold: 0.2
+                """
+        )
+    }
+)
+public class CompareScans extends Task implements RunnableTask<CompareScans.Output> {
+    /**
+     * Number of records sorted in memory before being written to a temporary run.
+     */
+    static final int RUN_SIZE = 10_000;
+
+    @Schema(
+        title = "URI of the checks of the previous scan",
+        description = "The `checksUri` output of a `Scan` task. Must be set along with `currentChecks`."
+    )
+    @PluginProperty(group = "main")
+    private Property<String> previousChecks;
+
+    @Schema(
+        title = "URI of the checks of the current scan",
+        description = "The `checksUri` output of a `Scan` task. Must be set along with `previousChecks`."
+    )
+    @PluginProperty(group = "main")
+    private Property<String> currentChecks;
+
+    @Schema(
+        title = "URI of the metrics of the previous scan",
+        description = "The `metricsUri` output of a `Scan` task. Must be set along with `currentMetrics`."
+    )
+    @PluginProperty(group = "main")
+    private Property<String> previousMetrics;
+
+    @Schema(
+        title = "URI of the metrics of the current scan",
+        description = "The `metricsUri` output of a `Scan` task. Must be set along with `previousMetrics`."
+    )
+    @PluginProperty(group = "main")
+    private Property<String> currentMetrics;
+
+    @Schema(
+        title = "Minimum change of a metric to be reported, relative to its previous value",
+        description = "Defaults to 0.1, reporting the numeric metrics that moved by more than 10%. A metric whose previous value is 0 is reported as soon as it changes; non-numeric metrics are not compared."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Double> metricThreshold = Property.ofValue(0.1);
+
+    @Override
+    public CompareScans.Output run(RunContext runContext) throws Exception {
+        Optional<URI> previousChecksUri = this.uri(runContext, this.previousChecks);
+        Optional<URI> currentChecksUri = this.uri(runContext, this.currentChecks);
+        Optional<URI> previousMetricsUri = this.uri(runContext, this.previousMetrics);
+        Optional<URI> currentMetricsUri = this.uri(runContext, this.currentMetrics);
+
+        if (previousChecksUri.isPresent() != currentChecksUri.isPresent() || previousMetricsUri.isPresent() != currentMetricsUri.isPresent()) {
+            throw new IllegalArgumentException("`previousChecks` and `currentChecks`, and `previousMetrics` and `currentMetrics`, must be set together");
+        }
+        if (previousChecksUri.isEmpty() && previousMetricsUri.isEmpty()) {
+            throw new IllegalArgumentException("At least the checks or the metrics of both scans must be set");
+        }
+
+        Output.OutputBuilder output = Output.builder();
+
+        if (previousChecksUri.isPresent()) {
+            this.compareChecks(runContext, previousChecksUri.get(), currentChecksUri.get(), output);
+        }
+
+        if (previousMetricsUri.isPresent()) {
+            double threshold = runContext.render(this.metricThreshold).as(Double.class).orElse(0.1);
+            this.compareMetrics(runContext, previousMetricsUri.get(), currentMetricsUri.get(), threshold, output);
+        }
+
+        return output.build();
+    }
+
+    private Optional<URI> uri(RunContext runContext, Property<String> property) throws IllegalVariableEvaluationException {
+        return runContext.render(property).as(String.class).filter(value -> !value.isBlank()).map(URI::create);
+    }
+
+    private void compareChecks(RunContext runContext, URI previousUri, URI currentUri, Output.OutputBuilder output) throws IOException {
+        ExternalSorter<Check> sorter = new ExternalSorter<>(runContext, Check.class, Comparator.comparing(CompareScans::key), RUN_SIZE);
+
+        Path regressionsFile = runContext.workingDir().createTempFile(".ion");
+        Path fixesFile = runContext.workingDir().createTempFile(".ion");
+        long regressions = 0;
+        long fixes = 0;
+        long newChecks = 0;
+        long removedChecks = 0;
+
+        try (
+            ExternalSorter.Records<Check> previous = sorter.sort(runContext.storage().getFile(previousUri));
+            ExternalSorter.Records<Check> current = sorter.sort(runContext.storage().getFile(currentUri));
+            OutputStream regressionsOutput = new BufferedOutputStream(Files.newOutputStream(regressionsFile), FileSerde.BUFFER_SIZE);
+            OutputStream fixesOutput = new BufferedOutputStream(Files.newOutputStream(fixesFile), FileSerde.BUFFER_SIZE)
+        ) {
+            Check previousCheck = next(previous);
+            Check currentCheck = next(current);
+
+            while (previousCheck != null || currentCheck != null) {
+                int comparison = previousCheck == null ? 1 : currentCheck == null ? -1 : key(previousCheck).compareTo(key(currentCheck));
+
+                if (comparison < 0) {
+                    removedChecks++;
+                    previousCheck = next(previous);
+                } else if (comparison > 0) {
+                    newChecks++;
+                    currentCheck = next(current);
+                } else {
+                    int previousRank = rank(previousCheck.getOutcome());
+                    int currentRank = rank(currentCheck.getOutcome());
+
+                    if (currentRank > previousRank) {
+                        FileSerde.write(regressionsOutput, change(previousCheck, currentCheck));
+                        regressions++;
+                    } else if (currentRank < previousRank) {
+                        FileSerde.write(fixesOutput, change(previousCheck, currentCheck));
+                        fixes++;
+                    }
+
+                    previousCheck = next(previous);
+                    currentCheck = next(current);
+                }
+            }
+        }
+
+        runContext.metric(Counter.of("regressions", regressions));
+        runContext.metric(Counter.of("fixes", fixes));
+        runContext.logger().info("{} checks regressed, {} checks were fixed, {} checks are new and {} were removed", regressions, fixes, newChecks, removedChecks);
+
+        output
+            .regressions(regressions)
+            .fixes(fixes)
+            .newChecks(newChecks)
+            .removedChecks(removedChecks)
+            .regressionsUri(runContext.storage().putFile(regressionsFile.toFile()))
+            .fixesUri(runContext.storage().putFile(fixesFile.toFile()));
+    }
+
+    private void compareMetrics(RunContext runContext, URI previousUri, URI currentUri, double threshold, Output.OutputBuilder output) throws IOException {
+        ExternalSorter<Metric> sorter = new ExternalSorter<>(runContext, Metric.class, Comparator.comparing(metric -> Objects.requireNonNullElse(metric.getIdentity(), "")), RUN_SIZE);
+
+        Path deltasFile = runContext.workingDir().createTempFile(".ion");
+        long deltas = 0;
+
+        try (
+            ExternalSorter.Records<Metric> previous = sorter.sort(runContext.storage().getFile(previousUri));
+            ExternalSorter.Records<Metric> current = sorter.sort(runContext.storage().getFile(currentUri));
+            OutputStream deltasOutput = new BufferedOutputStream(Files.newOutputStream(deltasFile), FileSerde.BUFFER_SIZE)
+        ) {
+            Metric previousMetric = next(previous);
+            Metric currentMetric = next(current);
+
+            while (previousMetric != null && currentMetric != null) {
+                int comparison = Objects.requireNonNullElse(previousMetric.getIdentity(), "").compareTo(Objects.requireNonNullElse(currentMetric.getIdentity(), ""));
+
+                if (comparison < 0) {
+                    previousMetric = next(previous);
+                } else if (comparison > 0) {
+                    currentMetric = next(current);
+                } else {
+                    MetricDelta delta = delta(previousMetric, currentMetric, threshold);
+                    if (delta != null) {
+                        FileSerde.write(deltasOutput, delta);
+                        deltas++;
+                    }
+
+                    previousMetric = next(previous);
+                    currentMetric = next(current);
+                }
+            }
+        }
+
+        runContext.metric(Counter.of("metricDeltas", deltas));
+        runContext.logger().info("{} metrics moved by more than {}%", deltas, threshold * 100);
+
+        output
+            .metricDeltas(deltas)
+            .metricDeltasUri(runContext.storage().putFile(deltasFile.toFile()));
+    }
+
+    /**
+     * @return the change of the metric, or null when it is not numeric or did not move beyond the threshold
+     */
+    static MetricDelta delta(Metric previous, Metric current, double threshold) {
+        if (!(previous.getValue() instanceof Number previousNumber) || !(current.getValue() instanceof Number currentNumber)) {
+            return null;
+        }
+
+        double previousValue = previousNumber.doubleValue();
+        double currentValue = currentNumber.doubleValue();
+        double delta = currentValue - previousValue;
+        Double relativeChange = previousValue == 0 ? null : delta / Math.abs(previousValue);
+
+        if (relativeChange == null ? delta == 0 : Math.abs(relativeChange) <= threshold) {
+            return null;
+        }
+
+        return MetricDelta.builder()
+            .identity(current.getIdentity())
+            .metricName(current.getMetricName())
+            .previousValue(previousValue)
+            .currentValue(currentValue)
+            .delta(delta)
+            .relativeChange(relativeChange)
+            .build();
+    }
+
+    /**
+     * Checks are joined on their identity, or on their data source, table and name for the checks
+     * reported without one.
+     */
+    static String key(Check check) {
+        return check.getIdentity() != null ?
+            check.getIdentity() :
+            Objects.requireNonNullElse(check.getDataSource(), "") + "/" + Objects.requireNonNullElse(check.getTable(), "") + "/" + Objects.requireNonNullElse(check.getName(), "");
+    }
+
+    /**
+     * @return the severity of an outcome, a check that could not be evaluated being the most severe
+     */
+    static int rank(CheckOutcome outcome) {
+        return outcome == null ? 3 : switch (outcome) {
+            case pass -> 0;
+            case warn -> 1;
+            case fail -> 2;
+        };
+    }
+
+    private static CheckChange change(Check previous, Check current) {
+        return CheckChange.builder()
+            .identity(current.getIdentity())
+            .name(current.getName())
+            .dataSource(current.getDataSource())
+            .table(current.getTable())
+            .column(current.getColumn())
+            .previousOutcome(previous.getOutcome())
+            .currentOutcome(current.getOutcome())
+            .build();
+    }
+
+    private static <T> T next(ExternalSorter.Records<T> records) {
+        return records.hasNext() ? records.next() : null;
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "Number of checks whose outcome got worse",
+            description = "From `pass` to `warn` or `fail`, from `warn` to `fail`, or to an error."
+        )
+        private final Long regressions;
+
+        @Schema(
+            title = "Number of checks whose outcome got better"
+        )
+        private final Long fixes;
+
+        @Schema(
+            title = "Number of checks of the current scan only"
+        )
+        private final Long newChecks;
+
+        @Schema(
+            title = "Number of checks of the previous scan only"
+        )
+        private final Long removedChecks;
+
+        @Schema(
+            title = "URI of the ION file holding the regressed checks"
+        )
+        private final URI regressionsUri;
+
+        @Schema(
+            title = "URI of the ION file holding the fixed checks"
+        )
+        private final URI fixesUri;
+
+        @Schema(
+            title = "Number of metrics that moved beyond `metricThreshold`"
+        )
+        private final Long metricDeltas;
+
+        @Schema(
+            title = "URI of the ION file holding the metrics that moved beyond `metricThreshold`"
+        )
+        private final URI metricDeltasUri;
+    }
+}
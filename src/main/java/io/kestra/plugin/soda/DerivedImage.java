@@ -0,0 +1,101 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+
+import io.kestra.plugin.scripts.runner.docker.PullPolicy;
+
+/**
+ * Builds, or reuses, an image deriving from the task container image with the {@code requirements}
+ * already installed. The tag is content-addressed so every task sharing the same base image and
+ * requirements runs in the same image, and it is only built once per Docker daemon. The base image is
+ * addressed by its resolved ID, so a tag moved to a new base image gets a new derived image. An image
+ * that can't be built fails the task: the `IMAGE` install mode was asked for explicitly.
+ */
+class DerivedImage {
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private DerivedImage() {
+    }
+
+    static String tag(String repository, String baseImage, String baseImageId, List<String> requirements) {
+        return repository + ":" + WheelhouseCache.key(baseImage + "@" + baseImageId, requirements).substring(0, 32);
+    }
+
+    /**
+     * @param baseImageId the resolved ID of the base image, so the image is never built from another
+     * image than the one its tag was computed from
+     */
+    static String dockerfile(String baseImageId, List<String> requirements) {
+        validate(requirements);
+
+        return "FROM " + baseImageId + "\n" +
+            "ENV PIP_ROOT_USER_ACTION=ignore\n" +
+            "RUN pip install --no-cache-dir " + requirements.stream().map(AbstractSoda::shellQuote).collect(Collectors.joining(" ")) + "\n";
+    }
+
+    private static void validate(List<String> requirements) {
+        // a line break would end the RUN instruction and start another one
+        for (String requirement : requirements) {
+            if (requirement.indexOf('\n') >= 0 || requirement.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Invalid requirement '" + requirement.strip() + "', it must not contain a line break");
+            }
+        }
+    }
+
+    /**
+     * @param pullPolicy the pull policy of the task runner, applied to the base image
+     * @return the derived image
+     * @throws IOException when the image can't be built, the `IMAGE` install mode being explicitly asked for
+     */
+    static String ensure(ImageBuilder builder, Logger logger, String repository, String baseImage, PullPolicy pullPolicy, List<String> requirements) throws IOException, InterruptedException {
+        validate(requirements);
+
+        String baseImageId;
+        try {
+            baseImageId = builder.resolve(baseImage, pullPolicy);
+        } catch (IOException e) {
+            throw new IOException("Unable to resolve image '" + baseImage + "' to build the image of the `IMAGE` install mode", e);
+        }
+
+        String tag = tag(repository, baseImage, baseImageId, requirements);
+
+        synchronized (LOCKS.computeIfAbsent(builder.daemon() + "/" + tag, k -> new Object())) {
+            if (builder.exists(tag)) {
+                logger.debug("Reusing derived image '{}'", tag);
+                return tag;
+            }
+
+            logger.info("Building derived image '{}' from '{}' ({})", tag, baseImage, baseImageId);
+            try {
+                builder.build(tag, dockerfile(baseImageId, requirements));
+            } catch (IOException e) {
+                throw new IOException("Unable to build the image '" + tag + "' of the `IMAGE` install mode", e);
+            }
+
+            return tag;
+        }
+    }
+
+    interface ImageBuilder {
+        /**
+         * @return the Docker daemon the images are built on, images being only shared on the same daemon
+         */
+        String daemon();
+
+        /**
+         * @return the digest reference ({@code repository@sha256:...}) of an image, or its ID when it
+         * was never pushed, pulled according to {@code pullPolicy}
+         */
+        String resolve(String image, PullPolicy pullPolicy) throws IOException, InterruptedException;
+
+        boolean exists(String image) throws IOException, InterruptedException;
+
+        void build(String image, String dockerfile) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,130 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.kestra.plugin.scripts.runner.docker.PullPolicy;
+
+/**
+ * Thin wrapper around the {@code docker} command line of the worker host, honoring {@code DOCKER_HOST}
+ * and the other standard Docker environment variables unless a daemon host is given.
+ */
+class DockerCli implements DerivedImage.ImageBuilder {
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(1);
+    private static final Duration BUILD_TIMEOUT = Duration.ofMinutes(30);
+
+    private final String executable;
+    private final String host;
+
+    DockerCli() {
+        this("docker", null);
+    }
+
+    /**
+     * @param host the daemon to talk to, as the {@code --host} option of the command line, or null for
+     * the one of the environment
+     */
+    DockerCli(String executable, String host) {
+        this.executable = executable;
+        this.host = host;
+    }
+
+    @Override
+    public String daemon() {
+        return host == null ? "" : host;
+    }
+
+    @Override
+    public String resolve(String image, PullPolicy pullPolicy) throws IOException, InterruptedException {
+        Result result = pullPolicy == PullPolicy.ALWAYS ? null : this.inspect(image);
+
+        if ((result == null || result.exitCode() != 0) && pullPolicy != PullPolicy.NEVER) {
+            Result pull = this.exec(List.of("pull", "--quiet", image), null, BUILD_TIMEOUT);
+            if (pull.exitCode() != 0) {
+                throw new IOException("Unable to pull image '" + image + "': " + pull.output());
+            }
+
+            result = this.inspect(image);
+        }
+
+        if (result.exitCode() != 0) {
+            throw new IOException("Unable to inspect image '" + image + "': " + result.output());
+        }
+
+        return result.output();
+    }
+
+    /**
+     * Inspects the digest of an image pulled from a registry, usable in a {@code FROM} instruction by
+     * every builder, or the ID of a local one.
+     */
+    private Result inspect(String image) throws IOException, InterruptedException {
+        return this.exec(List.of("image", "inspect", "--format", "{{if .RepoDigests}}{{index .RepoDigests 0}}{{else}}{{.Id}}{{end}}", image), null, DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public boolean exists(String image) throws IOException, InterruptedException {
+        return this.inspect(image).exitCode() == 0;
+    }
+
+    @Override
+    public void build(String image, String dockerfile) throws IOException, InterruptedException {
+        Result result = this.exec(List.of("build", "--tag", image, "-"), dockerfile, BUILD_TIMEOUT);
+
+        if (result.exitCode() != 0) {
+            throw new IOException("Unable to build image '" + image + "': " + result.output());
+        }
+    }
+
+    Result exec(List<String> args, String stdin, Duration timeout) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(executable);
+        if (host != null) {
+            command.add("--host");
+            command.add(host);
+        }
+        command.addAll(args);
+
+        Process process;
+        try {
+            process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+        } catch (IOException e) {
+            throw new IOException("Unable to run the `" + executable + "` command line, it must be installed on the Kestra worker", e);
+        }
+
+        CompletableFuture<String> output = CompletableFuture.supplyAsync(() -> read(process.getInputStream()));
+
+        try (OutputStream outputStream = process.getOutputStream()) {
+            if (stdin != null) {
+                outputStream.write(stdin.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("'" + String.join(" ", command) + "' timed out after " + timeout);
+        }
+
+        return new Result(process.exitValue(), output.join());
+    }
+
+    private static String read(InputStream inputStream) {
+        try (inputStream) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    record Result(int exitCode, String output) {
+    }
+}
@@ -0,0 +1,190 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Sorts the records of an ION file of any size in bounded memory: the records are sorted in runs of
+ * {@code runSize} written to temporary ION files, which are then merged back one record of each run
+ * at a time. A file holding a single run is sorted in memory.
+ */
+final class ExternalSorter<T> {
+    private static final ObjectMapper ION = JacksonMapper.ofIon();
+
+    private final RunContext runContext;
+    private final Class<T> type;
+    private final Comparator<T> comparator;
+    private final int runSize;
+
+    ExternalSorter(RunContext runContext, Class<T> type, Comparator<T> comparator, int runSize) {
+        this.runContext = runContext;
+        this.type = type;
+        this.comparator = comparator;
+        this.runSize = runSize;
+    }
+
+    /**
+     * Records read from an ION stream, to be closed once read.
+     */
+    interface Records<R> extends Iterator<R>, AutoCloseable {
+        @Override
+        void close() throws IOException;
+    }
+
+    static <T> Records<T> read(InputStream inputStream, Class<T> type) throws IOException {
+        MappingIterator<T> iterator = ION.readerFor(type).readValues(new BufferedInputStream(inputStream, FileSerde.BUFFER_SIZE));
+
+        return new Records<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() throws IOException {
+                iterator.close();
+                inputStream.close();
+            }
+        };
+    }
+
+    /**
+     * @return the records of the stream, sorted; the stream is closed once the runs are written
+     */
+    Records<T> sort(InputStream inputStream) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<T> buffer = new ArrayList<>();
+
+        try (Records<T> records = read(inputStream, type)) {
+            while (records.hasNext()) {
+                buffer.add(records.next());
+                if (buffer.size() == runSize) {
+                    runs.add(this.writeRun(buffer));
+                    buffer.clear();
+                }
+            }
+        }
+
+        if (runs.isEmpty()) {
+            buffer.sort(comparator);
+            Iterator<T> iterator = buffer.iterator();
+
+            return new Records<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        if (!buffer.isEmpty()) {
+            runs.add(this.writeRun(buffer));
+        }
+
+        return new Merge(runs);
+    }
+
+    private Path writeRun(List<T> buffer) throws IOException {
+        buffer.sort(comparator);
+
+        Path run = runContext.workingDir().createTempFile(".ion");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(run), FileSerde.BUFFER_SIZE)) {
+            for (T record : buffer) {
+                FileSerde.write(outputStream, record);
+            }
+        }
+
+        return run;
+    }
+
+    private record Head<R>(R record, Records<R> reader) {
+    }
+
+    /**
+     * K-way merge of the sorted runs, on a heap holding the next record of each run.
+     */
+    private class Merge implements Records<T> {
+        private final List<Path> runs;
+        private final List<Records<T>> readers = new ArrayList<>();
+        private final PriorityQueue<Head<T>> heap;
+
+        Merge(List<Path> runs) throws IOException {
+            this.runs = runs;
+            this.heap = new PriorityQueue<>(runs.size(), (a, b) -> comparator.compare(a.record(), b.record()));
+
+            try {
+                for (Path run : runs) {
+                    Records<T> reader = read(Files.newInputStream(run), type);
+                    readers.add(reader);
+                    if (reader.hasNext()) {
+                        heap.add(new Head<>(reader.next(), reader));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heap.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+
+            if (head.reader().hasNext()) {
+                heap.add(new Head<>(head.reader().next(), head.reader()));
+            }
+
+            return head.record();
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Records<T> reader : readers) {
+                reader.close();
+            }
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.DiscoverTablesResultTable;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ProfileColumnsResultTable;
+
+/**
+ * Uploads the failed rows sample of each check to Kestra's internal storage as it is read, the JSON
+ * lines written by the scan process being converted one row at a time to an ION file with their
+ * secrets masked, and hands the check to the next listener with the URI of its file.
+ */
+class FailedRowsUploader implements ScanResultReader.Listener {
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {
+    };
+
+    private final RunContext runContext;
+    private final ScriptOutput output;
+    private final Redactor redactor;
+    private final ScanResultReader.Listener delegate;
+
+    FailedRowsUploader(RunContext runContext, ScriptOutput output, Redactor redactor, ScanResultReader.Listener delegate) {
+        this.runContext = runContext;
+        this.output = output;
+        this.redactor = redactor;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void metric(Metric metric) throws IOException {
+        delegate.metric(metric);
+    }
+
+    @Override
+    public void profile(ProfileColumnsResultTable profile) throws IOException {
+        delegate.profile(profile);
+    }
+
+    @Override
+    public void discoveredTable(DiscoverTablesResultTable table) throws IOException {
+        delegate.discoveredTable(table);
+    }
+
+    @Override
+    public void check(Check check) throws IOException {
+        if (check.getFailedRowsFile() == null) {
+            delegate.check(check);
+            return;
+        }
+
+        URI uri = this.upload(check.getFailedRowsFile());
+
+        delegate.check(check.toBuilder()
+            .failedRowsFile(null)
+            .failedRowsUri(uri)
+            .build()
+        );
+    }
+
+    /**
+     * @return the URI of the uploaded sample, or null when the scan process wrote it where it cannot be read
+     */
+    private URI upload(String file) throws IOException {
+        InputStream inputStream;
+        if (output.getOutputFiles() != null && output.getOutputFiles().containsKey(file)) {
+            inputStream = runContext.storage().getFile(output.getOutputFiles().get(file));
+        } else if (Files.exists(runContext.workingDir().path().resolve(file))) {
+            inputStream = Files.newInputStream(runContext.workingDir().path().resolve(file));
+        } else {
+            runContext.logger().warn("Unable to read the failed rows sample '{}', it is not kept", file);
+            return null;
+        }
+
+        Path ion = runContext.workingDir().createTempFile(".ion");
+        try (
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(ion), FileSerde.BUFFER_SIZE)
+        ) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    FileSerde.write(outputStream, redactor.scrub(MAPPER.readValue(line, ROW)));
+                }
+            }
+        }
+
+        URI uri = runContext.storage().putFile(ion.toFile());
+        Files.delete(ion);
+
+        return uri;
+    }
+}
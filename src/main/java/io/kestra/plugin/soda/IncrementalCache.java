@@ -0,0 +1,295 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.DiscoverTablesResultTable;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ProfileColumnsResultTable;
+import io.kestra.plugin.soda.models.ScanResult;
+
+/**
+ * Outcomes of the checks of each table of a data source, kept in Kestra's cache storage so that an
+ * incremental scan only runs the checks of the tables that changed.
+ * <p>
+ * The checks of a table are keyed by the hash of their rendered definition, of the filters they use
+ * and of the rendered {@code data_source} block they run against; the cached entry also holds the
+ * freshness signal of the table at the time of the scan. The scan process reads the current
+ * signal of every table and skips the ones whose signal did not change, their cached checks being
+ * replayed in the output instead.
+ */
+class IncrementalCache {
+    private static final String CACHE_ID = "soda-incremental";
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+
+    private final RunContext runContext;
+    private final String query;
+    private final Map<String, Unit> units;
+
+    private IncrementalCache(RunContext runContext, String query, Map<String, Unit> units) {
+        this.runContext = runContext;
+        this.query = query;
+        this.units = units;
+    }
+
+    /**
+     * @param connection the rendered {@code data_source <name>} block of the configuration, so that the
+     * same data source name pointing to another host or database does not reuse the cached checks
+     */
+    static IncrementalCache open(RunContext runContext, IncrementalScan options, String dataSource, Object connection, Map<String, Object> checks, Map<String, Object> variables) throws IllegalVariableEvaluationException, IOException {
+        String query = runContext.render(options.getWatermarkQuery()).as(String.class).orElse(null);
+        Map<String, String> watermarks = runContext.render(options.getWatermarks()).asMap(String.class, String.class);
+        Duration ttl = runContext.render(options.getTtl()).as(Duration.class).orElse(null);
+
+        Map<String, List<String>> keys = tables(checks);
+        Map<String, Unit> units = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> table : keys.entrySet()) {
+            Map<String, Object> definition = new LinkedHashMap<>();
+            table.getValue().forEach(key -> definition.put(key, checks.get(key)));
+            definition.putAll(filters(checks, table.getKey(), table.getValue()));
+
+            String key = key(dataSource, connection, table.getKey(), definition, variables, query);
+            Entry previous = null;
+            Optional<InputStream> cached = runContext.storage().getCacheFile(CACHE_ID, key, ttl);
+            if (cached.isPresent()) {
+                try (InputStream inputStream = cached.get()) {
+                    previous = MAPPER.readValue(inputStream, Entry.class);
+                } catch (IOException e) {
+                    runContext.logger().debug("Unable to read the cached checks of '{}', they will run", table.getKey(), e);
+                }
+            }
+
+            String identifier = identifier(table.getValue().getFirst().substring(ScanShards.CHECKS_FOR.length()));
+            units.put(table.getKey(), new Unit(key, identifier, table.getValue(), watermarks.get(table.getKey()), previous));
+        }
+
+        return new IncrementalCache(runContext, query, units);
+    }
+
+    /**
+     * Groups the {@code checks for <table>} entries by unquoted table name, the name the checks of the
+     * scan result report, so that entries with different dataset filters on the same table are cached
+     * together.
+     */
+    static Map<String, List<String>> tables(Map<String, Object> checks) {
+        Map<String, List<String>> tables = new LinkedHashMap<>();
+        for (String key : checks.keySet()) {
+            if (key.startsWith(ScanShards.CHECKS_FOR)) {
+                String table = unquote(identifier(key.substring(ScanShards.CHECKS_FOR.length())));
+                tables.computeIfAbsent(table, k -> new ArrayList<>()).add(key);
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * @return the {@code filter <table> [<name>]} sections used by the given checks of a table, whose
+     * {@code where} changes the rows the checks read
+     */
+    static Map<String, Object> filters(Map<String, Object> checks, String table, List<String> keys) {
+        List<String> names = keys.stream()
+            .map(key -> filterName(key.substring(ScanShards.CHECKS_FOR.length())))
+            .filter(Objects::nonNull)
+            .toList();
+
+        Map<String, Object> filters = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : checks.entrySet()) {
+            if (entry.getKey().startsWith(ScanShards.FILTER)) {
+                String section = entry.getKey().substring(ScanShards.FILTER.length());
+                if (unquote(identifier(section)).equals(table) && names.contains(filterName(section))) {
+                    filters.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return filters;
+    }
+
+    /**
+     * @return the table identifier leading a section, quotes included
+     */
+    private static String identifier(String section) {
+        String trimmed = section.trim();
+        if (trimmed.startsWith("\"") || trimmed.startsWith("`")) {
+            int end = trimmed.indexOf(trimmed.charAt(0), 1);
+            if (end > 0) {
+                return trimmed.substring(0, end + 1);
+            }
+        }
+
+        int filter = trimmed.indexOf('[');
+        return (filter >= 0 ? trimmed.substring(0, filter) : trimmed).trim();
+    }
+
+    private static String filterName(String section) {
+        String filter = section.trim().substring(identifier(section).length());
+        int start = filter.indexOf('[');
+        int end = filter.lastIndexOf(']');
+
+        return start >= 0 && end > start ? filter.substring(start + 1, end).trim() : null;
+    }
+
+    static String unquote(String identifier) {
+        if (identifier.length() > 1 && (identifier.charAt(0) == '"' || identifier.charAt(0) == '`') && identifier.endsWith(identifier.substring(0, 1))) {
+            return identifier.substring(1, identifier.length() - 1);
+        }
+
+        return identifier;
+    }
+
+    static String key(String dataSource, Object connection, String table, Map<String, Object> definition, Map<String, Object> variables, String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : new Object[]{dataSource, connection, table, definition, variables, query}) {
+                digest.update(MAPPER.writeValueAsBytes(part));
+                digest.update((byte) '\n');
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the incremental plan sent to the scan process along with the checks
+     */
+    Map<String, Object> request() {
+        Map<String, Object> tables = new LinkedHashMap<>();
+        units.forEach((table, unit) -> {
+            Map<String, Object> plan = new LinkedHashMap<>();
+            plan.put("identifier", unit.identifier());
+            plan.put("keys", unit.keys());
+            plan.put("watermark", unit.watermark());
+            plan.put("previous", unit.previous() == null ? null : unit.previous().signal());
+            tables.put(table, plan);
+        });
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("query", query);
+        request.put("tables", tables);
+
+        return request;
+    }
+
+    /**
+     * Wraps the listener of the scan result to also keep the checks of each table, to be cached by
+     * {@link #complete(Object, Recorder)}.
+     */
+    Recorder recorder(ScanResultReader.Listener delegate) {
+        return new Recorder(delegate);
+    }
+
+    /**
+     * Replays the cached checks of the skipped tables to the listener, and caches the checks of the
+     * tables that were scanned.
+     *
+     * @param outcome the signals and skipped tables reported by the scan process
+     * @return the scan-level flags of the replayed checks
+     */
+    @SuppressWarnings("unchecked")
+    ScanResult complete(Object outcome, Recorder recorder) throws IOException {
+        Map<String, Object> signals = outcome instanceof Map<?, ?> map && map.get("signals") instanceof Map<?, ?> values ? (Map<String, Object>) values : Map.of();
+        List<Object> skipped = outcome instanceof Map<?, ?> map && map.get("skipped") instanceof List<?> values ? (List<Object>) values : List.of();
+
+        boolean hasWarnings = false;
+        boolean hasFailures = false;
+        int stored = 0;
+
+        for (Map.Entry<String, Unit> entry : units.entrySet()) {
+            Unit unit = entry.getValue();
+
+            if (skipped.contains(entry.getKey()) && unit.previous() != null) {
+                for (Check check : unit.previous().checks()) {
+                    hasWarnings |= check.getOutcome() == CheckOutcome.warn;
+                    hasFailures |= check.getOutcome() == CheckOutcome.fail;
+                    recorder.delegate.check(check.toBuilder().cached(true).build());
+                }
+                continue;
+            }
+
+            List<Check> checks = recorder.checks.getOrDefault(entry.getKey().toLowerCase(Locale.ROOT), List.of());
+            Object signal = signals.get(entry.getKey());
+
+            // an errored check may succeed on the next scan of the same data, so it is never cached
+            if (signal == null || checks.isEmpty() || checks.stream().anyMatch(check -> check.getOutcome() == null)) {
+                continue;
+            }
+
+            Path file = runContext.workingDir().createTempFile(".json");
+            MAPPER.writeValue(file.toFile(), new Entry(signal.toString(), checks));
+            runContext.storage().putCacheFile(file.toFile(), CACHE_ID, unit.key());
+            Files.delete(file);
+            stored++;
+        }
+
+        runContext.logger().debug("Reused the checks of {} tables and cached the checks of {} tables", skipped.size(), stored);
+
+        return ScanResult.builder()
+            .hasErrors(false)
+            .hasWarnings(hasWarnings)
+            .hasFailures(hasFailures)
+            .build();
+    }
+
+    private record Unit(String key, String identifier, List<String> keys, String watermark, Entry previous) {
+    }
+
+    record Entry(String signal, List<Check> checks) {
+    }
+
+    class Recorder implements ScanResultReader.Listener {
+        private final ScanResultReader.Listener delegate;
+        private final Map<String, List<Check>> checks = new LinkedHashMap<>();
+
+        private Recorder(ScanResultReader.Listener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void metric(Metric metric) throws IOException {
+            delegate.metric(metric);
+        }
+
+        @Override
+        public void profile(ProfileColumnsResultTable profile) throws IOException {
+            delegate.profile(profile);
+        }
+
+        @Override
+        public void discoveredTable(DiscoverTablesResultTable table) throws IOException {
+            delegate.discoveredTable(table);
+        }
+
+        @Override
+        public void check(Check check) throws IOException {
+            if (check.getTable() != null) {
+                checks.computeIfAbsent(check.getTable().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(check);
+            }
+
+            delegate.check(check);
+        }
+    }
+}
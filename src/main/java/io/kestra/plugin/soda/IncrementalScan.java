@@ -0,0 +1,40 @@
+package io.kestra.plugin.soda;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder
+@Jacksonized
+public class IncrementalScan {
+    @Schema(
+        title = "Query returning the freshness signal of a table",
+        description = "Executed on the data source for every table without a `watermarks` entry, `{table}` being replaced by the table name; the first column of the first row is the signal. " +
+            "Defaults to a row count, use a `max(updated_at)` or a last-modified query from the database catalog when rows can be updated in place."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<String> watermarkQuery = Property.ofValue("SELECT COUNT(*) FROM {table}");
+
+    @Schema(
+        title = "Freshness signal of each table",
+        description = "Map of table names to a value that changes whenever the table does, such as the output of an upstream task; takes precedence over `watermarkQuery`."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Map<String, String>> watermarks;
+
+    @Schema(
+        title = "How long the outcome of a check can be reused"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> ttl = Property.ofValue(Duration.ofDays(7));
+}
@@ -0,0 +1,276 @@
+package io.kestra.plugin.soda;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Subset of SodaCL that the JDBC engine evaluates from the worker JVM: {@code row_count},
+ * {@code missing_count}, {@code duplicate_count} of a single column, {@code min}, {@code max}, {@code avg}
+ * and {@code sum} with a fixed threshold or {@code warn}/{@code fail} conditions, and {@code failed rows}
+ * checks with a {@code fail condition}.
+ * <p>
+ * {@link #plan(Map)} splits a checks map into the checks of each table that can be evaluated over
+ * JDBC and the remaining SodaCL, left to the Soda scan process. A check that uses anything outside of
+ * this subset (dataset filters, variables, missing or valid value configurations, percentages...),
+ * or whose configuration {@link SodaIdentity} cannot hash like Soda, is always left to Soda.
+ */
+class JdbcChecks {
+    private static final String NUMBER = "-?\\d+(?:\\.\\d+)?";
+    private static final String COLUMN = "\"?[\\w.]+\"?";
+    private static final Pattern METRIC = Pattern.compile(
+        "(row_count)|(missing_count|min|max|avg|sum)\\((" + COLUMN + ")\\)|(duplicate_count)\\((" + COLUMN + ")\\)"
+    );
+    private static final Pattern COMPARISON = Pattern.compile("(<=|>=|!=|=|<|>)\\s*(" + NUMBER + ")");
+    private static final Pattern BETWEEN = Pattern.compile("(not\\s+)?between\\s+(" + NUMBER + ")\\s+and\\s+(" + NUMBER + ")");
+    private static final Pattern TABLE = Pattern.compile("[\\w.]+");
+
+    private JdbcChecks() {
+    }
+
+    /**
+     * @param tables the checks evaluated over JDBC, keyed by table
+     * @param remaining the SodaCL left to the Soda scan process
+     * @param sources the original entries of each table planned over JDBC, to give them back to Soda
+     * if the table cannot be queried
+     * @param headers the section of the checks of each table planned over JDBC, hashed into their identity
+     */
+    record Plan(Map<String, List<JdbcCheck>> tables, Map<String, Object> remaining, Map<String, List<Object>> sources, Map<String, String> headers) {
+        boolean isEmpty() {
+            return tables.isEmpty();
+        }
+
+        /**
+         * @return the remaining SodaCL with the checks of the given table given back to Soda
+         */
+        @SuppressWarnings("unchecked")
+        Map<String, Object> fallback(String table) {
+            String key = ScanShards.CHECKS_FOR + table;
+            List<Object> checks = new ArrayList<>(sources.getOrDefault(table, List.of()));
+            if (remaining.get(key) instanceof List<?> list) {
+                checks.addAll((List<Object>) list);
+            }
+
+            remaining.put(key, checks);
+            tables.remove(table);
+
+            return remaining;
+        }
+    }
+
+    /**
+     * A check evaluated over JDBC.
+     *
+     * @param definition the SodaCL line of the check
+     * @param configuration the configuration of the check, null for a single line check
+     * @param metric the SQL metric name: {@code row_count}, {@code missing_count}, {@code duplicate_count},
+     * {@code min}, {@code max}, {@code avg}, {@code sum} or {@code failed_rows}
+     * @param columns the columns of the metric, empty for {@code row_count} and {@code failed_rows}
+     * @param condition the fail condition of a {@code failed_rows} check
+     * @param pass the condition to pass, for the {@code <metric> <threshold>} form
+     */
+    record JdbcCheck(String definition, String name, Map<?, ?> configuration, String metric, List<String> columns, String condition, Threshold pass, Threshold warn, Threshold fail) {
+        String outcome(Number value) {
+            if (value == null) {
+                return null;
+            }
+
+            double number = value.doubleValue();
+            if (pass != null) {
+                return pass.matches(number) ? "pass" : "fail";
+            }
+
+            if (fail != null && fail.matches(number)) {
+                return "fail";
+            }
+
+            if (warn != null && warn.matches(number)) {
+                return "warn";
+            }
+
+            return "pass";
+        }
+
+        /**
+         * @return the SQL expression computing the metric from a select on the table
+         */
+        String expression(String table) {
+            return switch (metric) {
+                case "row_count" -> "COUNT(*)";
+                case "missing_count" -> "COALESCE(SUM(CASE WHEN " + columns.getFirst() + " IS NULL THEN 1 ELSE 0 END), 0)";
+                case "failed_rows" -> "COALESCE(SUM(CASE WHEN (" + condition + ") THEN 1 ELSE 0 END), 0)";
+                case "duplicate_count" -> {
+                    String list = String.join(", ", columns);
+                    String notNull = String.join(" AND ", columns.stream().map(column -> column + " IS NOT NULL").toList());
+                    yield "(SELECT COUNT(*) FROM (SELECT " + list + " FROM " + table + " WHERE " + notNull + " GROUP BY " + list + " HAVING COUNT(*) > 1) kestra_duplicates)";
+                }
+                default -> metric.toUpperCase() + "(" + columns.getFirst() + ")";
+            };
+        }
+    }
+
+    record Threshold(String operator, double value, double upper) {
+        boolean matches(double number) {
+            return switch (operator) {
+                case "<" -> number < value;
+                case "<=" -> number <= value;
+                case ">" -> number > value;
+                case ">=" -> number >= value;
+                case "=" -> number == value;
+                case "!=" -> number != value;
+                case "between" -> number >= value && number <= upper;
+                case "not between" -> number < value || number > upper;
+                default -> throw new IllegalStateException("Unknown operator " + operator);
+            };
+        }
+
+        static Optional<Threshold> parse(String text) {
+            String trimmed = text.trim();
+
+            Matcher comparison = COMPARISON.matcher(trimmed);
+            if (comparison.matches()) {
+                return Optional.of(new Threshold(comparison.group(1), Double.parseDouble(comparison.group(2)), 0));
+            }
+
+            Matcher between = BETWEEN.matcher(trimmed);
+            if (between.matches()) {
+                return Optional.of(new Threshold(
+                    between.group(1) == null ? "between" : "not between",
+                    Double.parseDouble(between.group(2)),
+                    Double.parseDouble(between.group(3))
+                ));
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    static Plan plan(Map<String, Object> checks) {
+        Map<String, List<JdbcCheck>> tables = new LinkedHashMap<>();
+        Map<String, Object> remaining = new LinkedHashMap<>();
+        Map<String, List<Object>> sources = new LinkedHashMap<>();
+        Map<String, String> headers = new LinkedHashMap<>();
+
+        checks.forEach((key, value) -> {
+            String table = key.startsWith(ScanShards.CHECKS_FOR) ? key.substring(ScanShards.CHECKS_FOR.length()).trim() : null;
+            if (table == null || !TABLE.matcher(table).matches() || !(value instanceof List<?> entries)) {
+                remaining.put(key, value);
+                return;
+            }
+
+            List<Object> unsupported = new ArrayList<>();
+            for (Object entry : entries) {
+                Optional<JdbcCheck> check = parse(entry);
+                if (check.isPresent()) {
+                    tables.computeIfAbsent(table, k -> new ArrayList<>()).add(check.get());
+                    sources.computeIfAbsent(table, k -> new ArrayList<>()).add(entry);
+                    headers.put(table, key);
+                } else {
+                    unsupported.add(entry);
+                }
+            }
+
+            if (!unsupported.isEmpty()) {
+                remaining.put(key, unsupported);
+            }
+        });
+
+        return new Plan(tables, remaining, sources, headers);
+    }
+
+    static Optional<JdbcCheck> parse(Object entry) {
+        if (entry instanceof String line) {
+            return parseLine(line, null, null);
+        }
+
+        if (!(entry instanceof Map<?, ?> map) || map.size() != 1) {
+            return Optional.empty();
+        }
+
+        Map.Entry<?, ?> single = map.entrySet().iterator().next();
+        if (!(single.getKey() instanceof String line) || !(single.getValue() instanceof Map<?, ?> configuration)) {
+            return Optional.empty();
+        }
+
+        if (configuration.keySet().stream().anyMatch(key -> !List.of("name", "warn", "fail", "fail condition").contains(key))) {
+            return Optional.empty();
+        }
+
+        // the configuration is hashed into the identity of the check
+        if (configuration.entrySet().stream().anyMatch(e -> !"name".equals(e.getKey()) && !SodaIdentity.plain(e.getKey().toString(), e.getValue()))) {
+            return Optional.empty();
+        }
+
+        String name = configuration.get("name") instanceof String value ? value : null;
+
+        if (line.trim().equals("failed rows")) {
+            if (!(configuration.get("fail condition") instanceof String condition) || condition.contains("${")) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new JdbcCheck(line, name, configuration, "failed_rows", List.of(), condition, new Threshold("=", 0, 0), null, null));
+        }
+
+        if (configuration.containsKey("fail condition")) {
+            return Optional.empty();
+        }
+
+        return parseLine(line, name, configuration);
+    }
+
+    private static Optional<JdbcCheck> parseLine(String line, String name, Map<?, ?> configuration) {
+        if (line.contains("${")) {
+            return Optional.empty();
+        }
+
+        Matcher metric = METRIC.matcher(line.trim());
+        if (!metric.lookingAt()) {
+            return Optional.empty();
+        }
+
+        String metricName;
+        List<String> columns;
+        if (metric.group(1) != null) {
+            metricName = metric.group(1);
+            columns = List.of();
+        } else if (metric.group(2) != null) {
+            metricName = metric.group(2);
+            columns = List.of(metric.group(3));
+        } else {
+            metricName = metric.group(4);
+            columns = List.of(metric.group(5));
+        }
+
+        String threshold = line.trim().substring(metric.end()).trim();
+        Object warn = configuration == null ? null : configuration.get("warn");
+        Object fail = configuration == null ? null : configuration.get("fail");
+
+        if (!threshold.isEmpty()) {
+            if (warn != null || fail != null) {
+                return Optional.empty();
+            }
+
+            return Threshold.parse(threshold).map(pass -> new JdbcCheck(line, name, configuration, metricName, columns, null, pass, null, null));
+        }
+
+        Optional<Threshold> warnThreshold = when(warn);
+        Optional<Threshold> failThreshold = when(fail);
+        if ((warn == null && fail == null) || (warn != null && warnThreshold.isEmpty()) || (fail != null && failThreshold.isEmpty())) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new JdbcCheck(line, name, configuration, metricName, columns, null, null, warnThreshold.orElse(null), failThreshold.orElse(null)));
+    }
+
+    private static Optional<Threshold> when(Object condition) {
+        if (condition instanceof String text && text.trim().startsWith("when ")) {
+            return Threshold.parse(text.trim().substring("when ".length()));
+        }
+
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,37 @@
+package io.kestra.plugin.soda;
+
+import java.util.Map;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder
+@Jacksonized
+public class JdbcEngine {
+    @Schema(
+        title = "JDBC URL of each data source",
+        description = "Map of data source names to JDBC URLs. A `postgres` data source without an entry gets a URL derived from its `configuration`, its other connection options such as `sslmode` or `connection_timeout` being passed to the driver; the JDBC driver of any other database must be available on the worker classpath."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Map<String, String>> urls;
+
+    @Schema(
+        title = "User name of the JDBC connections",
+        description = "Defaults to the `username` of the data source configuration."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> username;
+
+    @Schema(
+        title = "Password of the JDBC connections",
+        description = "Defaults to the `password` of the data source configuration."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> password;
+}
@@ -0,0 +1,309 @@
+package io.kestra.plugin.soda;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+import org.postgresql.Driver;
+import org.slf4j.Logger;
+
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ScanResult;
+
+/**
+ * Evaluates the checks planned by {@link JdbcChecks} from the worker JVM, with a single aggregate
+ * query per table computing every metric of its checks, and reports them as the Soda scan process
+ * would.
+ */
+class JdbcScan {
+    /**
+     * SQL state of a statement cancelled by its query timeout, for the drivers not raising a
+     * {@link SQLTimeoutException}.
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    // options of the data source that are part of the URL itself or given as connection properties
+    private static final Set<String> CONNECTION_KEYS = Set.of("type", "connection", "host", "port", "database", "username", "password");
+    private static final Map<String, String> URL_PARAMETERS = Map.of(
+        "schema", "currentSchema",
+        "connection_timeout", "connectTimeout"
+    );
+
+    private JdbcScan() {
+    }
+
+    /**
+     * @param header the scan-level fields of the evaluated checks
+     * @param exitCode the exit code Soda would have returned for these checks
+     */
+    record Result(ScanResult header, int exitCode, List<Metric> metrics, List<Check> checks) {
+    }
+
+    /**
+     * The other options of the data source are passed to the driver as URL parameters, renamed when
+     * Soda and the Postgres driver name them differently.
+     *
+     * @param configuration the Soda configuration of the data source
+     * @return the JDBC URL of the data source, or null when it cannot be derived from its configuration
+     */
+    static String url(Map<String, Object> configuration) {
+        Map<?, ?> connection = configuration.get("connection") instanceof Map<?, ?> map ? map : configuration;
+        if (!"postgres".equals(configuration.get("type")) || connection.get("host") == null || connection.get("database") == null) {
+            return null;
+        }
+
+        StringBuilder url = new StringBuilder("jdbc:postgresql://")
+            .append(connection.get("host"))
+            .append(":")
+            .append(Objects.requireNonNullElse(connection.get("port"), 5432))
+            .append("/")
+            .append(encode(connection.get("database")));
+
+        String separator = "?";
+        for (Map.Entry<?, ?> option : connection.entrySet()) {
+            String key = option.getKey().toString();
+            if (CONNECTION_KEYS.contains(key) || option.getValue() == null || option.getValue() instanceof Map<?, ?> || option.getValue() instanceof Collection<?>) {
+                continue;
+            }
+
+            url.append(separator)
+                .append(encode(URL_PARAMETERS.getOrDefault(key, key)))
+                .append("=")
+                .append(encode(option.getValue()));
+            separator = "&";
+        }
+
+        return url.toString();
+    }
+
+    private static String encode(Object value) {
+        return URLEncoder.encode(value.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param username the user name, or null to use the one of the data source configuration
+     * @param password the password, or null to use the one of the data source configuration
+     */
+    static Connection connect(String url, Map<String, Object> configuration, String username, String password) throws SQLException {
+        Map<?, ?> connection = configuration.get("connection") instanceof Map<?, ?> map ? map : configuration;
+        Object user = username != null ? username : connection.get("username");
+        Object secret = password != null ? password : connection.get("password");
+
+        Properties properties = new Properties();
+        if (user != null) {
+            properties.setProperty("user", user.toString());
+        }
+        if (secret != null) {
+            properties.setProperty("password", secret.toString());
+        }
+
+        registerDriver();
+
+        return DriverManager.getConnection(url, properties);
+    }
+
+    /**
+     * The driver is not found by the service loader of {@link DriverManager} in the class loader of a
+     * plugin, so it's registered explicitly, only once to not leak a driver per scan.
+     */
+    private static void registerDriver() throws SQLException {
+        if (DriverManager.drivers().noneMatch(Driver.class::isInstance)) {
+            DriverManager.registerDriver(new Driver());
+        }
+    }
+
+    /**
+     * Tables whose query fails are given back to Soda through {@link JdbcChecks.Plan#fallback(String)}.
+     * The checks of a table whose query times out, or is skipped once the deadline is passed, are
+     * reported without outcome and with {@code timedOut} set, like the scan process does.
+     *
+     * @param checksFile the file name the scan process loads the checks from, hashed into their identity
+     * @param checkTimeout the maximum duration of each query, or null
+     * @param deadline when the time budget of the scan is exhausted, or null
+     */
+    static Result scan(Connection connection, String dataSource, String checksFile, JdbcChecks.Plan plan, Duration checkTimeout, Instant deadline, Logger logger) {
+        ZonedDateTime start = ZonedDateTime.now();
+        List<Metric> scanMetrics = new ArrayList<>();
+        List<Check> scanChecks = new ArrayList<>();
+        boolean hasErrors = false;
+        boolean hasWarnings = false;
+        boolean hasFailures = false;
+
+        for (String table : new ArrayList<>(plan.tables().keySet())) {
+            List<JdbcChecks.JdbcCheck> checks = plan.tables().get(table);
+
+            Map<String, Integer> expressions = new LinkedHashMap<>();
+            for (JdbcChecks.JdbcCheck check : checks) {
+                expressions.putIfAbsent(check.expression(table), expressions.size());
+            }
+
+            Duration limit = timeLimit(checkTimeout, deadline);
+            List<Number> values;
+            try {
+                if (limit != null && !limit.isPositive()) {
+                    throw new SQLTimeoutException("The time budget of the scan is exhausted");
+                }
+
+                values = query(connection, table, expressions, limit);
+            } catch (SQLException e) {
+                if (e instanceof SQLTimeoutException || QUERY_CANCELED.equals(e.getSQLState())) {
+                    logger.warn("The checks of '{}' timed out over JDBC: {}", table, e.getMessage());
+                    hasErrors = true;
+                    for (JdbcChecks.JdbcCheck check : checks) {
+                        scanChecks.add(check(dataSource, checksFile, plan, table, check, null).timedOut(true).build());
+                    }
+                    continue;
+                }
+
+                logger.warn("Unable to evaluate the checks of '{}' over JDBC, they will run with Soda: {}", table, e.getMessage());
+                plan.fallback(table);
+                continue;
+            }
+
+            logger.info("Evaluated {} checks of '{}' over JDBC", checks.size(), table);
+
+            Map<String, Metric> metrics = new LinkedHashMap<>();
+            for (JdbcChecks.JdbcCheck check : checks) {
+                Number value = values.get(expressions.get(check.expression(table)));
+                String identity = metricIdentity(dataSource, table, check);
+                metrics.putIfAbsent(identity, Metric.builder()
+                    .identity(identity)
+                    .metricName(check.metric())
+                    .value(value)
+                    .build()
+                );
+            }
+
+            scanMetrics.addAll(metrics.values());
+
+            for (JdbcChecks.JdbcCheck check : checks) {
+                String identity = metricIdentity(dataSource, table, check);
+                String outcome = check.outcome((Number) metrics.get(identity).getValue());
+
+                hasErrors |= outcome == null;
+                hasWarnings |= "warn".equals(outcome);
+                hasFailures |= "fail".equals(outcome);
+
+                scanChecks.add(check(dataSource, checksFile, plan, table, check, outcome)
+                    .metrics(List.of(identity))
+                    .build()
+                );
+            }
+        }
+
+        ScanResult header = ScanResult.builder()
+            .defaultDataSource(dataSource)
+            .dataTimestamp(start)
+            .scanStartTimestamp(start)
+            .scanEndTimestamp(ZonedDateTime.now())
+            .hasErrors(hasErrors)
+            .hasWarnings(hasWarnings)
+            .hasFailures(hasFailures)
+            .build();
+
+        return new Result(header, hasErrors ? 3 : hasFailures ? 2 : hasWarnings ? 1 : 0, scanMetrics, scanChecks);
+    }
+
+    private static Check.CheckBuilder<?, ?> check(String dataSource, String checksFile, JdbcChecks.Plan plan, String table, JdbcChecks.JdbcCheck check, String outcome) {
+        return Check.builder()
+            .identity(SodaIdentity.check(plan.headers().get(table), check.definition(), check.configuration(), dataSource, checksFile))
+            .name(check.name() != null ? check.name() : check.definition())
+            .type("generic")
+            .definition(check.definition())
+            .dataSource(dataSource)
+            .table(table)
+            .column(check.columns().size() == 1 ? check.columns().getFirst() : null)
+            .outcome(outcome == null ? null : CheckOutcome.valueOf(outcome));
+    }
+
+    /**
+     * @return how long the next query may run, from the check timeout and the deadline of the scan, or
+     * null when neither is set
+     */
+    static Duration timeLimit(Duration checkTimeout, Instant deadline) {
+        Duration remaining = deadline == null ? null : Duration.between(Instant.now(), deadline);
+        if (checkTimeout == null || remaining == null) {
+            return checkTimeout != null ? checkTimeout : remaining;
+        }
+
+        return checkTimeout.compareTo(remaining) <= 0 ? checkTimeout : remaining;
+    }
+
+    private static List<Number> query(Connection connection, String table, Map<String, Integer> expressions, Duration limit) throws SQLException {
+        String sql = "SELECT " + String.join(", ", expressions.keySet()) + " FROM " + table;
+
+        try (Statement statement = connection.createStatement()) {
+            if (limit != null) {
+                // whole seconds only, a started second is granted entirely
+                statement.setQueryTimeout((int) Math.max(1, (limit.toMillis() + 999) / 1000));
+            }
+
+            return query(statement, sql, expressions.size());
+        }
+    }
+
+    private static List<Number> query(Statement statement, String sql, int columns) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                throw new SQLException("No row returned by " + sql);
+            }
+
+            List<Number> values = new ArrayList<>();
+            for (int i = 1; i <= columns; i++) {
+                Object value = resultSet.getObject(i);
+                if (value != null && !(value instanceof Number)) {
+                    throw new SQLException("Non numeric value of type " + value.getClass().getSimpleName() + " returned for " + resultSet.getMetaData().getColumnLabel(i));
+                }
+
+                values.add(normalize((Number) value));
+            }
+
+            return values;
+        }
+    }
+
+    /**
+     * Exposes integral values as longs and decimal ones as doubles, like the JSON result of Soda.
+     */
+    private static Number normalize(Number value) {
+        return switch (value) {
+            case null -> null;
+            case Long number -> number;
+            case Integer number -> number.longValue();
+            case Short number -> number.longValue();
+            case BigInteger number -> number.longValue();
+            case BigDecimal number -> number.scale() <= 0 ? (Number) number.longValue() : (Number) number.doubleValue();
+            default -> value.doubleValue();
+        };
+    }
+
+    private static String metricIdentity(String dataSource, String table, JdbcChecks.JdbcCheck check) {
+        return SodaIdentity.metric(
+            dataSource,
+            table,
+            check.columns().isEmpty() ? null : check.columns().getFirst().replace("\"", ""),
+            check.metric(),
+            check.condition() == null ? null : List.of(check.condition())
+        );
+    }
+}
@@ -0,0 +1,135 @@
+package io.kestra.plugin.soda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.Metric;
+
+/**
+ * Turns the metrics of a scan into Kestra metrics, tagged with the table and column of the checks
+ * that use them.
+ * <p>
+ * The metrics come before the checks in the scan result, so their numeric values are buffered in
+ * primitive arrays until {@link #flush()}, once every check has been seen. They are then emitted one
+ * counter per metric, or rolled up per table and metric name into {@code min}, {@code max},
+ * {@code sum} and {@code count} counters.
+ */
+class MetricEmitter {
+    private final RunContext runContext;
+    private final Scan.MetricMode mode;
+    private final String[] tags;
+
+    private String[] identities = new String[64];
+    private String[] names = new String[64];
+    private double[] values = new double[64];
+    private int size;
+
+    private final Map<String, Check> checksByMetric = new HashMap<>();
+
+    /**
+     * @param tags the tags added to every emitted metric
+     */
+    MetricEmitter(RunContext runContext, Scan.MetricMode mode, String... tags) {
+        this.runContext = runContext;
+        this.mode = mode;
+        this.tags = tags;
+    }
+
+    void metric(Metric metric) {
+        if (mode == Scan.MetricMode.NONE || metric.getIdentity() == null || !(metric.getValue() instanceof Number number)) {
+            return;
+        }
+
+        if (size == values.length) {
+            int capacity = size * 2;
+            identities = Arrays.copyOf(identities, capacity);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        identities[size] = metric.getIdentity();
+        // the name tags the metric and keys the rollups, a metric without one is named by its identity
+        names[size] = Objects.requireNonNullElse(metric.getMetricName(), metric.getIdentity());
+        values[size] = number.doubleValue();
+        size++;
+    }
+
+    void check(Check check) {
+        if (mode == Scan.MetricMode.NONE || check.getMetrics() == null) {
+            return;
+        }
+
+        for (String identity : check.getMetrics()) {
+            checksByMetric.putIfAbsent(identity, check);
+        }
+    }
+
+    void flush() {
+        if (mode == Scan.MetricMode.TABLE) {
+            this.flushRollups();
+        } else {
+            for (int i = 0; i < size; i++) {
+                Check check = checksByMetric.get(identities[i]);
+                runContext.metric(Counter.of(identities[i], values[i], this.tags(names[i], check == null ? null : check.getTable(), check == null ? null : check.getColumn())));
+            }
+        }
+
+        size = 0;
+        checksByMetric.clear();
+    }
+
+    private void flushRollups() {
+        Map<RollupKey, double[]> rollups = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Check check = checksByMetric.get(identities[i]);
+            double value = values[i];
+
+            // min, max, sum, count
+            double[] rollup = rollups.computeIfAbsent(
+                new RollupKey(check == null ? null : check.getTable(), names[i]),
+                k -> new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0}
+            );
+            rollup[0] = Math.min(rollup[0], value);
+            rollup[1] = Math.max(rollup[1], value);
+            rollup[2] += value;
+            rollup[3]++;
+        }
+
+        rollups.forEach((key, rollup) -> {
+            String[] tags = this.tags(key.name(), key.table(), null);
+            runContext.metric(Counter.of(key.name() + ".min", rollup[0], tags));
+            runContext.metric(Counter.of(key.name() + ".max", rollup[1], tags));
+            runContext.metric(Counter.of(key.name() + ".sum", rollup[2], tags));
+            runContext.metric(Counter.of(key.name() + ".count", rollup[3], tags));
+        });
+    }
+
+    private String[] tags(String type, String table, String column) {
+        List<String> tags = new ArrayList<>(Arrays.asList(this.tags));
+        tags.add("type");
+        tags.add(type);
+
+        if (table != null) {
+            tags.add("dataset");
+            tags.add(table);
+        }
+
+        if (column != null) {
+            tags.add("column");
+            tags.add(column);
+        }
+
+        return tags.toArray(String[]::new);
+    }
+
+    private record RollupKey(String table, String name) {
+    }
+}
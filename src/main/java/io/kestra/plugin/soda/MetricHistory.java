@@ -0,0 +1,39 @@
+package io.kestra.plugin.soda;
+
+import java.time.Duration;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder
+@Jacksonized
+public class MetricHistory {
+    @Schema(
+        title = "Maximum number of values kept per metric",
+        description = "The oldest values of a metric are dropped when its segments are compacted. Anomaly checks read at most the last 1000 values."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> maxPoints = Property.ofValue(1000);
+
+    @Schema(
+        title = "How long the values of a metric are kept",
+        description = "Older values are dropped when the segments are compacted; by default they are only dropped by `maxPoints`."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Duration> retention;
+
+    @Schema(
+        title = "Number of segments above which they are compacted into one",
+        description = "Each scan appends one segment; lookups read every segment, so fewer segments make them faster at the cost of rewriting the history more often."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> maxSegments = Property.ofValue(8);
+}
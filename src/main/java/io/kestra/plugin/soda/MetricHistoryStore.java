@@ -0,0 +1,332 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.DiscoverTablesResultTable;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ProfileColumnsResultTable;
+
+/**
+ * Append-only history of the numeric metric values of a data source, kept in Kestra's cache storage
+ * so that the change-over-time and anomaly checks get the previous values of their metric without
+ * Soda Cloud.
+ * <p>
+ * The history is a manifest listing {@link MetricSegment} files, one appended per scan. Before a scan,
+ * the segments are copied to the working directory and their paths sent to the scan process, which
+ * looks the values of a metric up in their index. After the scan, the numeric metrics it reported
+ * are appended as a new segment; once there are more than {@code maxSegments}, they are compacted
+ * into one, keeping at most {@code maxPoints} values per metric within the retention.
+ * <p>
+ * The manifest is replaced as a whole, so when two executions of the task append to the history of
+ * the same data source at the same time, the segment of one of them may be lost.
+ */
+class MetricHistoryStore {
+    static final String DIRECTORY = "history";
+    private static final String CACHE_ID = "soda-history";
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+
+    private final RunContext runContext;
+    private final String dataSource;
+    private final int maxPoints;
+    private final Duration retention;
+    private final int maxSegments;
+    private final List<Segment> segments;
+    private final Map<String, Path> files;
+    private final Map<String, Double> recorded = new TreeMap<>();
+
+    private MetricHistoryStore(RunContext runContext, String dataSource, int maxPoints, Duration retention, int maxSegments, List<Segment> segments, Map<String, Path> files) {
+        this.runContext = runContext;
+        this.dataSource = dataSource;
+        this.maxPoints = maxPoints;
+        this.retention = retention;
+        this.maxSegments = maxSegments;
+        this.segments = segments;
+        this.files = files;
+    }
+
+    /**
+     * @param id the unique name of the segment, ordered by creation time
+     * @param metrics the number of metrics of the segment
+     * @param points the number of values of the segment
+     */
+    record Segment(String id, int metrics, long points) {
+    }
+
+    record Manifest(List<Segment> segments) {
+    }
+
+    /**
+     * Reads the manifest of the history of the data source and copies its segments to the working
+     * directory, a segment that cannot be read being left out of the history.
+     */
+    static MetricHistoryStore open(RunContext runContext, MetricHistory options, String dataSource) throws IllegalVariableEvaluationException, IOException {
+        int maxPoints = runContext.render(options.getMaxPoints()).as(Integer.class).orElse(1000);
+        Duration retention = runContext.render(options.getRetention()).as(Duration.class).orElse(null);
+        int maxSegments = runContext.render(options.getMaxSegments()).as(Integer.class).orElse(8);
+        if (maxPoints <= 0 || maxSegments <= 0) {
+            throw new IllegalArgumentException("`history.maxPoints` and `history.maxSegments` must be greater than 0");
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        Optional<InputStream> cached = runContext.storage().getCacheFile(CACHE_ID, manifestKey(dataSource), null);
+        if (cached.isPresent()) {
+            try (InputStream inputStream = cached.get()) {
+                segments.addAll(MAPPER.readValue(inputStream, Manifest.class).segments());
+            } catch (IOException e) {
+                runContext.logger().warn("Unable to read the metric history of data source '{}', it starts over", dataSource, e);
+            }
+        }
+
+        Path directory = Files.createDirectories(runContext.workingDir().path().resolve(DIRECTORY).resolve(dataSource));
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (Segment segment : List.copyOf(segments)) {
+            Optional<InputStream> file = runContext.storage().getCacheFile(CACHE_ID, segmentKey(dataSource, segment.id()), null);
+            if (file.isEmpty()) {
+                runContext.logger().warn("The metric history segment '{}' of data source '{}' is missing, its values are lost", segment.id(), dataSource);
+                segments.remove(segment);
+                continue;
+            }
+
+            Path path = directory.resolve(segment.id() + ".seg");
+            try (InputStream inputStream = file.get()) {
+                Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            files.put(segment.id(), path);
+        }
+
+        runContext.logger().debug(
+            "Loaded the metric history of data source '{}': {} segments, {} values",
+            dataSource, segments.size(), segments.stream().mapToLong(Segment::points).sum()
+        );
+
+        return new MetricHistoryStore(runContext, dataSource, maxPoints, retention, maxSegments, segments, files);
+    }
+
+    /**
+     * @param workingDirectory the working directory as seen by the scan process
+     * @return the history request sent to the scan process along with the checks
+     */
+    Map<String, Object> request(String workingDirectory) {
+        return Map.of("segments", this.segments().stream()
+            .map(segment -> workingDirectory + "/" + segment)
+            .toList()
+        );
+    }
+
+    /**
+     * @return the segment files read by the scan, relative to the working directory
+     */
+    List<String> segments() {
+        Path root = runContext.workingDir().path();
+
+        return files.values().stream()
+            .map(path -> root.relativize(path).toString().replace('\\', '/'))
+            .toList();
+    }
+
+    /**
+     * Wraps the listener of the scan result to also keep the numeric metrics, to be appended by
+     * {@link #append(ZonedDateTime)}.
+     */
+    ScanResultReader.Listener recorder(ScanResultReader.Listener delegate) {
+        return new ScanResultReader.Listener() {
+            @Override
+            public void metric(Metric metric) throws IOException {
+                record(metric);
+                delegate.metric(metric);
+            }
+
+            @Override
+            public void check(Check check) throws IOException {
+                delegate.check(check);
+            }
+
+            @Override
+            public void profile(ProfileColumnsResultTable profile) throws IOException {
+                delegate.profile(profile);
+            }
+
+            @Override
+            public void discoveredTable(DiscoverTablesResultTable table) throws IOException {
+                delegate.discoveredTable(table);
+            }
+        };
+    }
+
+    void record(Metric metric) {
+        if (metric.getIdentity() != null && metric.getValue() instanceof Number value) {
+            recorded.put(metric.getIdentity(), value.doubleValue());
+        }
+    }
+
+    /**
+     * Appends the recorded metrics as a new segment, compacting the history when it holds too many.
+     *
+     * @param dataTimestamp the time of the values, the current time when null
+     */
+    void append(ZonedDateTime dataTimestamp) throws IOException {
+        if (recorded.isEmpty()) {
+            return;
+        }
+
+        long timestamp = dataTimestamp != null ? dataTimestamp.toInstant().toEpochMilli() : Instant.now().toEpochMilli();
+        long[] timestamps = {timestamp};
+
+        Segment segment = this.write(writer -> {
+            for (Map.Entry<String, Double> entry : recorded.entrySet()) {
+                writer.add(entry.getKey(), new MetricSegment.Points(timestamps, new double[]{entry.getValue()}));
+            }
+        });
+        segments.add(segment);
+        recorded.clear();
+
+        if (segments.size() <= maxSegments) {
+            this.writeManifest();
+            return;
+        }
+
+        List<Segment> compacted = List.copyOf(segments);
+        Segment merged = this.compact(compacted);
+        segments.clear();
+        segments.add(merged);
+        this.writeManifest();
+
+        // the old segments are only deleted once no manifest references them
+        for (Segment old : compacted) {
+            runContext.storage().deleteCacheFile(CACHE_ID, segmentKey(dataSource, old.id()));
+        }
+
+        runContext.logger().info(
+            "Compacted {} metric history segments of data source '{}' into one holding {} values of {} metrics",
+            compacted.size(), dataSource, merged.points(), merged.metrics()
+        );
+    }
+
+    /**
+     * Merges the values of every segment, a value of a later segment replacing the one of an earlier
+     * segment at the same time, and keeps the last {@code maxPoints} values within the retention.
+     */
+    private Segment compact(List<Segment> compacted) throws IOException {
+        long cutoff = retention == null ? Long.MIN_VALUE : Instant.now().minus(retention).toEpochMilli();
+
+        List<MetricSegment> readers = new ArrayList<>();
+        try {
+            TreeSet<String> identities = new TreeSet<>();
+            for (Segment segment : compacted) {
+                MetricSegment reader = MetricSegment.open(files.get(segment.id()));
+                readers.add(reader);
+                identities.addAll(reader.index().keySet());
+            }
+
+            return this.write(writer -> {
+                for (String identity : identities) {
+                    TreeMap<Long, Double> values = new TreeMap<>();
+                    for (MetricSegment reader : readers) {
+                        MetricSegment.Points points = reader.points(identity);
+                        for (int i = 0; i < points.size(); i++) {
+                            if (points.timestamps()[i] >= cutoff) {
+                                values.put(points.timestamps()[i], points.values()[i]);
+                            }
+                        }
+                    }
+
+                    while (values.size() > maxPoints) {
+                        values.pollFirstEntry();
+                    }
+
+                    writer.add(identity, toPoints(values));
+                }
+            });
+        } finally {
+            for (MetricSegment reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private Segment write(SegmentContent content) throws IOException {
+        String id = String.format("%013d-%s", Instant.now().toEpochMilli(), UUID.randomUUID().toString().substring(0, 8));
+        Path path = runContext.workingDir().path().resolve(DIRECTORY).resolve(dataSource).resolve(id + ".seg");
+        Files.createDirectories(path.getParent());
+
+        Map<String, MetricSegment.Entry> index;
+        try (MetricSegment.Writer writer = new MetricSegment.Writer(path)) {
+            content.write(writer);
+            index = writer.finish();
+        }
+
+        runContext.storage().putCacheFile(path.toFile(), CACHE_ID, segmentKey(dataSource, id));
+        files.put(id, path);
+
+        return new Segment(id, index.size(), index.values().stream().mapToLong(MetricSegment.Entry::points).sum());
+    }
+
+    private void writeManifest() throws IOException {
+        Path file = runContext.workingDir().createTempFile(".json");
+        MAPPER.writeValue(file.toFile(), new Manifest(segments));
+        runContext.storage().putCacheFile(file.toFile(), CACHE_ID, manifestKey(dataSource));
+        Files.delete(file);
+    }
+
+    /**
+     * @return the values of the metric kept in the history, sorted by time
+     */
+    MetricSegment.Points points(String identity) throws IOException {
+        TreeMap<Long, Double> values = new TreeMap<>();
+        for (Segment segment : segments) {
+            try (MetricSegment reader = MetricSegment.open(files.get(segment.id()))) {
+                MetricSegment.Points points = reader.points(identity);
+                for (int i = 0; i < points.size(); i++) {
+                    values.put(points.timestamps()[i], points.values()[i]);
+                }
+            }
+        }
+
+        return toPoints(values);
+    }
+
+    List<Segment> segments() {
+        return List.copyOf(segments);
+    }
+
+    private static MetricSegment.Points toPoints(TreeMap<Long, Double> values) {
+        return new MetricSegment.Points(
+            values.keySet().stream().mapToLong(Long::longValue).toArray(),
+            values.values().stream().mapToDouble(Double::doubleValue).toArray()
+        );
+    }
+
+    private static String manifestKey(String dataSource) {
+        return dataSource + "-manifest";
+    }
+
+    private static String segmentKey(String dataSource, String id) {
+        return dataSource + "-" + id;
+    }
+
+    @FunctionalInterface
+    private interface SegmentContent {
+        void write(MetricSegment.Writer writer) throws IOException;
+    }
+}
@@ -0,0 +1,237 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable file of metric values, read by the worker to compact the history and by the scan
+ * process to look up the values of a metric.
+ * <p>
+ * The file starts with an index of the metric identities it holds, sorted, each with the offset and
+ * length of its block, its number of values and their time range. Each block is a zlib stream of the
+ * values of one metric sorted by time, as pairs of a big-endian epoch millisecond and double:
+ * <pre>
+ * "KSH1" | int count | count * (u2 length, UTF-8 identity, long offset, int length, int points, long min, long max) | blocks
+ * </pre>
+ * A lookup only reads the index and the block of the requested metric.
+ */
+final class MetricSegment implements AutoCloseable {
+    static final byte[] MAGIC = "KSH1".getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+    private final Map<String, Entry> index;
+
+    private MetricSegment(FileChannel channel, Map<String, Entry> index) {
+        this.channel = channel;
+        this.index = index;
+    }
+
+    /**
+     * @param offset the offset of the block from the start of the file
+     * @param length the compressed length of the block
+     * @param min the time of the oldest value, in epoch milliseconds
+     * @param max the time of the newest value, in epoch milliseconds
+     */
+    record Entry(long offset, int length, int points, long min, long max) {
+    }
+
+    /**
+     * The values of one metric, sorted by time.
+     */
+    record Points(long[] timestamps, double[] values) {
+        static final Points EMPTY = new Points(new long[0], new double[0]);
+
+        int size() {
+            return timestamps.length;
+        }
+    }
+
+    static MetricSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            // the stream is left open, closing it would close the channel
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            byte[] magic = input.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Invalid metric history segment '" + file.getFileName() + "'");
+            }
+
+            int count = input.readInt();
+            Map<String, Entry> index = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                byte[] identity = input.readNBytes(input.readUnsignedShort());
+                index.put(
+                    new String(identity, StandardCharsets.UTF_8),
+                    new Entry(input.readLong(), input.readInt(), input.readInt(), input.readLong(), input.readLong())
+                );
+            }
+
+            return new MetricSegment(channel, Collections.unmodifiableMap(index));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the index of the segment, sorted by metric identity
+     */
+    Map<String, Entry> index() {
+        return index;
+    }
+
+    /**
+     * @return the values of the metric, or {@link Points#EMPTY} when the segment holds none
+     */
+    Points points(String identity) throws IOException {
+        Entry entry = index.get(identity);
+        if (entry == null) {
+            return Points.EMPTY;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+        long position = entry.offset();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Truncated metric history segment");
+            }
+            position += read;
+        }
+
+        long[] timestamps = new long[entry.points()];
+        double[] values = new double[entry.points()];
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(buffer.array())))) {
+            for (int i = 0; i < entry.points(); i++) {
+                timestamps[i] = input.readLong();
+                values[i] = input.readDouble();
+            }
+        }
+
+        return new Points(timestamps, values);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes a segment, the metrics being added in ascending identity order. The blocks are written
+     * to a temporary file until {@link #finish()} prepends the index to them.
+     */
+    static final class Writer implements AutoCloseable {
+        private final Path file;
+        private final Path blocks;
+        private final OutputStream output;
+        private final Map<String, Entry> index = new TreeMap<>();
+        private String last;
+        private long length;
+
+        Writer(Path file) throws IOException {
+            this.file = file;
+            this.blocks = Files.createTempFile(file.getParent(), "blocks", ".tmp");
+            this.output = new BufferedOutputStream(Files.newOutputStream(blocks));
+        }
+
+        /**
+         * @param points the values of the metric, sorted by time; nothing is written when empty
+         */
+        void add(String identity, Points points) throws IOException {
+            if (last != null && identity.compareTo(last) <= 0) {
+                throw new IllegalArgumentException("Metric '" + identity + "' added after '" + last + "'");
+            }
+            last = identity;
+
+            if (points.size() == 0) {
+                return;
+            }
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream(points.size() * 8);
+            try (DataOutputStream data = new DataOutputStream(new DeflaterOutputStream(block))) {
+                for (int i = 0; i < points.size(); i++) {
+                    data.writeLong(points.timestamps()[i]);
+                    data.writeDouble(points.values()[i]);
+                }
+            }
+
+            block.writeTo(output);
+            index.put(identity, new Entry(length, block.size(), points.size(), points.timestamps()[0], points.timestamps()[points.size() - 1]));
+            length += block.size();
+        }
+
+        /**
+         * @return the index of the written segment
+         */
+        Map<String, Entry> finish() throws IOException {
+            output.close();
+
+            List<byte[]> identities = new ArrayList<>();
+            long header = MAGIC.length + 4;
+            for (String identity : index.keySet()) {
+                byte[] bytes = identity.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IllegalArgumentException("Metric identity too long: " + identity.substring(0, 64) + "...");
+                }
+                identities.add(bytes);
+                header += 2 + bytes.length + 8 + 4 + 4 + 8 + 8;
+            }
+
+            Map<String, Entry> written = new TreeMap<>();
+            try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                data.write(MAGIC);
+                data.writeInt(index.size());
+
+                int i = 0;
+                for (Map.Entry<String, Entry> entry : index.entrySet()) {
+                    Entry relative = entry.getValue();
+                    Entry absolute = new Entry(header + relative.offset(), relative.length(), relative.points(), relative.min(), relative.max());
+
+                    byte[] identity = identities.get(i++);
+                    data.writeShort(identity.length);
+                    data.write(identity);
+                    data.writeLong(absolute.offset());
+                    data.writeInt(absolute.length());
+                    data.writeInt(absolute.points());
+                    data.writeLong(absolute.min());
+                    data.writeLong(absolute.max());
+
+                    written.put(entry.getKey(), absolute);
+                }
+
+                Files.copy(blocks, data);
+            }
+
+            Files.delete(blocks);
+
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+            Files.deleteIfExists(blocks);
+        }
+    }
+}
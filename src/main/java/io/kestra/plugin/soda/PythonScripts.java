@@ -0,0 +1,36 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Python sources shipped in the plugin resources and written next to the generated scripts.
+ */
+class PythonScripts {
+    static final String MODULE = "kestra_soda.py";
+    static final String SAMPLING = "kestra_sampling.py";
+    static final String WORKER = "worker.py";
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private PythonScripts() {
+    }
+
+    static String load(String name) {
+        return CACHE.computeIfAbsent(name, key -> {
+            try (InputStream inputStream = Objects.requireNonNull(
+                PythonScripts.class.getClassLoader().getResourceAsStream("soda/" + key),
+                "Missing resource soda/" + key
+            )) {
+                return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
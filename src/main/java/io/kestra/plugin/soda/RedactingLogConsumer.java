@@ -0,0 +1,29 @@
+package io.kestra.plugin.soda;
+
+import java.time.Instant;
+
+import io.kestra.core.models.tasks.runners.DefaultLogConsumer;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Masks the secrets of the configuration in the lines of the scan process before they are logged,
+ * the outputs and metrics of its events being parsed from the line as written.
+ */
+class RedactingLogConsumer extends DefaultLogConsumer {
+    private final Redactor redactor;
+
+    RedactingLogConsumer(RunContext runContext, Redactor redactor) {
+        super(runContext);
+        this.redactor = redactor;
+    }
+
+    @Override
+    public void accept(String line, Boolean isStdErr) {
+        this.accept(line, isStdErr, null);
+    }
+
+    @Override
+    public void accept(String line, Boolean isStdErr, Instant instant) {
+        super.accept(redactor.event(line), isStdErr, instant);
+    }
+}
@@ -0,0 +1,392 @@
+package io.kestra.plugin.soda;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Masks the secrets of a scan wherever they may surface: the rendered configuration kept in the task
+ * output, the lines streamed by the scan process, and the failed rows sampled from the data.
+ * <p>
+ * Keys are matched by a precompiled Aho-Corasick automaton over their normalized form (alphanumeric
+ * only, lowercased), computed on the fly without allocating. Structures are scrubbed copy-on-write:
+ * a map or list without anything to mask is returned as is, and only the containers on the path of a
+ * masked value are copied.
+ * <p>
+ * Lines are matched against a second automaton built from the values of the sensitive keys of the
+ * configuration, so a password echoed by a driver error message is masked too. The outputs and
+ * metrics of the {@code ::{...}::} events of the scan process are kept as is, as a secret may well
+ * be equal to a data source name keying them: only the messages of their logs are masked.
+ */
+final class Redactor {
+    static final String REDACTED = "******";
+
+    /**
+     * Sensitive fragments matched as substrings of the normalized (alphanumeric-only, lowercased)
+     * key. Substring matching deliberately errs toward over-redaction — any key merely containing
+     * one of these (e.g. {@code keyfile}, {@code keyspace}, {@code client_secret}) is redacted — so
+     * that a secret is never leaked into task Output at the cost of occasionally masking a benign
+     * value. {@code key} already covers {@code api_key}, {@code access_key}, {@code private_key}, etc.
+     */
+    static final List<String> SENSITIVE_KEY_PATTERNS = List.of(
+        "password", "passwd", "pwd",
+        "secret",
+        "token",
+        "key",
+        "credential",
+        "accountinfojson",
+        "auth"
+    );
+
+    /**
+     * Shorter values are not searched for in lines: they would mask unrelated text far more often
+     * than they would hide a secret.
+     */
+    static final int MIN_SECRET_LENGTH = 4;
+
+    private static final Pattern EVENT = Pattern.compile("^::(\\{.*})::$");
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+    private static final Automaton KEYS = new Automaton(SENSITIVE_KEY_PATTERNS);
+    private static final Redactor KEYS_ONLY = new Redactor(null);
+
+    private final Automaton secrets;
+
+    private Redactor(Automaton secrets) {
+        this.secrets = secrets;
+    }
+
+    /**
+     * @return a redactor that only masks the values of sensitive keys
+     */
+    static Redactor keys() {
+        return KEYS_ONLY;
+    }
+
+    /**
+     * @param configuration the rendered configuration whose sensitive values are also masked in lines
+     */
+    static Redactor of(Map<String, Object> configuration) {
+        Set<String> values = new LinkedHashSet<>();
+        collectSecrets(configuration, false, values);
+
+        return values.isEmpty() ? KEYS_ONLY : new Redactor(new Automaton(values));
+    }
+
+    static boolean isSensitiveKey(String key) {
+        if (key == null) {
+            return false;
+        }
+
+        int state = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = normalize(key.charAt(i));
+            if (c == 0) {
+                continue;
+            }
+
+            state = KEYS.next(state, c);
+            if (KEYS.matchLength[state] > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the map with the values of the sensitive keys masked, or the map itself when it holds
+     * nothing to mask
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> scrub(Map<String, Object> map) {
+        return (Map<String, Object>) this.scrubValue(map);
+    }
+
+    /**
+     * Recurses through container values so sensitive keys nested inside maps <em>or lists</em>
+     * (e.g. a list of connection maps) are scrubbed too; strings have the secret values of the
+     * configuration masked and other scalar values are returned unchanged.
+     */
+    Object scrubValue(Object value) {
+        return switch (value) {
+            case Map<?, ?> map -> this.scrubMap(map);
+            case List<?> list -> this.scrubList(list);
+            case String string -> this.line(string);
+            case null, default -> value;
+        };
+    }
+
+    private Map<?, ?> scrubMap(Map<?, ?> map) {
+        Map<Object, Object> scrubbed = null;
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            Object replacement = entry.getKey() instanceof String key && isSensitiveKey(key) ? REDACTED : this.scrubValue(value);
+
+            if (replacement != value && scrubbed == null) {
+                scrubbed = new LinkedHashMap<>(map);
+            }
+
+            if (scrubbed != null) {
+                scrubbed.put(entry.getKey(), replacement);
+            }
+        }
+
+        return scrubbed == null ? map : scrubbed;
+    }
+
+    private List<?> scrubList(List<?> list) {
+        List<Object> scrubbed = null;
+
+        for (int i = 0; i < list.size(); i++) {
+            Object value = list.get(i);
+            Object replacement = this.scrubValue(value);
+
+            if (replacement != value) {
+                if (scrubbed == null) {
+                    scrubbed = new ArrayList<>(list);
+                }
+                scrubbed.set(i, replacement);
+            }
+        }
+
+        return scrubbed == null ? list : scrubbed;
+    }
+
+    /**
+     * @return the line with every occurrence of a secret value of the configuration masked, or the
+     * line itself when it holds none
+     */
+    String line(String line) {
+        if (secrets == null || line == null) {
+            return line;
+        }
+
+        boolean[] masked = null;
+        int state = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            state = secrets.next(state, line.charAt(i));
+
+            int length = secrets.matchLength[state];
+            if (length > 0) {
+                if (masked == null) {
+                    masked = new boolean[line.length()];
+                }
+                Arrays.fill(masked, i + 1 - length, i + 1, true);
+            }
+        }
+
+        if (masked == null) {
+            return line;
+        }
+
+        // overlapping or adjacent secrets are masked as a single run
+        StringBuilder builder = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            if (!masked[i]) {
+                builder.append(line.charAt(i));
+            } else if (i == 0 || !masked[i - 1]) {
+                builder.append(REDACTED);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * @return the line with the secret values of the configuration masked, only in the messages of the
+     * logs when it is a Kestra event, or the line itself when it holds none
+     */
+    String event(String line) {
+        if (secrets == null || line == null) {
+            return line;
+        }
+
+        Matcher matcher = EVENT.matcher(line);
+        if (!matcher.matches()) {
+            return this.line(line);
+        }
+
+        Map<String, Object> event;
+        try {
+            event = MAPPER.readValue(matcher.group(1), new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            // not parsed as an event either, it is logged as is
+            return this.line(line);
+        }
+
+        if (!(event.get("logs") instanceof List<?> logs)) {
+            return line;
+        }
+
+        List<Object> scrubbed = null;
+        for (int i = 0; i < logs.size(); i++) {
+            if (!(logs.get(i) instanceof Map<?, ?> log) || !(log.get("message") instanceof String message)) {
+                continue;
+            }
+
+            String masked = this.line(message);
+            if (masked != message) {
+                if (scrubbed == null) {
+                    scrubbed = new ArrayList<>(logs);
+                }
+
+                Map<Object, Object> copy = new LinkedHashMap<>(log);
+                copy.put("message", masked);
+                scrubbed.set(i, copy);
+            }
+        }
+
+        if (scrubbed == null) {
+            return line;
+        }
+
+        event.put("logs", scrubbed);
+        try {
+            return "::" + MAPPER.writeValueAsString(event) + "::";
+        } catch (JsonProcessingException e) {
+            return this.line(line);
+        }
+    }
+
+    private static void collectSecrets(Object value, boolean sensitive, Collection<String> secrets) {
+        switch (value) {
+            case Map<?, ?> map -> map.forEach((key, child) ->
+                collectSecrets(child, sensitive || (key instanceof String name && isSensitiveKey(name)), secrets)
+            );
+            case List<?> list -> list.forEach(child -> collectSecrets(child, sensitive, secrets));
+            case null -> {
+            }
+            default -> {
+                String string = value.toString();
+                if (sensitive && string.length() >= MIN_SECRET_LENGTH) {
+                    secrets.add(string);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the lowercased ASCII letter or digit of the character, or 0 when it is dropped by the
+     * normalization
+     */
+    private static char normalize(char c) {
+        if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+            return c;
+        }
+
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+
+        if (c > 127) {
+            char lower = Character.toLowerCase(c);
+            return lower >= 'a' && lower <= 'z' ? lower : 0;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Aho-Corasick automaton with sparse transitions, each state holding its sorted outgoing
+     * characters, its failure link, and the length of the longest pattern ending on it.
+     */
+    static final class Automaton {
+        private char[][] labels = new char[16][];
+        private int[][] targets = new int[16][];
+        private int[] failure = new int[16];
+        private int[] matchLength = new int[16];
+        private int size = 1;
+
+        Automaton(Collection<String> patterns) {
+            labels[0] = new char[0];
+            targets[0] = new int[0];
+
+            for (String pattern : patterns) {
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    int next = this.transition(state, pattern.charAt(i));
+                    state = next >= 0 ? next : this.add(state, pattern.charAt(i));
+                }
+                matchLength[state] = Math.max(matchLength[state], pattern.length());
+            }
+
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                failure[child] = 0;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (int i = 0; i < labels[state].length; i++) {
+                    int child = targets[state][i];
+                    failure[child] = this.next(failure[state], labels[state][i]);
+                    matchLength[child] = Math.max(matchLength[child], matchLength[failure[child]]);
+                    queue.add(child);
+                }
+            }
+        }
+
+        int next(int state, char c) {
+            while (true) {
+                int target = this.transition(state, c);
+                if (target >= 0) {
+                    return target;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = failure[state];
+            }
+        }
+
+        private int transition(int state, char c) {
+            int index = Arrays.binarySearch(labels[state], c);
+            return index >= 0 ? targets[state][index] : -1;
+        }
+
+        private int add(int parent, char c) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                failure = Arrays.copyOf(failure, size * 2);
+                matchLength = Arrays.copyOf(matchLength, size * 2);
+            }
+
+            int state = size++;
+            labels[state] = new char[0];
+            targets[state] = new int[0];
+
+            int index = -Arrays.binarySearch(labels[parent], c) - 1;
+            char[] parentLabels = new char[labels[parent].length + 1];
+            int[] parentTargets = new int[targets[parent].length + 1];
+            System.arraycopy(labels[parent], 0, parentLabels, 0, index);
+            System.arraycopy(targets[parent], 0, parentTargets, 0, index);
+            parentLabels[index] = c;
+            parentTargets[index] = state;
+            System.arraycopy(labels[parent], index, parentLabels, index + 1, labels[parent].length - index);
+            System.arraycopy(targets[parent], index, parentTargets, index + 1, targets[parent].length - index);
+            labels[parent] = parentLabels;
+            targets[parent] = parentTargets;
+
+            return state;
+        }
+    }
+}
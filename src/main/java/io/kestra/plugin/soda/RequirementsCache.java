@@ -0,0 +1,52 @@
+package io.kestra.plugin.soda;
+
+import java.time.Duration;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder
+@Jacksonized
+public class RequirementsCache {
+    @Schema(
+        title = "Where the wheelhouse archives are kept",
+        description = "`LOCAL` keeps them in a directory of the worker host, `STORAGE` keeps them in Kestra's internal storage so every worker can reuse them. " +
+            "While an archive is built, a marker stored next to it keeps the other workers from building it too; two workers starting the same build at the same instant may still both build it."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Type> type = Property.ofValue(Type.LOCAL);
+
+    @Schema(
+        title = "Local cache directory",
+        description = "Only used with the `LOCAL` type; defaults to `kestra-soda-wheelhouse` in the worker temporary directory."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> path;
+
+    @Schema(
+        title = "Maximum size in bytes of the local cache directory",
+        description = "Only used with the `LOCAL` type; the least recently used archives are evicted once the directory grows beyond this size."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Long> maxSize = Property.ofValue(2L * 1024 * 1024 * 1024);
+
+    @Schema(
+        title = "How long a cached wheelhouse stays valid"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> ttl = Property.ofValue(Duration.ofDays(7));
+
+    public enum Type {
+        LOCAL,
+        STORAGE
+    }
+}
@@ -0,0 +1,45 @@
+package io.kestra.plugin.soda;
+
+import java.util.List;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder
+@Jacksonized
+public class SamplingScan {
+    @Schema(
+        title = "Percentage of the rows of each table to scan",
+        description = "Read with `TABLESAMPLE` in the dialect of the data source, or with a random filter on MySQL and Redshift. Exactly one of `percentage` or `rowLimit` must be set."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Double> percentage;
+
+    @Schema(
+        title = "Number of rows of each table to scan",
+        description = "Read with a `LIMIT`, or `TOP` on SQL Server, so the sample is the first rows returned by the database rather than a random one."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Integer> rowLimit;
+
+    @Schema(
+        title = "Tables to sample",
+        description = "Defaults to every table with checks; the other tables are always scanned in full."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<List<String>> tables;
+
+    @Schema(
+        title = "Run the checks of a table again on the full table when one of them warns or fails on the sample",
+        description = "The exact checks replace the sampled ones in the output and are flagged with `escalated`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> escalate = Property.ofValue(true);
+}
@@ -1,30 +1,51 @@
 package io.kestra.plugin.soda;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
-import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.flows.State;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.runners.PluginUtilsService;
 import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
-import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.DataSourceResult;
+import io.kestra.plugin.soda.models.Metric;
 import io.kestra.plugin.soda.models.ScanResult;
+import io.kestra.plugin.soda.models.ScanSummary;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -36,7 +57,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @Schema(
     title = "Run Soda scan and report results",
-    description = "Executes SodaCL checks with the provided configuration, writes scan results to internal storage, and emits metrics to Kestra. Uses the soda-core container by default, runs non-verbose unless `verbose` is true, and requires both configuration and checks to be supplied."
+    description = "Executes SodaCL checks with the provided configuration, writes scan results to internal storage, and emits metrics to Kestra. Uses the soda-core container by default, runs non-verbose unless `verbose` is true, and requires the configuration and either `checks` or `dataSources` to be supplied."
 )
 @Plugin(
     examples = {
@@ -103,38 +124,94 @@ import lombok.experimental.SuperBuilder;
                     requirements:
                       - soda-core-postgres
                 """
+        ),
+        @Example(
+            title = "Scan two data sources in the same process.",
+            full = true,
+            code = """
+                id: soda_scan_reconciliation
+                namespace: company.team
+
+                tasks:
+                  - id: scan
+                    type: io.kestra.plugin.soda.Scan
+                    configuration:
+                      data_source orders_db:
+                        type: postgres
+                        connection:
+                          host: orders.internal
+                          port: 5432
+                          database: orders
+                          username: kestra
+                          password: "{{ secret('ORDERS_PASSWORD') }}"
+                      data_source billing_db:
+                        type: postgres
+                        connection:
+                          host: billing.internal
+                          port: 5432
+                          database: billing
+                          username: kestra
+                          password: "{{ secret('BILLING_PASSWORD') }}"
+                    dataSources:
+                      orders_db:
+                        checks for orders:
+                          - row_count > 0
+                      billing_db:
+                        checks for invoices:
+                          - row_count > 0
+                          - missing_count(order_id) = 0
+                    dataSourceConcurrency: 2
+                    requirements:
+                      - soda-core-postgres
+                """
         )
     }
 )
 public class Scan extends AbstractSoda implements RunnableTask<Scan.Output> {
-    private static final String REDACTED = "******";
-
-    /**
-     * Sensitive fragments matched as substrings of the normalized (alphanumeric-only, lowercased)
-     * key. Substring matching deliberately errs toward over-redaction — any key merely containing
-     * one of these (e.g. {@code keyfile}, {@code keyspace}, {@code client_secret}) is redacted — so
-     * that a secret is never leaked into task Output at the cost of occasionally masking a benign
-     * value. {@code key} already covers {@code api_key}, {@code access_key}, {@code private_key}, etc.
-     */
-    private static final Set<String> SENSITIVE_KEY_PATTERNS = Set.of(
-        "password", "passwd", "pwd",
-        "secret",
-        "token",
-        "key",
-        "credential",
-        "accountinfojson",
-        "auth"
-    );
+    private static final String DEFAULT_DATA_SOURCE = "kestra";
+    private static final Pattern DATA_SOURCE_NAME = Pattern.compile("[\\w-]+");
+    // leaves a worker past the time budget the time to report the checks it skipped
+    private static final Duration WORKER_GRACE_PERIOD = Duration.ofMinutes(1);
 
     @Schema(
         title = "SodaCL checks definition",
-        description = "Required map rendered to `checks.yml` and executed against the `kestra` data source. Follow SodaCL syntax; failing checks mark the task accordingly."
+        description = "Map rendered to `checks.yml` and executed against the `kestra` data source. Follow SodaCL syntax; failing checks mark the task accordingly. Required unless `dataSources` is set."
     )
     @PluginProperty(dynamic = true, group = "main")
-    @NotNull
-    @NotEmpty
     Map<String, Object> checks;
 
+    @Schema(
+        title = "SodaCL checks definition per data source",
+        description = "Map of data source names, as declared with `data_source <name>` in `configuration`, to the checks executed against them. " +
+            "All the data sources are scanned in the same process and the output holds the result of each one under `dataSources`. Cannot be combined with `checks`."
+    )
+    @PluginProperty(dynamic = true, group = "main")
+    Map<String, Map<String, Object>> dataSources;
+
+    @Schema(
+        title = "Maximum number of data sources scanned at the same time",
+        description = "Defaults to 1, scanning the data sources one after the other; when greater, they are scanned on a pool of threads of the scan process."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    Property<Integer> dataSourceConcurrency = Property.ofValue(1);
+
+    @Schema(
+        title = "Maximum duration of each query of a check",
+        description = "A query running longer is cancelled through its database driver, when the driver supports it, and the checks depending on it are reported without outcome and with `timedOut` set. " +
+            "The other checks of the scan still run."
+    )
+    @PluginProperty(group = "execution")
+    Property<Duration> checkTimeout;
+
+    @Schema(
+        title = "Time budget of the scan",
+        description = "Once elapsed, the running query is cancelled like with `checkTimeout` and the remaining queries are skipped, their checks being reported with `timedOut` set. " +
+            "The checks that completed are returned as usual; when the only errors of the scan are timed out checks, the task ends in `WARNING` instead of `FAILED`."
+    )
+    @PluginProperty(group = "execution")
+    Property<Duration> timeBudget;
+
     @Schema(
         title = "Runtime variables",
         description = "Optional variables injected into the Soda scan for templating checks or configuration; values are rendered by Kestra before execution."
@@ -148,153 +225,769 @@ public class Scan extends AbstractSoda implements RunnableTask<Scan.Output> {
     @Builder.Default
     Property<Boolean> verbose = Property.ofValue(false);
 
+    @Schema(
+        title = "Number of shards to split the checks into",
+        description = "Defaults to 1; when greater, the `checks for <table>` entries are distributed across that many scan processes run concurrently, and their results are merged into one output. " +
+            "Dataset filters are copied into every shard and any other entry stays in the first one."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    Property<Integer> shards = Property.ofValue(1);
+
+    @Schema(
+        title = "Maximum number of shards scanned at the same time",
+        description = "Defaults to the number of shards."
+    )
+    @PluginProperty(group = "execution")
+    Property<Integer> shardConcurrency;
+
+    @Schema(
+        title = "Run the scans in a warm worker process",
+        description = "When set, the scans are sent to a long-running Python process that is reused across executions of the flows of the same tenant and namespace, so the interpreter start-up, the Soda imports and the requirements installation are only paid once. " +
+            "The process is health-checked before each scan and recycled after `maxScans` scans, when its peak memory exceeds `maxMemory`, when older than `maxAge`, or after being idle for `maxIdle`; `minIdle` processes are kept started ahead of the scans. " +
+            "A `DOCKER` worker is given its scripts and a copy of the input files of each scan with `docker cp`, the files written by the scan being copied back. " +
+            "Data source connections are still opened for each scan, as Soda closes them at the end of every scan."
+    )
+    @PluginProperty(group = "execution")
+    ScanWorker warmWorker;
+
+    @Schema(
+        title = "Only run the checks of the tables that changed since the previous scan",
+        description = "When set, the checks of every `checks for <table>` entry are fingerprinted from their rendered definition, the `filter` sections they use, the rendered `data_source` block and a freshness signal of the table, and their outcomes are kept in Kestra's cache storage. " +
+            "The checks of a table whose definition and signal did not change are not run again: their previous outcomes are reported with `cached` set to true, and their metrics are not reported."
+    )
+    @PluginProperty(group = "execution")
+    IncrementalScan incremental;
+
+    @Schema(
+        title = "Keep the history of the metrics to run change-over-time and anomaly checks without Soda Cloud",
+        description = "When set, the numeric metrics of every scan are appended to a history kept per data source in Kestra's cache storage, as compressed and indexed segments compacted once there are more than `maxSegments`. " +
+            "The change-over-time (`change for row_count < 50`) and anomaly checks of the scan read the previous values of their metric from this history; it is not used when `configuration` connects to Soda Cloud."
+    )
+    @PluginProperty(group = "execution")
+    MetricHistory history;
+
+    @Schema(
+        title = "Run the checks on a sample of each table",
+        description = "The queries of the checks read a sample of the table instead of the full table, and the checks report their `samplingRatio` or `sampleLimit`. " +
+            "By default, the checks of a table that warn or fail on the sample are run again on the full table. Checks evaluated by `jdbcEngine` always read the full table. " +
+            "Sampling is supported on Postgres, Redshift, MySQL, BigQuery, Snowflake, SQL Server, Spark and Databricks data sources; the tables of other data sources are scanned in full, with a warning."
+    )
+    @PluginProperty(group = "execution")
+    SamplingScan sampling;
+
+    @Schema(
+        title = "Evaluate the common checks from the worker over JDBC",
+        description = "When set, the `row_count`, `missing_count`, single column `duplicate_count`, `min`, `max`, `avg` and `sum` checks with a fixed threshold or `warn`/`fail` conditions, and the `failed rows` checks with a `fail condition`, " +
+            "are evaluated by the worker itself with a single aggregate query per table, and reported like the ones evaluated by Soda, with the same check and metric identities. " +
+            "Any other check, or a table whose query fails, is scanned by Soda as usual; no Soda process is started when every check is evaluated over JDBC."
+    )
+    @PluginProperty(group = "execution")
+    JdbcEngine jdbcEngine;
+
+    @Schema(
+        title = "How the Soda metrics are reported as Kestra metrics",
+        description = "`CHECK` reports one counter per Soda metric, tagged with the `dataset` and `column` of the check using it. " +
+            "`TABLE` rolls the metrics up per table and metric name into `<metric>.min`, `<metric>.max`, `<metric>.sum` and `<metric>.count` counters, which keeps the number of metric records independent of the number of checks. " +
+            "`NONE` reports no metric."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    Property<MetricMode> metricMode = Property.ofValue(MetricMode.CHECK);
+
+    @Schema(
+        title = "Capture the failed rows samples of the checks, up to this number of rows per check",
+        description = "The samples are streamed to an ION file per check in Kestra's internal storage, referenced by the `failedRowsUri` of the check, instead of being logged by Soda. " +
+            "Soda also caps each sample with the `samples limit` of the check, 100 rows by default. Columns with a sensitive name and the secret values of `configuration` are masked in the rows."
+    )
+    @PluginProperty(group = "advanced")
+    Property<Integer> failedRowsLimit;
+
+    @Schema(
+        title = "Store the checks and metrics in Kestra's internal storage",
+        description = "Defaults to false; when true, the checks and metrics are written to ION files in internal storage and the output only carries their URIs and the `summary` counts instead of the full `result`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    Property<Boolean> store = Property.ofValue(false);
+
+    @Schema(
+        title = "Keep the raw `result.json` of the scan in Kestra's internal storage",
+        description = "Defaults to false; the result is then parsed in place from the working directory when the task runner shares it with the worker (`Process` and `Docker` runners, and the warm worker), and never uploaded. " +
+            "When true, the raw result is uploaded once parsed, compressed with `resultCompression`, and its URI is set in `resultUris`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    Property<Boolean> keepResult = Property.ofValue(false);
+
+    @Schema(
+        title = "Compression of the raw result kept with `keepResult`"
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    Property<ResultCompression> resultCompression = Property.ofValue(ResultCompression.GZIP);
+
+    @Schema(
+        title = "Encoding of the result written by the scan process",
+        description = "`CBOR` is a binary encoding that is cheaper to write and parse than JSON on large scans. It needs the `cbor2` Python package, added to `requirements` or to the image; without it, the scan process writes JSON, which is detected when parsing the result."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    Property<ResultFormat> resultFormat = Property.ofValue(ResultFormat.JSON);
+
     @Override
     protected Map<String, String> finalInputFiles(RunContext runContext, Path workingDirectory) throws IOException, IllegalVariableEvaluationException {
-        Map<String, String> map = super.finalInputFiles(runContext, workingDirectory);
-
-        String main = "import sys\n" +
-            "import json\n" +
-            "from soda.scan import Scan\n" +
-            "try:\n" +
-            "   from soda.soda_cloud.soda_cloud import SodaCloud\n" +
-            "except ImportError:\n" +
-            "   from soda.cloud.soda_cloud import SodaCloud\n" +
-            "from soda.common.logs import configure_logging\n" +
+        return this.scanInputFiles(runContext, null, this.renderedConfiguration(runContext), this.renderedDataSources(runContext), Map.of(), Map.of(), runContext.render(timeBudget).as(Duration.class).orElse(null));
+    }
+
+    /**
+     * @param directory the directory, relative to the working directory, of the scan files, or null to
+     * write them in the working directory itself
+     * @param renderedConfiguration the configuration, already rendered
+     * @param renderedDataSources the checks to run, keyed by data source
+     * @param incrementalCaches the incremental caches of the data sources, empty unless the scan is incremental
+     * @param histories the metric histories of the data sources, empty unless `history` is set
+     * @param timeBudget what is left of `timeBudget` for the scan process, or null
+     */
+    private Map<String, String> scanInputFiles(RunContext runContext, String directory, Map<String, Object> renderedConfiguration, Map<String, Map<String, Object>> renderedDataSources, Map<String, IncrementalCache> incrementalCaches, Map<String, MetricHistoryStore> histories, Duration timeBudget) throws IOException, IllegalVariableEvaluationException {
+        String prefix = directory == null ? "" : directory + "/";
+        // each scan has its own configuration file, the scans sharing the working directory may connect to different databases
+        Map<String, String> map = super.finalInputFiles(runContext, renderedConfiguration, prefix);
+
+        List<Map<String, Object>> scans = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : renderedDataSources.entrySet()) {
+            String checksFile = this.scanFile(prefix, "checks", entry.getKey(), ".yml");
+            map.put(checksFile, MAPPER.writeValueAsString(entry.getValue()));
+
+            Map<String, Object> scan = new LinkedHashMap<>();
+            scan.put("dataSource", entry.getKey());
+            scan.put("checks", "{{workingDir}}/" + checksFile);
+            scan.put("result", "{{workingDir}}/" + this.scanFile(prefix, "result", entry.getKey(), ".json"));
+            this.failedRowsRequest(runContext, "{{workingDir}}", prefix, entry.getKey()).ifPresent(failedRows -> scan.put("failedRows", failedRows));
+            if (incrementalCaches.containsKey(entry.getKey())) {
+                scan.put("incremental", incrementalCaches.get(entry.getKey()).request());
+            }
+            if (histories.containsKey(entry.getKey())) {
+                scan.put("history", histories.get(entry.getKey()).request("{{workingDir}}"));
+            }
+            scans.add(scan);
+        }
+
+        Map<String, Object> request = this.scanRequest(runContext, timeBudget);
+        request.put("configuration", "{{workingDir}}/" + prefix + CONFIGURATION_FILE);
+        request.put("scans", scans);
+
+        String main = "from soda.common.logs import configure_logging\n" +
+            "\n" +
+            "import kestra_soda\n" +
             "\n" +
             "configure_logging()\n" +
             "\n" +
-            "scan = Scan()\n" +
-            "scan.set_data_source_name(\"kestra\")\n" +
-            "scan.add_configuration_yaml_file(file_path=\"{{workingDir}}/configuration.yml\")\n" +
-            "scan.add_sodacl_yaml_file(\"{{workingDir}}/checks.yml\")\n" +
-            "\n";
+            "kestra_soda.main(\"{{workingDir}}/" + prefix + "scan.json\")\n";
+
+        map.put(prefix + "main.py", main);
+        map.put(prefix + PythonScripts.MODULE, PythonScripts.load(PythonScripts.MODULE));
+        map.put(prefix + PythonScripts.SAMPLING, PythonScripts.load(PythonScripts.SAMPLING));
+        map.put(prefix + "scan.json", JacksonMapper.ofJson().writeValueAsString(request));
 
-        if (runContext.render(verbose).as(Boolean.class).orElseThrow()) {
-            main += "scan.set_verbose()";
+        return map;
+    }
+
+    /**
+     * @param timeBudget the time budget, relative so that the scan process computes its deadline from
+     * its own clock once it starts scanning, or null
+     * @return the fields of the scan request shared by all its data sources
+     */
+    private Map<String, Object> scanRequest(RunContext runContext, Duration timeBudget) throws IllegalVariableEvaluationException {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("verbose", runContext.render(verbose).as(Boolean.class).orElseThrow());
+        request.put("concurrency", runContext.render(dataSourceConcurrency).as(Integer.class).orElse(1));
+        request.put("resultFormat", runContext.render(this.resultFormat).as(ResultFormat.class).orElse(ResultFormat.JSON).name());
+        if (sampling != null) {
+            request.put("sampling", this.samplingRequest(runContext));
+        }
+        runContext.render(checkTimeout).as(Duration.class).ifPresent(timeout -> request.put("queryTimeout", timeout.toMillis() / 1000.0));
+        if (timeBudget != null) {
+            request.put("timeBudget", Math.max(0, timeBudget.toMillis()) / 1000.0);
         }
 
         if (variables != null) {
-            main += "scan.add_variables(" + JacksonMapper.ofJson().writeValueAsString(runContext.render(variables).asMap(String.class, Object.class)) + ")";
+            request.put("variables", runContext.render(variables).asMap(String.class, Object.class));
         }
 
-        main += "\n" +
-            "result = scan.execute()\n" +
-            "\n" +
-            "with open('{{workingDir}}/result.json', 'w') as out:\n" +
-            "    out.write(json.dumps(SodaCloud.build_scan_results(scan)))\n" +
-            "\n" +
-            "print('::{\"outputs\": {\"exitCode\":', result, '}}::')";
+        return request;
+    }
 
-        map.put("main.py", main);
-        map.put("checks.yml", MAPPER.writeValueAsString(runContext.render(checks)));
+    /**
+     * @param workingDirectory the working directory as seen by the scan process
+     * @return where the scan process writes the failed rows samples of a data source, when they are captured
+     */
+    private Optional<Map<String, Object>> failedRowsRequest(RunContext runContext, String workingDirectory, String prefix, String dataSource) throws IllegalVariableEvaluationException {
+        Optional<Integer> limit = runContext.render(this.failedRowsLimit).as(Integer.class);
+        if (limit.isEmpty()) {
+            return Optional.empty();
+        }
 
-        return map;
+        String path = this.scanFile(prefix, "samples", dataSource, "");
+
+        return Optional.of(Map.of(
+            "directory", workingDirectory + "/" + path,
+            "path", path,
+            "limit", limit.get()
+        ));
+    }
+
+    Map<String, Object> samplingRequest(RunContext runContext) throws IllegalVariableEvaluationException {
+        Optional<Double> percentage = runContext.render(sampling.getPercentage()).as(Double.class);
+        Optional<Integer> rowLimit = runContext.render(sampling.getRowLimit()).as(Integer.class);
+        if (percentage.isPresent() == rowLimit.isPresent()) {
+            throw new IllegalArgumentException("Exactly one of `sampling.percentage` or `sampling.rowLimit` must be set");
+        }
+        if (percentage.isPresent() && (percentage.get() <= 0 || percentage.get() > 100)) {
+            throw new IllegalArgumentException("`sampling.percentage` must be greater than 0 and at most 100, got " + percentage.get());
+        }
+        if (rowLimit.isPresent() && rowLimit.get() <= 0) {
+            throw new IllegalArgumentException("`sampling.rowLimit` must be greater than 0, got " + rowLimit.get());
+        }
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("percentage", percentage.orElse(null));
+        request.put("rowLimit", rowLimit.orElse(null));
+        request.put("tables", runContext.render(sampling.getTables()).asList(String.class));
+        request.put("escalate", runContext.render(sampling.getEscalate()).as(Boolean.class).orElse(true));
+
+        return request;
+    }
+
+    /**
+     * @return the rendered checks keyed by data source, {@code checks} being run against the {@code kestra} data source,
+     * validated and normalized by {@link ChecksPlan} before any scan process is started
+     */
+    private Map<String, Map<String, Object>> renderedDataSources(RunContext runContext) throws IllegalVariableEvaluationException {
+        boolean hasChecks = checks != null && !checks.isEmpty();
+        boolean hasDataSources = dataSources != null && !dataSources.isEmpty();
+        if (hasChecks == hasDataSources) {
+            throw new IllegalArgumentException("Exactly one of `checks` or `dataSources` must be set");
+        }
+
+        if (!hasDataSources) {
+            return Map.of(DEFAULT_DATA_SOURCE, ChecksPlan.of(runContext.render(checks)).checks());
+        }
+
+        Map<String, Map<String, Object>> rendered = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : dataSources.entrySet()) {
+            if (!DATA_SOURCE_NAME.matcher(entry.getKey()).matches()) {
+                throw new IllegalArgumentException("Invalid data source name '" + entry.getKey() + "'");
+            }
+
+            try {
+                rendered.put(entry.getKey(), ChecksPlan.of(runContext.render(entry.getValue())).checks());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Data source '" + entry.getKey() + "': " + e.getMessage(), e);
+            }
+        }
+
+        return rendered;
+    }
+
+    /**
+     * The files of a scan using {@code checks} keep their historical names, the ones of a scan using
+     * {@code dataSources} are suffixed with the data source name.
+     */
+    private String scanFile(String prefix, String name, String dataSource, String extension) {
+        return prefix + name + (this.dataSources == null ? "" : "-" + dataSource) + extension;
     }
 
     @Override
     public Scan.Output run(RunContext runContext) throws Exception {
-        CommandsWrapper commandsWrapper = this.start(runContext);
-        ScriptOutput output = commandsWrapper.run();
+        return this.run(runContext, null, this.renderedConfiguration(runContext));
+    }
+
+    /**
+     * @param workspace a directory, relative to the working directory, holding all the files of the scan
+     * so that several scans can share the working directory, or null to use the working directory itself
+     * @param renderedConfiguration the configuration, already rendered, and used as is
+     */
+    Scan.Output run(RunContext runContext, String workspace, Map<String, Object> renderedConfiguration) throws Exception {
+        Map<String, Map<String, Object>> renderedDataSources = this.renderedDataSources(runContext);
+        Duration renderedTimeBudget = runContext.render(this.timeBudget).as(Duration.class).orElse(null);
+        Instant deadline = renderedTimeBudget == null ? null : Instant.now().plus(renderedTimeBudget);
+        Map<String, JdbcScan.Result> jdbcResults = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> sodaDataSources = this.jdbcEngine == null ?
+            renderedDataSources :
+            this.scanOverJdbc(runContext, renderedConfiguration, renderedDataSources, deadline, jdbcResults);
+
+        List<Map<String, Map<String, Object>>> shards = sodaDataSources.isEmpty() ? List.of() : ScanShards.splitDataSources(
+            sodaDataSources,
+            runContext.render(this.shards).as(Integer.class).orElse(1)
+        );
+
+        List<Map<String, IncrementalCache>> incrementalCaches = this.incrementalCaches(runContext, renderedConfiguration, shards);
+        Map<String, MetricHistoryStore> histories = this.histories(runContext, renderedDataSources.keySet());
+        List<ScriptOutput> outputs = shards.isEmpty() ? List.of() : this.executeShards(runContext, workspace, renderedConfiguration, shards, incrementalCaches, histories, deadline == null ? null : Duration.between(Instant.now(), deadline));
+        boolean store = runContext.render(this.store).as(Boolean.class).orElse(false);
+        boolean keepResult = runContext.render(this.keepResult).as(Boolean.class).orElse(false);
+        Redactor failedRowsRedactor = this.failedRowsLimit == null ? null : Redactor.of(renderedConfiguration);
+        MetricMode metricMode = runContext.render(this.metricMode).as(MetricMode.class).orElse(MetricMode.CHECK);
+
+        Map<String, DataSourceResult> results = new LinkedHashMap<>();
+        for (String dataSource : renderedDataSources.keySet()) {
+            MetricEmitter metricEmitter = this.dataSources == null ?
+                new MetricEmitter(runContext, metricMode) :
+                new MetricEmitter(runContext, metricMode, "dataSource", dataSource);
+
+            try (ScanResultCollector collector = new ScanResultCollector(runContext, store, metricEmitter)) {
+                MetricHistoryStore history = histories.get(dataSource);
+                ScanResultReader.Listener sink = history == null ? collector : history.recorder(collector);
+                List<ScanResult> headers = new ArrayList<>();
+                List<URI> resultUris = new ArrayList<>();
+                int exitCode = 0;
+                long reportedChecks = 0;
+                for (int i = 0; i < outputs.size(); i++) {
+                    if (shards.get(i).containsKey(dataSource)) {
+                        String directory = shardDirectory(workspace, shards.size(), i);
+                        String resultFile = this.scanFile(directory == null ? "" : directory + "/", "result", dataSource, ".json");
+
+                        IncrementalCache incrementalCache = incrementalCaches.get(i).get(dataSource);
+                        IncrementalCache.Recorder recorder = incrementalCache == null ? null : incrementalCache.recorder(sink);
+                        ScanResultReader.Listener listener = recorder != null ? recorder : sink;
+                        if (failedRowsRedactor != null) {
+                            listener = new FailedRowsUploader(runContext, outputs.get(i), failedRowsRedactor, listener);
+                        }
 
-        ScanResult scanResult = parseResult(runContext, output);
+                        headers.add(parseResult(runContext, outputs.get(i), resultFile, listener));
+                        if (keepResult) {
+                            resultUris.add(this.keepResult(runContext, outputs.get(i), resultFile));
+                        }
+                        if (incrementalCache != null) {
+                            headers.add(incrementalCache.complete(incrementalOutcome(outputs.get(i), dataSource), recorder));
+                        }
+
+                        exitCode = Math.max(exitCode, exitCode(outputs.get(i), dataSource));
+                        reportedChecks += reportedChecks(outputs.get(i), dataSource);
+                    }
+                }
+
+                JdbcScan.Result jdbcResult = jdbcResults.get(dataSource);
+                if (jdbcResult != null) {
+                    for (Metric metric : jdbcResult.metrics()) {
+                        sink.metric(metric);
+                    }
+                    for (Check check : jdbcResult.checks()) {
+                        sink.check(check);
+                    }
+
+                    headers.add(jdbcResult.header());
+                    exitCode = Math.max(exitCode, jdbcResult.exitCode());
+                    reportedChecks += jdbcResult.checks().stream().filter(check -> check.getOutcome() != null).count();
+                }
+
+                metricEmitter.flush();
+
+                ScanResult header = ScanShards.merge(headers);
+                if (history != null) {
+                    history.append(header.getDataTimestamp());
+                }
+                ScanSummary summary = collector.summary(header);
+                ScanResult scanResult = collector.result(header);
+
+                reconciliationWarning(dataSource, reportedChecks, summary).ifPresent(runContext.logger()::warn);
+
+                results.put(dataSource, DataSourceResult.builder()
+                    .result(scanResult)
+                    .summary(summary)
+                    .checksUri(collector.getChecksUri())
+                    .metricsUri(collector.getMetricsUri())
+                    .profilingUri(collector.getProfilingUri())
+                    .discoveryUri(collector.getDiscoveryUri())
+                    .resultUris(keepResult ? resultUris : null)
+                    .exitCode(exitCode)
+                    .build()
+                );
+            }
+        }
+
+        DataSourceResult single = this.dataSources == null ? results.get(DEFAULT_DATA_SOURCE) : null;
 
         return Output.builder()
-            .result(scanResult)
-            .stdOutLineCount(output.getStdOutLineCount())
-            .stdErrLineCount(output.getStdOutLineCount())
-            .configuration(scrubSensitiveValues(runContext.render(configuration).asMap(String.class, Object.class)))
-            .exitCode((Integer) output.getVars().get("exitCode"))
+            .result(single != null ? single.getResult() : null)
+            .summary(ScanResultCollector.sum(results.values().stream().map(DataSourceResult::getSummary).toList()))
+            .checksUri(single != null ? single.getChecksUri() : null)
+            .metricsUri(single != null ? single.getMetricsUri() : null)
+            .profilingUri(single != null ? single.getProfilingUri() : null)
+            .discoveryUri(single != null ? single.getDiscoveryUri() : null)
+            .resultUris(single != null ? single.getResultUris() : null)
+            .dataSources(single != null ? null : results)
+            .stdOutLineCount(outputs.stream().mapToInt(ScriptOutput::getStdOutLineCount).sum())
+            .stdErrLineCount(outputs.stream().mapToInt(ScriptOutput::getStdErrLineCount).sum())
+            .configuration(scrubSensitiveValues(renderedConfiguration))
+            .exitCode(results.values().stream().mapToInt(DataSourceResult::getExitCode).max().orElse(0))
             .build();
     }
 
     /**
-     * Recursively scrubs sensitive leaf values (passwords, tokens, keys, credentials, etc.) from a
-     * rendered configuration map before it is stored in task Output, which is persisted in execution
-     * state and visible to any user with read access to the execution.
+     * Evaluates the checks supported by the JDBC engine.
+     *
+     * @param deadline when the time budget of the scan is exhausted, or null
+     * @param results receives the result of the JDBC evaluation of each data source
+     * @return the checks left to Soda, keyed by data source
      */
-    @SuppressWarnings("unchecked")
-    private static Map<String, Object> scrubSensitiveValues(Map<String, Object> map) {
-        Map<String, Object> scrubbed = new LinkedHashMap<>();
-
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-
-            if (isSensitiveKey(key)) {
-                scrubbed.put(key, REDACTED);
-            } else {
-                scrubbed.put(key, scrubValue(value));
+    private Map<String, Map<String, Object>> scanOverJdbc(RunContext runContext, Map<String, Object> renderedConfiguration, Map<String, Map<String, Object>> renderedDataSources, Instant deadline, Map<String, JdbcScan.Result> results) throws IllegalVariableEvaluationException {
+        Duration renderedCheckTimeout = runContext.render(this.checkTimeout).as(Duration.class).orElse(null);
+        Map<String, String> urls = runContext.render(this.jdbcEngine.getUrls()).asMap(String.class, String.class);
+        String username = runContext.render(this.jdbcEngine.getUsername()).as(String.class).orElse(null);
+        String password = runContext.render(this.jdbcEngine.getPassword()).as(String.class).orElse(null);
+
+        Map<String, Map<String, Object>> remaining = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : renderedDataSources.entrySet()) {
+            String dataSource = entry.getKey();
+            JdbcChecks.Plan plan = JdbcChecks.plan(entry.getValue());
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> dataSourceConfiguration = renderedConfiguration.get("data_source " + dataSource) instanceof Map<?, ?> map ?
+                (Map<String, Object>) map :
+                Map.of();
+            String url = urls.containsKey(dataSource) ? urls.get(dataSource) : JdbcScan.url(dataSourceConfiguration);
+
+            if (plan.isEmpty() || url == null) {
+                remaining.put(dataSource, entry.getValue());
+                continue;
+            }
+
+            try (Connection connection = JdbcScan.connect(url, dataSourceConfiguration, username, password)) {
+                results.put(dataSource, JdbcScan.scan(connection, dataSource, this.scanFile("", "checks", dataSource, ".yml"), plan, renderedCheckTimeout, deadline, runContext.logger()));
+            } catch (SQLException e) {
+                runContext.logger().warn("Unable to connect to data source '{}' over JDBC, its checks will run with Soda: {}", dataSource, e.getMessage());
+                remaining.put(dataSource, entry.getValue());
+                continue;
+            }
+
+            if (!plan.remaining().isEmpty()) {
+                remaining.put(dataSource, plan.remaining());
             }
         }
 
-        return scrubbed;
+        return remaining;
     }
 
     /**
-     * Recurses through container values so sensitive keys nested inside maps <em>or lists</em>
-     * (e.g. a list of connection maps) are scrubbed too; scalar values are returned unchanged.
+     * Loads the cached outcomes of every data source of every shard, when the scan is incremental.
      */
-    @SuppressWarnings("unchecked")
-    private static Object scrubValue(Object value) {
-        if (value instanceof Map) {
-            return scrubSensitiveValues((Map<String, Object>) value);
-        }
+    private List<Map<String, IncrementalCache>> incrementalCaches(RunContext runContext, Map<String, Object> renderedConfiguration, List<Map<String, Map<String, Object>>> shards) throws IllegalVariableEvaluationException, IOException {
+        List<Map<String, IncrementalCache>> caches = new ArrayList<>();
+        Map<String, Object> renderedVariables = variables == null ? null : runContext.render(variables).asMap(String.class, Object.class);
 
-        if (value instanceof List) {
-            List<Object> scrubbedList = new ArrayList<>();
-            for (Object element : (List<Object>) value) {
-                scrubbedList.add(scrubValue(element));
+        for (Map<String, Map<String, Object>> shard : shards) {
+            Map<String, IncrementalCache> shardCaches = new LinkedHashMap<>();
+            if (this.incremental != null) {
+                for (Map.Entry<String, Map<String, Object>> entry : shard.entrySet()) {
+                    shardCaches.put(entry.getKey(), IncrementalCache.open(runContext, this.incremental, entry.getKey(), renderedConfiguration.get("data_source " + entry.getKey()), entry.getValue(), renderedVariables));
+                }
             }
-            return scrubbedList;
+            caches.add(shardCaches);
         }
 
-        return value;
+        return caches;
     }
 
-    private static boolean isSensitiveKey(String key) {
-        if (key == null) {
-            return false;
+    /**
+     * Loads the metric history of every data source, when `history` is set.
+     */
+    private Map<String, MetricHistoryStore> histories(RunContext runContext, Collection<String> dataSources) throws IllegalVariableEvaluationException, IOException {
+        Map<String, MetricHistoryStore> histories = new LinkedHashMap<>();
+        if (this.history != null) {
+            for (String dataSource : dataSources) {
+                histories.put(dataSource, MetricHistoryStore.open(runContext, this.history, dataSource));
+            }
         }
 
-        String normalized = key.toLowerCase().replaceAll("[^a-z0-9]", "");
-        for (String pattern : SENSITIVE_KEY_PATTERNS) {
-            if (normalized.contains(pattern)) {
-                return true;
-            }
+        return histories;
+    }
+
+    private static Object incrementalOutcome(ScriptOutput output, String dataSource) {
+        return output.getVars().get("incremental") instanceof Map<?, ?> incremental ? incremental.get(dataSource) : null;
+    }
+
+    /**
+     * @return the number of check outcomes reported by the progress events of the scan process
+     */
+    private static long reportedChecks(ScriptOutput output, String dataSource) {
+        if (output.getVars().get("progress") instanceof Map<?, ?> progress
+            && progress.get(dataSource) instanceof Map<?, ?> dataSourceProgress
+            && dataSourceProgress.get("checks") instanceof Number checks) {
+            return checks.longValue();
         }
 
-        return false;
+        return 0;
     }
 
-    protected ScanResult parseResult(RunContext runContext, ScriptOutput output) throws IOException {
-        ScanResult scanResult = JacksonMapper.ofJson(false).readValue(
-            runContext.storage().getFile(output.getOutputFiles().get("result.json")),
-            ScanResult.class
+    /**
+     * @return the warning to log when the check outcomes reported while running don't match the evaluated checks of the result
+     */
+    static Optional<String> reconciliationWarning(String dataSource, long reportedChecks, ScanSummary summary) {
+        // checks that could not be evaluated never get an outcome, so they are not reported while running
+        long scannedChecks = summary.getChecks() - summary.getCached() - summary.getErrors();
+        if (reportedChecks == scannedChecks) {
+            return Optional.empty();
+        }
+
+        return Optional.of(
+            "The scan of data source '" + dataSource + "' reported the outcome of " + reportedChecks + " checks while running but its result holds " +
+                scannedChecks + " evaluated checks, the result is kept"
         );
+    }
+
+    private static int exitCode(ScriptOutput output, String dataSource) {
+        if (output.getVars().get("exitCodes") instanceof Map<?, ?> exitCodes && exitCodes.get(dataSource) instanceof Number exitCode) {
+            return exitCode.intValue();
+        }
 
-        scanResult
-            .getMetrics()
-            .stream()
-            .filter(metric -> metric.getValue() != null)
-            .forEach(metric ->
-            {
-                Double metricValue = null;
-                if (metric.getValue() instanceof Double) {
-                    metricValue = (Double) metric.getValue();
+        return output.getVars().get("exitCode") instanceof Number exitCode ? exitCode.intValue() : 0;
+    }
+
+    private static String shardDirectory(String workspace, int shardCount, int index) {
+        String shard = shardCount == 1 ? null : "shard-" + index;
+        if (workspace == null) {
+            return shard;
+        }
+
+        return shard == null ? workspace : workspace + "/" + shard;
+    }
+
+    /**
+     * Runs one scan per shard, at most {@code shardConcurrency} at a time. All the scan processes are
+     * prepared before any is started, so none of them rewrites a shared input file while another runs.
+     */
+    private List<ScriptOutput> executeShards(RunContext runContext, String workspace, Map<String, Object> renderedConfiguration, List<Map<String, Map<String, Object>>> shards, List<Map<String, IncrementalCache>> incrementalCaches, Map<String, MetricHistoryStore> histories, Duration timeBudget) throws Exception {
+        Path workingDirectory = runContext.workingDir().path();
+        List<SodaProcess> processes = new ArrayList<>();
+        Redactor redactor = Redactor.of(renderedConfiguration);
+
+        // the warm worker gets the configuration in the scan request
+        if (this.warmWorker != null) {
+            PluginUtilsService.createInputFiles(
+                runContext,
+                workingDirectory,
+                this.userInputFiles(runContext),
+                Map.of("workingDir", workingDirectory.toString())
+            );
+        }
+
+        try {
+            List<Callable<ScriptOutput>> runs = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                String directory = shardDirectory(workspace, shards.size(), i);
+                Map<String, Map<String, Object>> shardChecks = shards.get(i);
+                Map<String, IncrementalCache> shardCaches = incrementalCaches.get(i);
+
+                if (this.warmWorker != null) {
+                    runs.add(() -> this.executeOnWorker(runContext, directory, renderedConfiguration, redactor, shardChecks, shardCaches, histories, timeBudget));
+                } else {
+                    SodaProcess process = this.prepare(runContext, directory, this.scanInputFiles(runContext, directory, renderedConfiguration, shardChecks, shardCaches, histories, timeBudget), redactor);
+                    processes.add(process);
+                    runs.add(process::run);
                 }
+            }
 
-                if (metricValue != null) {
-                    runContext.metric(
-                        Counter.of(
-                            metric.getIdentity(),
-                            metricValue,
-                            "type", metric.getMetricName()
-                        )
-                    );
+            return this.runAll(runContext, runs);
+        } finally {
+            for (SodaProcess process : processes) {
+                process.close();
+            }
+        }
+    }
+
+    private List<ScriptOutput> runAll(RunContext runContext, List<Callable<ScriptOutput>> runs) throws Exception {
+        if (runs.size() == 1) {
+            return List.of(runs.getFirst().call());
+        }
+
+        int concurrency = runContext.render(this.shardConcurrency).as(Integer.class).orElse(runs.size());
+        runContext.logger().info("Running {} shards with a concurrency of {}", runs.size(), concurrency);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(concurrency, runs.size())));
+        try {
+            List<ScriptOutput> outputs = new ArrayList<>();
+            for (Future<ScriptOutput> future : executor.invokeAll(runs)) {
+                try {
+                    outputs.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
                 }
-            });
+            }
+
+            return outputs;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends the scan to a warm worker process instead of starting a new one. The worker writes the
+     * results in the scan directory, read from the working directory like those of a scan process.
+     */
+    private ScriptOutput executeOnWorker(RunContext runContext, String directory, Map<String, Object> renderedConfiguration, Redactor redactor, Map<String, Map<String, Object>> renderedDataSources, Map<String, IncrementalCache> incrementalCaches, Map<String, MetricHistoryStore> histories, Duration timeBudget) throws Exception {
+        Path workingDirectory = runContext.workingDir().path();
+        Map<String, String> env = runContext.render(this.getEnv()).asMap(String.class, String.class);
+
+        // a worker keeps the state of its interpreter between scans, so it's never shared across tenants and namespaces
+        String scope = runContext.flowInfo().tenantId() + "/" + runContext.flowInfo().namespace();
+        ScanWorker.Type type = runContext.render(this.warmWorker.getType()).as(ScanWorker.Type.class).orElse(ScanWorker.Type.LOCAL);
+        WarmWorker.Launch launch = type == ScanWorker.Type.LOCAL ?
+            WarmWorker.local(scope, runContext.render(this.warmWorker.getPython()).as(String.class).orElse("python3"), this.renderedRequirements(runContext), env, runContext.logger()) :
+            this.dockerWorkerLaunch(runContext, scope, env);
+        WarmWorker.Limits limits = new WarmWorker.Limits(
+            runContext.render(this.warmWorker.getMaxScans()).as(Integer.class).orElse(Integer.MAX_VALUE),
+            runContext.render(this.warmWorker.getMaxMemory()).as(Long.class).orElse(Long.MAX_VALUE),
+            runContext.render(this.warmWorker.getMaxIdle()).as(Duration.class).orElse(Duration.ofMinutes(10)),
+            runContext.render(this.warmWorker.getMaxAge()).as(Duration.class).orElse(null),
+            runContext.render(this.warmWorker.getMinIdle()).as(Integer.class).orElse(0)
+        );
+
+        // a container scans a copy of the files it reads, the files it writes being copied back once done
+        // without replacing any: a result left by a previous scan would be read instead of the new one
+        List<String> inputs = new ArrayList<>(this.userInputFiles(runContext).keySet());
+        for (String dataSource : renderedDataSources.keySet()) {
+            if (histories.containsKey(dataSource)) {
+                inputs.addAll(histories.get(dataSource).segments());
+            }
+        }
+
+        String prefix = directory == null ? "" : directory + "/";
+        for (String dataSource : renderedDataSources.keySet()) {
+            Files.deleteIfExists(workingDirectory.resolve(this.scanFile(prefix, "result", dataSource, ".json")));
+        }
+
+        Duration scanTimeout = runContext.render(this.warmWorker.getScanTimeout()).as(Duration.class).orElse(null);
+        if (timeBudget != null) {
+            Duration budget = timeBudget.plus(WORKER_GRACE_PERIOD);
+            scanTimeout = scanTimeout == null || budget.compareTo(scanTimeout) < 0 ? budget : scanTimeout;
+        }
 
-        return scanResult;
+        WarmWorker worker = WarmWorker.acquire(launch, env, limits, runContext.logger());
+
+        ScriptOutput output;
+        try (WarmWorker.Workspace workspace = worker.workspace(workingDirectory, inputs)) {
+            output = this.executeOnWorker(runContext, directory, renderedConfiguration, redactor, renderedDataSources, incrementalCaches, histories, timeBudget, worker, scanTimeout, workspace.workerPath());
+        } catch (Exception e) {
+            worker.close();
+            throw e;
+        }
+
+        worker.release(limits);
+
+        return output;
+    }
+
+    private ScriptOutput executeOnWorker(RunContext runContext, String directory, Map<String, Object> renderedConfiguration, Redactor redactor, Map<String, Map<String, Object>> renderedDataSources, Map<String, IncrementalCache> incrementalCaches, Map<String, MetricHistoryStore> histories, Duration timeBudget, WarmWorker worker, Duration scanTimeout, String scanDirectory) throws Exception {
+        Map<String, Object> vars = Map.of("workingDir", scanDirectory);
+        String prefix = directory == null ? "" : directory + "/";
+
+        List<Map<String, Object>> scans = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : renderedDataSources.entrySet()) {
+            Map<String, Object> scan = new LinkedHashMap<>();
+            scan.put("dataSource", entry.getKey());
+            scan.put("checks", runContext.render(MAPPER.writeValueAsString(entry.getValue()), vars));
+            scan.put("checksFile", this.scanFile("", "checks", entry.getKey(), ".yml"));
+            scan.put("result", scanDirectory + "/" + this.scanFile(prefix, "result", entry.getKey(), ".json"));
+            this.failedRowsRequest(runContext, scanDirectory, prefix, entry.getKey()).ifPresent(failedRows -> scan.put("failedRows", failedRows));
+            if (incrementalCaches.containsKey(entry.getKey())) {
+                scan.put("incremental", incrementalCaches.get(entry.getKey()).request());
+            }
+            if (histories.containsKey(entry.getKey())) {
+                scan.put("history", histories.get(entry.getKey()).request(scanDirectory));
+            }
+            scans.add(scan);
+        }
+
+        Map<String, Object> request = this.scanRequest(runContext, timeBudget);
+        request.put("type", "scan");
+        request.put("configuration", configurationFile(renderedConfiguration));
+        request.put("scans", scans);
+
+        AtomicInteger stdOutCount = new AtomicInteger();
+        AtomicInteger stdErrCount = new AtomicInteger();
+        // progress events are turned into metrics and logs the same way the task runner does it
+        JsonNode response = worker.scan(request, scanTimeout, (line, isStdErr) -> {
+            (isStdErr ? stdErrCount : stdOutCount).incrementAndGet();
+            PluginUtilsService.parseOut(redactor.event(line), runContext.logger(), runContext, isStdErr, null);
+        });
+
+        Map<String, Object> exitCodes = JacksonMapper.toMap(response.path("exitCodes"));
+
+        return ScriptOutput.builder()
+            .exitCode(0)
+            .vars(Map.of(
+                "exitCode", exitCodes.values().stream().mapToInt(exitCode -> ((Number) exitCode).intValue()).max().orElse(0),
+                "exitCodes", exitCodes,
+                "incremental", response.has("incremental") ? JacksonMapper.toMap(response.get("incremental")) : Map.of(),
+                "progress", response.has("progress") ? JacksonMapper.toMap(response.get("progress")) : Map.of()
+            ))
+            .stdOutLineCount(stdOutCount.get())
+            .stdErrLineCount(stdErrCount.get())
+            .outputFiles(Map.of())
+            .build();
+    }
+
+    private WarmWorker.Launch dockerWorkerLaunch(RunContext runContext, String scope, Map<String, String> env) throws Exception {
+        String containerImage = runContext.render(this.getContainerImage()).as(String.class).orElseThrow();
+        List<String> requirements = this.renderedRequirements(runContext);
+        // the worker container is started by the command line of the worker host, on its daemon
+        String derivedImage = this.derivedImage(runContext, containerImage, requirements, false);
+
+        return derivedImage != null ?
+            WarmWorker.docker(scope, derivedImage, null, env) :
+            WarmWorker.docker(scope, containerImage, requirements, env);
+    }
+
+    /**
+     * Recursively scrubs sensitive leaf values (passwords, tokens, keys, credentials, etc.) from a
+     * rendered configuration map before it is stored in task Output, which is persisted in execution
+     * state and visible to any user with read access to the execution. Only the keys are looked at: a
+     * non-sensitive value equal to a secret, like a user name also used as password, is kept.
+     */
+    static Map<String, Object> scrubSensitiveValues(Map<String, Object> map) {
+        return Redactor.keys().scrub(map);
+    }
+
+    /**
+     * @return the scan-level fields of the result, the checks and metrics being handed to the collector
+     */
+    protected ScanResult parseResult(RunContext runContext, ScriptOutput output, String resultFile, ScanResultReader.Listener listener) throws IOException {
+        // only a runner not sharing the working directory uploads the result, it is read back from the internal storage
+        Path local = runContext.workingDir().path().resolve(resultFile);
+        try (InputStream inputStream = !Files.exists(local) && output.getOutputFiles().containsKey(resultFile) ?
+            runContext.storage().getFile(output.getOutputFiles().get(resultFile)) :
+            Files.newInputStream(local)) {
+            return ScanResultReader.read(inputStream, listener);
+        }
+    }
+
+    /**
+     * @return the URI of the raw result in the internal storage, uploaded compressed from the working
+     * directory unless the task runner already uploaded it
+     */
+    private URI keepResult(RunContext runContext, ScriptOutput output, String resultFile) throws IOException, IllegalVariableEvaluationException {
+        Path local = runContext.workingDir().path().resolve(resultFile);
+        if (!Files.exists(local)) {
+            return output.getOutputFiles().get(resultFile);
+        }
+
+        String name = local.getFileName().toString();
+        if (runContext.render(this.resultCompression).as(ResultCompression.class).orElse(ResultCompression.GZIP) == ResultCompression.NONE) {
+            return runContext.storage().putFile(local.toFile(), name);
+        }
+
+        Path compressed = runContext.workingDir().createTempFile(".json.gz");
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressed), FileSerde.BUFFER_SIZE)) {
+            Files.copy(local, outputStream);
+        }
+
+        try {
+            return runContext.storage().putFile(compressed.toFile(), name + ".gz");
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
     }
 
     @Builder
@@ -306,6 +999,48 @@ public class Scan extends AbstractSoda implements RunnableTask<Scan.Output> {
         )
         private final ScanResult result;
 
+        @Schema(
+            title = "Scan summary",
+            description = "Number of checks per outcome, number of checks that could not be evaluated, and scan-level flags."
+        )
+        private final ScanSummary summary;
+
+        @Schema(
+            title = "URI of the ION file holding the checks",
+            description = "Only set when `store` is true."
+        )
+        private final URI checksUri;
+
+        @Schema(
+            title = "URI of the ION file holding the metrics",
+            description = "Only set when `store` is true."
+        )
+        private final URI metricsUri;
+
+        @Schema(
+            title = "URI of the ION file holding the column profiles",
+            description = "Only set when `store` is true and the checks profile columns."
+        )
+        private final URI profilingUri;
+
+        @Schema(
+            title = "URI of the ION file holding the discovered tables",
+            description = "Only set when `store` is true and the checks discover tables."
+        )
+        private final URI discoveryUri;
+
+        @Schema(
+            title = "URIs of the raw `result.json` files of the scan, one per shard",
+            description = "Only set when `keepResult` is true."
+        )
+        private final List<URI> resultUris;
+
+        @Schema(
+            title = "Results per data source",
+            description = "Only set when `dataSources` is used, in which case `result`, `checksUri` and `metricsUri` are not set and `summary` adds up all the data sources."
+        )
+        private final Map<String, DataSourceResult> dataSources;
+
         @Schema(
             title = "Standard output line count",
             description = "Number of lines captured from stdout during the scan execution."
@@ -332,11 +1067,40 @@ public class Scan extends AbstractSoda implements RunnableTask<Scan.Output> {
         @NotNull
         private Map<String, Object> configuration;
 
+        /**
+         * A scan whose only errors are timed out checks is a partial result, not a failure.
+         */
         @Override
         public Optional<State.Type> finalState() {
-            return Optional.of(
-                this.result.getHasWarnings() ? State.Type.WARNING : (this.result.getHasFailures() || this.result.getHasErrors() ? State.Type.FAILED : State.Type.SUCCESS)
-            );
+            if (this.summary.getHasWarnings()) {
+                return Optional.of(State.Type.WARNING);
+            }
+
+            if (this.summary.getHasFailures()) {
+                return Optional.of(State.Type.FAILED);
+            }
+
+            if (this.summary.getTimedOut() > 0 && this.summary.getErrors() <= this.summary.getTimedOut()) {
+                return Optional.of(State.Type.WARNING);
+            }
+
+            return Optional.of(this.summary.getHasErrors() ? State.Type.FAILED : State.Type.SUCCESS);
         }
     }
+
+    public enum ResultFormat {
+        JSON,
+        CBOR
+    }
+
+    public enum ResultCompression {
+        NONE,
+        GZIP
+    }
+
+    public enum MetricMode {
+        CHECK,
+        TABLE,
+        NONE
+    }
 }
@@ -0,0 +1,389 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.flows.State;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.Task;
+import io.kestra.core.models.tasks.runners.TaskRunner;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.scripts.runner.docker.Docker;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.ScanSummary;
+import io.kestra.plugin.soda.models.TenantCheck;
+import io.kestra.plugin.soda.models.TenantResult;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Run the same Soda checks against many tenant databases",
+    description = "Runs a `Scan` per tenant from a single task run, at most `concurrency` at a time on virtual threads. " +
+        "The configuration of each tenant is either given in `configurations` or rendered from the `configuration` template with the parameters of the tenant in `tenants`. " +
+        "The checks of all the tenants are streamed to a single ION file in internal storage and the output carries a summary per tenant. " +
+        "A tenant whose scan fails is reported with its error without stopping the scans of the other tenants."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Scan the orders of every tenant database, 20 at a time.",
+            full = true,
+            code = """
+                id: soda_tenants
+                namespace: company.team
+
+                tasks:
+                  - id: scan
+                    type: io.kestra.plugin.soda.ScanMany
+                    concurrency: 20
+                    configuration:
+                      data_source kestra:
+                        type: postgres
+                        connection:
+                          host: "{{ tenant.host }}"
+                          database: "{{ tenant.database }}"
+                          username: kestra
+                          password: "{{ secret('PG_PASSWORD') }}"
+                    tenants:
+                      acme:
+                        host: db-1.internal
+                        database: acme
+                      globex:
+                        host: db-2.internal
+                        database: globex
+                    checks:
+                      checks for orders:
+                        - row_count > 0
+                        - missing_count(customer_id) = 0
+                    requirements:
+                      - soda-core-postgres
+                """
+        )
+    }
+)
+public class ScanMany extends Task implements RunnableTask<ScanMany.Output> {
+    private static final Pattern TENANT_NAME = Pattern.compile("[\\w-]+");
+
+    @Schema(
+        title = "The configuration of each tenant, keyed by tenant name"
+    )
+    @PluginProperty(group = "main")
+    private Property<Map<String, Map<String, Object>>> configurations;
+
+    @Schema(
+        title = "The configuration template rendered for each tenant of `tenants`",
+        description = "The parameters of the tenant are available as `{{ tenant.<name> }}`, and its name as `{{ tenant.name }}`."
+    )
+    @PluginProperty(dynamic = true, group = "main")
+    private Map<String, Object> configuration;
+
+    @Schema(
+        title = "The parameters of each tenant, keyed by tenant name",
+        description = "Used with the `configuration` template; they are also passed to the checks as Soda variables, next to `variables`."
+    )
+    @PluginProperty(group = "main")
+    private Property<Map<String, Map<String, Object>>> tenants;
+
+    @Schema(
+        title = "SodaCL checks definition run for every tenant"
+    )
+    @NotNull
+    @PluginProperty(dynamic = true, group = "main")
+    private Map<String, Object> checks;
+
+    @Schema(
+        title = "Runtime variables shared by all the tenants"
+    )
+    private Property<Map<String, Object>> variables;
+
+    @Schema(
+        title = "Maximum number of tenants scanned at the same time"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> concurrency = Property.ofValue(10);
+
+    @Schema(
+        title = "The task runner to use",
+        description = "Task runners are provided by plugins, each have their own properties."
+    )
+    @PluginProperty(group = "execution")
+    @Builder.Default
+    @Valid
+    private TaskRunner<?> taskRunner = Docker.instance();
+
+    @Schema(title = "The task runner container image, only used if the task runner is container-based")
+    @PluginProperty(group = "execution")
+    private Property<String> containerImage;
+
+    @Schema(
+        title = "List of python dependencies to add to the python execution process"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<List<String>> requirements;
+
+    @Schema(
+        title = "How the `requirements` are installed"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<AbstractSoda.InstallMode> installMode;
+
+    @Schema(
+        title = "Additional environment variables for the scan processes"
+    )
+    @PluginProperty(group = "execution")
+    private Property<Map<String, String>> env;
+
+    @Schema(
+        title = "Run the scans in warm worker processes",
+        description = "The tenants share the pool of worker processes, which grows up to `concurrency` processes."
+    )
+    @PluginProperty(group = "execution")
+    private ScanWorker warmWorker;
+
+    @Schema(
+        title = "Maximum duration of each query of the scans"
+    )
+    @PluginProperty(group = "execution")
+    private Property<Duration> checkTimeout;
+
+    @Schema(
+        title = "Which Kestra metrics are emitted for the checks",
+        description = "Defaults to `NONE`, the metrics of the tenants sharing the same names."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Scan.MetricMode> metricMode = Property.ofValue(Scan.MetricMode.NONE);
+
+    @Override
+    public ScanMany.Output run(RunContext runContext) throws Exception {
+        Map<String, Map<String, Object>> renderedConfigurations = this.renderedConfigurations(runContext);
+        Map<String, Map<String, Object>> renderedTenants = this.renderedTenants(runContext);
+        Map<String, Object> renderedVariables = this.variables == null ? Map.of() : runContext.render(this.variables).asMap(String.class, Object.class);
+        int renderedConcurrency = runContext.render(this.concurrency).as(Integer.class).orElse(10);
+        if (renderedConcurrency < 1) {
+            throw new IllegalArgumentException("`concurrency` must be at least 1, got " + renderedConcurrency);
+        }
+
+        runContext.logger().info("Scanning {} tenants with a concurrency of {}", renderedConfigurations.size(), renderedConcurrency);
+
+        Path checksFile = runContext.workingDir().createTempFile(".ion");
+        Semaphore permits = new Semaphore(renderedConcurrency);
+        Map<String, Future<Scan.Output>> futures = new LinkedHashMap<>();
+        Map<String, TenantResult> results = new LinkedHashMap<>();
+
+        try (OutputStream checksOutput = new BufferedOutputStream(Files.newOutputStream(checksFile), FileSerde.BUFFER_SIZE);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, Map<String, Object>> entry : renderedConfigurations.entrySet()) {
+                String tenant = entry.getKey();
+                Map<String, Object> tenantVariables = new LinkedHashMap<>(renderedVariables);
+                tenantVariables.putAll(renderedTenants.getOrDefault(tenant, Map.of()));
+
+                Map<String, Object> tenantConfiguration = entry.getValue();
+                Scan scan = this.scan(tenantConfiguration, tenantVariables);
+                futures.put(tenant, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return this.scanTenant(runContext, tenant, scan, tenantConfiguration, checksOutput);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Map.Entry<String, Future<Scan.Output>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), result(runContext, entry.getKey(), entry.getValue()));
+            }
+        }
+
+        long failedTenants = results.values().stream().filter(result -> result.getError() != null).count();
+        runContext.metric(Counter.of("tenants", results.size()));
+        runContext.metric(Counter.of("failedTenants", failedTenants));
+
+        return Output.builder()
+            .summary(ScanResultCollector.sum(results.values().stream().map(TenantResult::getSummary).filter(Objects::nonNull).toList()))
+            .tenants(results)
+            .failedTenants(failedTenants)
+            .checksUri(runContext.storage().putFile(checksFile.toFile()))
+            .build();
+    }
+
+    /**
+     * @return the configuration of each tenant, either given or rendered from the template
+     */
+    private Map<String, Map<String, Object>> renderedConfigurations(RunContext runContext) throws IllegalVariableEvaluationException {
+        if ((this.configurations == null) == (this.configuration == null)) {
+            throw new IllegalArgumentException("Exactly one of `configurations` or `configuration` must be set");
+        }
+
+        Map<String, Map<String, Object>> rendered = new LinkedHashMap<>();
+        if (this.configurations != null) {
+            rendered.putAll(perTenant("configurations", runContext.render(this.configurations).asMap(String.class, Object.class)));
+        } else {
+            if (this.tenants == null) {
+                throw new IllegalArgumentException("`tenants` must be set with the `configuration` template");
+            }
+
+            for (Map.Entry<String, Map<String, Object>> entry : this.renderedTenants(runContext).entrySet()) {
+                Map<String, Object> tenant = new LinkedHashMap<>(entry.getValue());
+                tenant.put("name", entry.getKey());
+                rendered.put(entry.getKey(), runContext.render(this.configuration, Map.of("tenant", tenant)));
+            }
+        }
+
+        for (String tenant : rendered.keySet()) {
+            if (!TENANT_NAME.matcher(tenant).matches()) {
+                throw new IllegalArgumentException("Invalid tenant name '" + tenant + "'");
+            }
+        }
+
+        return rendered;
+    }
+
+    private Map<String, Map<String, Object>> renderedTenants(RunContext runContext) throws IllegalVariableEvaluationException {
+        return this.tenants == null ? Map.of() : perTenant("tenants", runContext.render(this.tenants).asMap(String.class, Object.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> perTenant(String property, Map<String, Object> values) {
+        Map<String, Map<String, Object>> perTenant = new LinkedHashMap<>();
+        values.forEach((tenant, value) -> {
+            if (!(value instanceof Map<?, ?> map)) {
+                throw new IllegalArgumentException("`" + property + "." + tenant + "` must be a map");
+            }
+
+            perTenant.put(tenant, (Map<String, Object>) map);
+        });
+
+        return perTenant;
+    }
+
+    private Scan scan(Map<String, Object> tenantConfiguration, Map<String, Object> tenantVariables) {
+        Scan.ScanBuilder<?, ?> builder = Scan.builder()
+            .id(this.getId())
+            .type(Scan.class.getName())
+            // never rendered, the scan is run with the configuration already rendered
+            .configuration(Property.ofValue(tenantConfiguration))
+            .checks(this.checks)
+            .variables(Property.ofValue(tenantVariables))
+            .requirements(this.requirements)
+            .env(this.env)
+            .warmWorker(this.warmWorker)
+            .checkTimeout(this.checkTimeout)
+            .metricMode(this.metricMode);
+
+        if (this.taskRunner != null) {
+            builder.taskRunner(this.taskRunner);
+        }
+        if (this.containerImage != null) {
+            builder.containerImage(this.containerImage);
+        }
+        if (this.installMode != null) {
+            builder.installMode(this.installMode);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Scans one tenant in its own directory of the working directory, and appends its checks to the
+     * shared checks file. The configuration, already rendered, is handed to the scan as is.
+     */
+    private Scan.Output scanTenant(RunContext runContext, String tenant, Scan scan, Map<String, Object> tenantConfiguration, OutputStream checksOutput) throws Exception {
+        Scan.Output output = scan.run(runContext, tenant, tenantConfiguration);
+
+        List<Check> checks = output.getResult() == null ? List.of() : output.getResult().getChecks();
+        synchronized (checksOutput) {
+            for (Check check : checks) {
+                FileSerde.write(checksOutput, TenantCheck.builder().tenant(tenant).check(check).build());
+            }
+        }
+
+        runContext.logger().info("Tenant '{}': {} checks, {} errors", tenant, output.getSummary().getChecks(), output.getSummary().getErrors());
+
+        return output;
+    }
+
+    private static TenantResult result(RunContext runContext, String tenant, Future<Scan.Output> future) throws InterruptedException {
+        try {
+            Scan.Output output = future.get();
+
+            return TenantResult.builder()
+                .summary(output.getSummary())
+                .exitCode(output.getExitCode())
+                .build();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            runContext.logger().error("The scan of tenant '{}' failed: {}", tenant, cause.getMessage(), cause);
+
+            return TenantResult.builder()
+                .error(cause.getClass().getSimpleName() + ": " + cause.getMessage())
+                .build();
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "Summary of the scans of all the tenants",
+            description = "The tenants whose scan failed are not counted."
+        )
+        private final ScanSummary summary;
+
+        @Schema(
+            title = "Result of the scan of each tenant, keyed by tenant name"
+        )
+        private final Map<String, TenantResult> tenants;
+
+        @Schema(
+            title = "Number of tenants whose scan failed"
+        )
+        private final long failedTenants;
+
+        @Schema(
+            title = "URI of the ION file holding the checks of all the tenants"
+        )
+        private final URI checksUri;
+
+        @Override
+        public Optional<State.Type> finalState() {
+            if (this.failedTenants > 0 || Boolean.TRUE.equals(this.summary.getHasErrors()) || Boolean.TRUE.equals(this.summary.getHasFailures())) {
+                return Optional.of(State.Type.FAILED);
+            }
+
+            return Optional.of(Boolean.TRUE.equals(this.summary.getHasWarnings()) ? State.Type.WARNING : State.Type.SUCCESS);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.DiscoverTablesResultTable;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ProfileColumnsResultTable;
+import io.kestra.plugin.soda.models.ScanResult;
+import io.kestra.plugin.soda.models.ScanSummary;
+
+import lombok.Getter;
+
+/**
+ * Receives the streamed checks and metrics of a scan, counts them, and either keeps them in memory
+ * for the task output or writes them to ION files stored in Kestra's internal storage. Column
+ * profiles and discovered tables are kept or stored the same way, their ION files only being
+ * created when the scan reports some.
+ */
+class ScanResultCollector implements ScanResultReader.Listener, Closeable {
+    private final RunContext runContext;
+    private final boolean store;
+    private final MetricEmitter metricEmitter;
+
+    private final List<Metric> metrics = new ArrayList<>();
+    private final List<Check> checks = new ArrayList<>();
+    private final List<ProfileColumnsResultTable> profiles = new ArrayList<>();
+    private final List<DiscoverTablesResultTable> discoveredTables = new ArrayList<>();
+    private final Map<CheckOutcome, Long> outcomes = new EnumMap<>(CheckOutcome.class);
+    private long checkCount;
+    private long metricCount;
+    private long errorCount;
+    private long cachedCount;
+    private long timedOutCount;
+
+    private Path metricsFile;
+    private Path checksFile;
+    private OutputStream metricsOutput;
+    private OutputStream checksOutput;
+    private Path profilingFile;
+    private Path discoveryFile;
+    private OutputStream profilingOutput;
+    private OutputStream discoveryOutput;
+
+    @Getter
+    private URI metricsUri;
+
+    @Getter
+    private URI checksUri;
+
+    @Getter
+    private URI profilingUri;
+
+    @Getter
+    private URI discoveryUri;
+
+    ScanResultCollector(RunContext runContext, boolean store, MetricEmitter metricEmitter) throws IOException {
+        this.runContext = runContext;
+        this.store = store;
+        this.metricEmitter = metricEmitter;
+
+        for (CheckOutcome outcome : CheckOutcome.values()) {
+            this.outcomes.put(outcome, 0L);
+        }
+
+        if (store) {
+            this.metricsFile = runContext.workingDir().createTempFile(".ion");
+            this.checksFile = runContext.workingDir().createTempFile(".ion");
+            this.metricsOutput = new BufferedOutputStream(Files.newOutputStream(metricsFile), FileSerde.BUFFER_SIZE);
+            this.checksOutput = new BufferedOutputStream(Files.newOutputStream(checksFile), FileSerde.BUFFER_SIZE);
+        }
+    }
+
+    @Override
+    public void metric(Metric metric) throws IOException {
+        metricCount++;
+
+        metricEmitter.metric(metric);
+
+        if (store) {
+            FileSerde.write(metricsOutput, metric);
+        } else {
+            metrics.add(metric);
+        }
+    }
+
+    @Override
+    public void check(Check check) throws IOException {
+        checkCount++;
+        metricEmitter.check(check);
+
+        if (check.getOutcome() == null) {
+            errorCount++;
+        } else {
+            outcomes.merge(check.getOutcome(), 1L, Long::sum);
+        }
+
+        if (Boolean.TRUE.equals(check.getCached())) {
+            cachedCount++;
+        }
+
+        if (Boolean.TRUE.equals(check.getTimedOut())) {
+            timedOutCount++;
+        }
+
+        if (store) {
+            FileSerde.write(checksOutput, check);
+        } else {
+            checks.add(check);
+        }
+    }
+
+    @Override
+    public void profile(ProfileColumnsResultTable profile) throws IOException {
+        if (!store) {
+            profiles.add(profile);
+            return;
+        }
+
+        if (profilingOutput == null) {
+            profilingFile = runContext.workingDir().createTempFile(".ion");
+            profilingOutput = new BufferedOutputStream(Files.newOutputStream(profilingFile), FileSerde.BUFFER_SIZE);
+        }
+        FileSerde.write(profilingOutput, profile);
+    }
+
+    @Override
+    public void discoveredTable(DiscoverTablesResultTable table) throws IOException {
+        if (!store) {
+            discoveredTables.add(table);
+            return;
+        }
+
+        if (discoveryOutput == null) {
+            discoveryFile = runContext.workingDir().createTempFile(".ion");
+            discoveryOutput = new BufferedOutputStream(Files.newOutputStream(discoveryFile), FileSerde.BUFFER_SIZE);
+        }
+        FileSerde.write(discoveryOutput, table);
+    }
+
+    /**
+     * Completes the scan-level fields read by {@link ScanResultReader}: with the checks and metrics when
+     * they are kept in memory, or by uploading the ION files when they are stored.
+     */
+    ScanResult result(ScanResult header) throws IOException {
+        if (!store) {
+            return header.toBuilder()
+                .metrics(metrics)
+                .checks(checks)
+                .profiling(profiles.isEmpty() ? null : profiles)
+                .metadata(discoveredTables.isEmpty() ? null : discoveredTables)
+                .build();
+        }
+
+        this.close();
+        this.metricsUri = runContext.storage().putFile(metricsFile.toFile());
+        this.checksUri = runContext.storage().putFile(checksFile.toFile());
+        if (profilingFile != null) {
+            this.profilingUri = runContext.storage().putFile(profilingFile.toFile());
+        }
+        if (discoveryFile != null) {
+            this.discoveryUri = runContext.storage().putFile(discoveryFile.toFile());
+        }
+
+        return null;
+    }
+
+    ScanSummary summary(ScanResult header) {
+        return ScanSummary.builder()
+            .checks(checkCount)
+            .metrics(metricCount)
+            .outcomes(outcomes)
+            .errors(errorCount)
+            .cached(cachedCount)
+            .timedOut(timedOutCount)
+            .hasErrors(header.getHasErrors())
+            .hasWarnings(header.getHasWarnings())
+            .hasFailures(header.getHasFailures())
+            .build();
+    }
+
+    /**
+     * Adds up the summaries of several scans.
+     */
+    static ScanSummary sum(List<ScanSummary> summaries) {
+        Map<CheckOutcome, Long> outcomes = new EnumMap<>(CheckOutcome.class);
+        long checks = 0;
+        long metrics = 0;
+        long errors = 0;
+        long cached = 0;
+        long timedOut = 0;
+        boolean hasErrors = false;
+        boolean hasWarnings = false;
+        boolean hasFailures = false;
+
+        for (ScanSummary summary : summaries) {
+            checks += summary.getChecks();
+            metrics += summary.getMetrics();
+            errors += summary.getErrors();
+            cached += summary.getCached();
+            timedOut += summary.getTimedOut();
+            summary.getOutcomes().forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum));
+            hasErrors |= Boolean.TRUE.equals(summary.getHasErrors());
+            hasWarnings |= Boolean.TRUE.equals(summary.getHasWarnings());
+            hasFailures |= Boolean.TRUE.equals(summary.getHasFailures());
+        }
+
+        return ScanSummary.builder()
+            .checks(checks)
+            .metrics(metrics)
+            .outcomes(outcomes)
+            .errors(errors)
+            .cached(cached)
+            .timedOut(timedOut)
+            .hasErrors(hasErrors)
+            .hasWarnings(hasWarnings)
+            .hasFailures(hasFailures)
+            .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (metricsOutput != null) {
+            metricsOutput.close();
+            metricsOutput = null;
+        }
+
+        if (checksOutput != null) {
+            checksOutput.close();
+            checksOutput = null;
+        }
+
+        if (profilingOutput != null) {
+            profilingOutput.close();
+            profilingOutput = null;
+        }
+
+        if (discoveryOutput != null) {
+            discoveryOutput.close();
+            discoveryOutput = null;
+        }
+    }
+}
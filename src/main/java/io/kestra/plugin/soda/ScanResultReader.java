@@ -0,0 +1,142 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.DiscoverTablesResultTable;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ProfileColumnsResultTable;
+import io.kestra.plugin.soda.models.ScanResult;
+
+/**
+ * Streaming reader of the {@code result.json} written by the scan process, in JSON or CBOR.
+ * <p>
+ * Metrics, checks, column profiles and discovered tables are handed to a {@link Listener} one at a
+ * time as they are read and never kept by the reader itself; the returned {@link ScanResult} only
+ * carries the scan-level fields, with the {@code hasErrors}, {@code hasWarnings} and
+ * {@code hasFailures} flags also derived from the check outcomes seen along the way.
+ */
+class ScanResultReader {
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+    private static final CBORFactory CBOR = new CBORFactory();
+    private static final TypeReference<List<String>> STRINGS = new TypeReference<>() {
+    };
+
+    private ScanResultReader() {
+    }
+
+    static ScanResult read(InputStream inputStream, Listener listener) throws IOException {
+        InputStream buffered = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream, FileSerde.BUFFER_SIZE);
+        buffered.mark(1);
+        int first = buffered.read();
+        buffered.reset();
+
+        try (JsonParser parser = (isCbor(first) ? CBOR : MAPPER.getFactory()).createParser(buffered)) {
+            return read(parser, listener);
+        }
+    }
+
+    /**
+     * The scan process writes a CBOR map, possibly behind the self-described CBOR tag, when asked to and
+     * able to, and a JSON object otherwise.
+     */
+    static boolean isCbor(int first) {
+        return first != -1 && ((first & 0xE0) == 0xA0 || first == 0xD9);
+    }
+
+    static ScanResult read(JsonParser parser, Listener listener) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Invalid scan result, expected an object but got " + parser.currentToken());
+        }
+
+        ScanResult.ScanResultBuilder<?, ?> builder = ScanResult.builder();
+        boolean hasErrors = false;
+        boolean hasWarnings = false;
+        boolean hasFailures = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch (field) {
+                case "definitionName" -> builder.definitionName(parser.getValueAsString());
+                case "defaultDataSource" -> builder.defaultDataSource(parser.getValueAsString());
+                case "dataTimestamp" -> builder.dataTimestamp(MAPPER.readValue(parser, ZonedDateTime.class));
+                case "scanStartTimestamp" -> builder.scanStartTimestamp(MAPPER.readValue(parser, ZonedDateTime.class));
+                case "scanEndTimestamp" -> builder.scanEndTimestamp(MAPPER.readValue(parser, ZonedDateTime.class));
+                case "hasErrors" -> hasErrors |= parser.getValueAsBoolean();
+                case "hasWarnings" -> hasWarnings |= parser.getValueAsBoolean();
+                case "hasFailures" -> hasFailures |= parser.getValueAsBoolean();
+                case "metrics" -> {
+                    expectArray(parser, field);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        listener.metric(MAPPER.readValue(parser, Metric.class));
+                    }
+                }
+                case "checks" -> {
+                    expectArray(parser, field);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Check check = MAPPER.readValue(parser, Check.class);
+                        hasWarnings |= check.getOutcome() == CheckOutcome.warn;
+                        hasFailures |= check.getOutcome() == CheckOutcome.fail;
+                        listener.check(check);
+                    }
+                }
+                case "automatedMonitoringChecks" -> builder.automatedMonitoringChecks(MAPPER.readValue(parser, STRINGS));
+                case "profiling" -> {
+                    expectArray(parser, field);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        listener.profile(MAPPER.readValue(parser, ProfileColumnsResultTable.class));
+                    }
+                }
+                case "metadata" -> {
+                    expectArray(parser, field);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        listener.discoveredTable(MAPPER.readValue(parser, DiscoverTablesResultTable.class));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return builder
+            .hasErrors(hasErrors)
+            .hasWarnings(hasWarnings)
+            .hasFailures(hasFailures)
+            .build();
+    }
+
+    private static void expectArray(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Invalid scan result, expected an array for '" + field + "' but got " + parser.currentToken());
+        }
+    }
+
+    interface Listener {
+        void metric(Metric metric) throws IOException;
+
+        void check(Check check) throws IOException;
+
+        default void profile(ProfileColumnsResultTable profile) throws IOException {
+        }
+
+        default void discoveredTable(DiscoverTablesResultTable table) throws IOException {
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.kestra.plugin.soda;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.kestra.plugin.soda.models.ScanResult;
+
+/**
+ * Splits a SodaCL checks map into several maps that can be scanned concurrently, and merges back the
+ * scan-level fields of their results.
+ */
+class ScanShards {
+    static final String CHECKS_FOR = "checks for ";
+    static final String FILTER = "filter ";
+
+    private ScanShards() {
+    }
+
+    /**
+     * Distributes the {@code checks for <table>} entries across at most {@code count} shards, the largest
+     * entries first, each one going to the shard with the fewest checks so far. Dataset filters are
+     * needed by any shard and are copied into all of them; every other entry (profiling, discovery,
+     * {@code for each dataset}, ...) stays in the first shard.
+     */
+    static List<Map<String, Object>> split(Map<String, Object> checks, int count) {
+        List<Map.Entry<String, Object>> tables = checks.entrySet()
+            .stream()
+            .filter(entry -> entry.getKey().startsWith(CHECKS_FOR))
+            .sorted(Comparator.comparingInt((Map.Entry<String, Object> entry) -> size(entry.getValue())).reversed())
+            .toList();
+
+        int shardCount = Math.max(1, Math.min(count, tables.size()));
+        if (shardCount == 1) {
+            return List.of(checks);
+        }
+
+        List<Map<String, Object>> shards = new ArrayList<>();
+        int[] loads = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new LinkedHashMap<>());
+        }
+
+        checks.forEach((key, value) -> {
+            if (key.startsWith(FILTER)) {
+                shards.forEach(shard -> shard.put(key, value));
+            } else if (!key.startsWith(CHECKS_FOR)) {
+                shards.getFirst().put(key, value);
+            }
+        });
+
+        for (Map.Entry<String, Object> table : tables) {
+            int target = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (loads[i] < loads[target]) {
+                    target = i;
+                }
+            }
+
+            shards.get(target).put(table.getKey(), table.getValue());
+            loads[target] += size(table.getValue());
+        }
+
+        return shards;
+    }
+
+    /**
+     * Splits the checks of each data source with {@link #split(Map, int)}, the n-th shard holding the
+     * n-th part of every data source that has one.
+     */
+    static List<Map<String, Map<String, Object>>> splitDataSources(Map<String, Map<String, Object>> dataSources, int count) {
+        List<Map<String, Map<String, Object>>> shards = new ArrayList<>();
+
+        dataSources.forEach((dataSource, checks) -> {
+            List<Map<String, Object>> parts = split(checks, count);
+            for (int i = 0; i < parts.size(); i++) {
+                if (shards.size() <= i) {
+                    shards.add(new LinkedHashMap<>());
+                }
+                shards.get(i).put(dataSource, parts.get(i));
+            }
+        });
+
+        return shards;
+    }
+
+    /**
+     * Merges the scan-level fields of the shard results: the earliest start, the latest end, and any
+     * error, warning or failure.
+     */
+    static ScanResult merge(List<ScanResult> results) {
+        if (results.size() == 1) {
+            return results.getFirst();
+        }
+
+        ScanResult first = results.getFirst();
+        ZonedDateTime start = null;
+        ZonedDateTime end = null;
+        boolean hasErrors = false;
+        boolean hasWarnings = false;
+        boolean hasFailures = false;
+
+        for (ScanResult result : results) {
+            if (result.getScanStartTimestamp() != null && (start == null || result.getScanStartTimestamp().isBefore(start))) {
+                start = result.getScanStartTimestamp();
+            }
+
+            if (result.getScanEndTimestamp() != null && (end == null || result.getScanEndTimestamp().isAfter(end))) {
+                end = result.getScanEndTimestamp();
+            }
+
+            hasErrors |= Boolean.TRUE.equals(result.getHasErrors());
+            hasWarnings |= Boolean.TRUE.equals(result.getHasWarnings());
+            hasFailures |= Boolean.TRUE.equals(result.getHasFailures());
+        }
+
+        return first.toBuilder()
+            .scanStartTimestamp(start)
+            .scanEndTimestamp(end)
+            .hasErrors(hasErrors)
+            .hasWarnings(hasWarnings)
+            .hasFailures(hasFailures)
+            .automatedMonitoringChecks(concat(results, ScanResult::getAutomatedMonitoringChecks))
+            .profiling(concat(results, ScanResult::getProfiling))
+            .metadata(concat(results, ScanResult::getMetadata))
+            .build();
+    }
+
+    private static <T> List<T> concat(List<ScanResult> results, Function<ScanResult, List<T>> getter) {
+        List<T> list = null;
+        for (ScanResult result : results) {
+            List<T> values = getter.apply(result);
+            if (values != null) {
+                if (list == null) {
+                    list = new ArrayList<>();
+                }
+                list.addAll(values);
+            }
+        }
+
+        return list;
+    }
+
+    private static int size(Object checks) {
+        return checks instanceof List<?> list ? Math.max(1, list.size()) : 1;
+    }
+}
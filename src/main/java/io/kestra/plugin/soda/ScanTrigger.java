@@ -0,0 +1,295 @@
+package io.kestra.plugin.soda;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.triggers.AbstractTrigger;
+import io.kestra.core.models.triggers.PollingTriggerInterface;
+import io.kestra.core.models.triggers.TriggerContext;
+import io.kestra.core.models.triggers.TriggerOutput;
+import io.kestra.core.models.triggers.TriggerService;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.storages.kv.KVMetadata;
+import io.kestra.core.storages.kv.KVStore;
+import io.kestra.core.storages.kv.KVValue;
+import io.kestra.core.storages.kv.KVValueAndMetadata;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckChange;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.ScanSummary;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Trigger a flow on the outcomes of a Soda scan",
+    description = "Runs the checks at every `interval` in a warm worker process kept between polls, so each poll mostly costs the queries of the checks. " +
+        "The outcomes of the previous poll are kept in the KV store of the flow namespace, and an execution is only created when they change (`onChange`) or when checks reach one of `outcomes` and did not on the previous poll."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Start a flow when the orders table stops being fresh.",
+            full = true,
+            code = """
+                id: soda_freshness
+                namespace: company.team
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "{{ trigger.matchedChecks }}"
+
+                triggers:
+                  - id: scan
+                    type: io.kestra.plugin.soda.ScanTrigger
+                    interval: PT1M
+                    configuration:
+                      data_source kestra:
+                        type: postgres
+                        connection:
+                          host: localhost
+                          database: app
+                          username: kestra
+                          password: "{{ secret('PG_PASSWORD') }}"
+                    checks:
+                      checks for orders:
+                        - freshness(created_at) < 1h
+                        - row_count > 0
+                    requirements:
+                      - soda-core-postgres
+                    warmWorker:
+                      type: DOCKER
+                    outcomes:
+                      - fail
+                """
+        )
+    }
+)
+public class ScanTrigger extends AbstractTrigger implements PollingTriggerInterface, TriggerOutput<ScanTrigger.Output> {
+    private static final String ERROR = "error";
+
+    @Builder.Default
+    private final Duration interval = Duration.ofSeconds(60);
+
+    @Schema(
+        title = "The configuration file"
+    )
+    @NotNull
+    private Property<Map<String, Object>> configuration;
+
+    @Schema(
+        title = "SodaCL checks definition",
+        description = "Executed against the `kestra` data source at every poll."
+    )
+    @NotNull
+    @PluginProperty(dynamic = true, group = "main")
+    private Map<String, Object> checks;
+
+    @Schema(
+        title = "Runtime variables"
+    )
+    private Property<Map<String, Object>> variables;
+
+    @Schema(
+        title = "List of python dependencies to add to the python execution process"
+    )
+    @PluginProperty(group = "advanced")
+    private Property<List<String>> requirements;
+
+    @Schema(
+        title = "Container image of the `DOCKER` worker type"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<String> containerImage = Property.ofValue("sodadata/soda-core");
+
+    @Schema(
+        title = "Additional environment variables for the worker process"
+    )
+    @PluginProperty(group = "execution")
+    private Property<Map<String, String>> env;
+
+    @Schema(
+        title = "The warm worker process running the scans",
+        description = "The process is kept between polls and recycled like the one of the `Scan` task. " +
+            "Triggers are evaluated outside of any task runner, so the worker type must be chosen explicitly: a `LOCAL` worker installs the `requirements` with pip directly on the host evaluating the trigger, " +
+            "a `DOCKER` worker needs the `docker` command line on that host."
+    )
+    @NotNull
+    @PluginProperty(group = "execution")
+    private ScanWorker warmWorker;
+
+    @Schema(
+        title = "Outcomes that trigger an execution",
+        description = "An execution is created when checks have one of these outcomes and did not all have it on the previous poll, so a check failing over several polls only triggers once."
+    )
+    @PluginProperty(group = "main")
+    private Property<List<CheckOutcome>> outcomes;
+
+    @Schema(
+        title = "Trigger an execution whenever the outcome of a check changes",
+        description = "The first poll only records the outcomes. A check that could not be evaluated has its own `error` outcome."
+    )
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<Boolean> onChange = Property.ofValue(false);
+
+    @Override
+    public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
+        RunContext runContext = conditionContext.getRunContext();
+
+        List<CheckOutcome> renderedOutcomes = runContext.render(this.outcomes).asList(CheckOutcome.class);
+        boolean renderedOnChange = runContext.render(this.onChange).as(Boolean.class).orElse(false);
+        if (renderedOutcomes.isEmpty() && !renderedOnChange) {
+            throw new IllegalArgumentException("At least one of `outcomes` or `onChange` must be set");
+        }
+
+        return this.evaluate(conditionContext, context, this.scan().run(runContext), renderedOutcomes, renderedOnChange);
+    }
+
+    /**
+     * Compares the outcomes of the checks of a poll with the ones of the previous poll, and records them
+     * for the next one.
+     */
+    Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context, Scan.Output scanOutput, List<CheckOutcome> renderedOutcomes, boolean renderedOnChange) throws Exception {
+        RunContext runContext = conditionContext.getRunContext();
+        List<Check> checks = scanOutput.getResult().getChecks();
+
+        Map<String, Check> current = new TreeMap<>();
+        checks.forEach(check -> current.put(CompareScans.key(check), check));
+        Map<String, String> currentOutcomes = current.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> outcome(entry.getValue().getOutcome()), (a, b) -> b, TreeMap::new));
+
+        KVStore kvStore = runContext.namespaceKv(conditionContext.getFlow().getNamespace());
+        String key = this.stateKey(conditionContext);
+        Map<String, String> previousOutcomes = this.previousOutcomes(runContext, kvStore, key);
+        kvStore.put(key, new KVValueAndMetadata(new KVMetadata("Check outcomes of the last poll of the Soda trigger", (Duration) null), currentOutcomes));
+
+        Set<String> names = renderedOutcomes.stream().map(CheckOutcome::name).collect(Collectors.toSet());
+        Set<String> matched = matching(currentOutcomes, names);
+        boolean newlyMatched = !matched.isEmpty() && !matched.equals(matching(previousOutcomes == null ? Map.of() : previousOutcomes, names));
+        boolean changed = renderedOnChange && previousOutcomes != null && !previousOutcomes.equals(currentOutcomes);
+
+        if (!newlyMatched && !changed) {
+            runContext.logger().debug("No check outcome triggers an execution");
+            return Optional.empty();
+        }
+
+        List<CheckChange> changes = previousOutcomes == null ? List.of() : current.entrySet().stream()
+            .filter(entry -> !Objects.equals(previousOutcomes.get(entry.getKey()), currentOutcomes.get(entry.getKey())))
+            .map(entry -> CheckChange.builder()
+                .identity(entry.getValue().getIdentity())
+                .name(entry.getValue().getName())
+                .dataSource(entry.getValue().getDataSource())
+                .table(entry.getValue().getTable())
+                .column(entry.getValue().getColumn())
+                .previousOutcome(checkOutcome(previousOutcomes.get(entry.getKey())))
+                .currentOutcome(entry.getValue().getOutcome())
+                .build()
+            )
+            .toList();
+
+        Output output = Output.builder()
+            .summary(scanOutput.getSummary())
+            .matchedChecks(matched.stream().map(current::get).toList())
+            .changedChecks(changes)
+            .build();
+
+        runContext.logger().info("{} checks reached the trigger outcomes and {} checks changed outcome, triggering an execution", matched.size(), changes.size());
+
+        return Optional.of(TriggerService.generateExecution(this, conditionContext, context, output));
+    }
+
+    /**
+     * @return the scan run at every poll, always in the warm worker
+     */
+    private Scan scan() {
+        return Scan.builder()
+            .id(this.getId())
+            .type(Scan.class.getName())
+            .configuration(this.configuration)
+            .checks(this.checks)
+            .variables(this.variables)
+            .requirements(this.requirements)
+            .containerImage(this.containerImage)
+            .env(this.env)
+            .warmWorker(this.warmWorker)
+            .metricMode(Property.ofValue(Scan.MetricMode.NONE))
+            .build();
+    }
+
+    private String stateKey(ConditionContext conditionContext) {
+        return "soda-trigger_" + conditionContext.getFlow().getId() + "_" + this.getId();
+    }
+
+    private Map<String, String> previousOutcomes(RunContext runContext, KVStore kvStore, String key) {
+        try {
+            Optional<KVValue> value = kvStore.getValue(key);
+            if (value.isPresent() && value.get().value() instanceof Map<?, ?> map) {
+                Map<String, String> outcomes = new LinkedHashMap<>();
+                map.forEach((identity, outcome) -> outcomes.put(identity.toString(), Objects.toString(outcome, ERROR)));
+                return outcomes;
+            }
+        } catch (Exception e) {
+            runContext.logger().warn("Unable to read the check outcomes of the previous poll, they are ignored", e);
+        }
+
+        return null;
+    }
+
+    private static Set<String> matching(Map<String, String> outcomes, Set<String> names) {
+        return outcomes.entrySet().stream()
+            .filter(entry -> names.contains(entry.getValue()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String outcome(CheckOutcome outcome) {
+        return outcome == null ? ERROR : outcome.name();
+    }
+
+    private static CheckOutcome checkOutcome(String outcome) {
+        return outcome == null || ERROR.equals(outcome) ? null : CheckOutcome.valueOf(outcome);
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "Summary of the scan of the poll"
+        )
+        private final ScanSummary summary;
+
+        @Schema(
+            title = "Checks having one of `outcomes`"
+        )
+        private final List<Check> matchedChecks;
+
+        @Schema(
+            title = "Checks whose outcome changed since the previous poll"
+        )
+        private final List<CheckChange> changedChecks;
+    }
+}
@@ -0,0 +1,85 @@
+package io.kestra.plugin.soda;
+
+import java.time.Duration;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder
+@Jacksonized
+public class ScanWorker {
+    @Schema(
+        title = "Where the worker process runs",
+        description = "`LOCAL` starts a Python interpreter on the worker host, in a virtualenv holding the `requirements`: they are installed with pip directly on the host running the Kestra worker, once per tenant, namespace and requirements. " +
+            "`DOCKER` starts a long-running container of `containerImage` (or of the derived image with the `IMAGE` install mode) through the worker's `docker` command line, the scripts and the files of each scan being copied in with `docker cp`. " +
+            "The `taskRunner` is not used in both cases, and worker processes are never shared across tenants and namespaces."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Type> type = Property.ofValue(Type.LOCAL);
+
+    @Schema(
+        title = "Python interpreter used by the `LOCAL` type"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<String> python = Property.ofValue("python3");
+
+    @Schema(
+        title = "Number of scans after which a worker process is recycled"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> maxScans = Property.ofValue(100);
+
+    @Schema(
+        title = "Peak resident memory, in bytes, after which a worker process is recycled"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Long> maxMemory = Property.ofValue(1024L * 1024 * 1024);
+
+    @Schema(
+        title = "How long an idle worker process is kept before being stopped"
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Duration> maxIdle = Property.ofValue(Duration.ofMinutes(10));
+
+    @Schema(
+        title = "How long a worker process is used before being recycled",
+        description = "Bounds the lifetime of long-running containers, so they pick up a re-pulled image or rotated credentials in the environment."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Duration> maxAge = Property.ofValue(Duration.ofHours(1));
+
+    @Schema(
+        title = "How long a worker process may take to serve a scan",
+        description = "A worker that didn't answer in time is stopped and the scan fails. With a `timeBudget`, the scan is also bounded by the budget plus one minute, " +
+            "which leaves the worker the time to report the checks it skipped."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Duration> scanTimeout = Property.ofValue(Duration.ofHours(1));
+
+    @Schema(
+        title = "Number of idle worker processes kept started ahead of the scans",
+        description = "After a worker is taken for a scan, new ones are started in the background until this many are idle, so the next scans don't wait for a container to start. " +
+            "Workers are pooled per image, requirements and environment."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Integer> minIdle = Property.ofValue(0);
+
+    public enum Type {
+        LOCAL,
+        DOCKER
+    }
+}
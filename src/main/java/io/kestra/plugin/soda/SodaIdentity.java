@@ -0,0 +1,191 @@
+package io.kestra.plugin.soda;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Identities of the checks and metrics computed the way Soda does ({@code Check.create_identity},
+ * {@code Identity.create_identity} and {@code ConsistentHashBuilder}), so that a check evaluated over
+ * JDBC joins the history, the incremental cache and the comparisons of the same check run by Soda.
+ */
+class SodaIdentity {
+    // configuration keys Soda leaves out of the identity of a check
+    private static final Set<String> IGNORED_CONFIGURATION = Set.of("name", "samples limit", "identity", "attributes", "template", "warn_only");
+    private static final Pattern PLAIN = Pattern.compile("[A-Za-z_(][^\\n#]*");
+    private static final Set<String> RESOLVED = Set.of("true", "false", "null", "~");
+    // line width of the YAML dump of ruamel, longer lines being folded
+    private static final int WIDTH = 80;
+
+    private static final long[] IV = {
+        0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+        0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+    };
+    private static final byte[][] SIGMA = {
+        {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+        {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3},
+        {11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4},
+        {7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8},
+        {9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13},
+        {2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9},
+        {12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11},
+        {13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10},
+        {6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5},
+        {10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0}
+    };
+
+    private SodaIdentity() {
+    }
+
+    /**
+     * @param header the section of the check, such as {@code checks for orders}
+     * @param line the SodaCL line of the check
+     * @param configuration the configuration of the check, or null
+     * @param checksFile the file name the scan process loads the checks from
+     */
+    static String check(String header, String line, Map<?, ?> configuration, String dataSource, String checksFile) {
+        return hash(Arrays.asList(header, line, yaml(configuration), dataSource, checksFile));
+    }
+
+    /**
+     * @param column the column of the metric, or null
+     * @param identityParts the values hashed into the identity, such as a fail condition, or null
+     */
+    static String metric(String dataSource, String table, String column, String name, List<String> identityParts) {
+        List<String> parts = new ArrayList<>(List.of("metric", dataSource, table));
+        if (column != null) {
+            parts.add(column);
+        }
+        parts.add(name);
+
+        String hash = identityParts == null ? null : hash(identityParts);
+        if (hash != null) {
+            parts.add(hash);
+        }
+
+        return String.join("-", parts);
+    }
+
+    /**
+     * @return whether the configuration value is dumped by Soda as is, on a single line, so that the identity
+     * computed here matches its own
+     */
+    static boolean plain(String key, Object value) {
+        return value instanceof String text
+            && PLAIN.matcher(text).matches()
+            && !text.contains(": ")
+            && !text.endsWith(":")
+            && text.equals(text.trim())
+            && !RESOLVED.contains(text.toLowerCase())
+            && key.length() + 2 + text.length() <= WIDTH;
+    }
+
+    /**
+     * @return the YAML dump of the configuration hashed into the identity of a check, null when there is none
+     */
+    private static String yaml(Map<?, ?> configuration) {
+        if (configuration == null) {
+            return null;
+        }
+
+        StringBuilder yaml = new StringBuilder();
+        configuration.forEach((key, value) -> {
+            if (!IGNORED_CONFIGURATION.contains(key.toString())) {
+                yaml.append(key).append(": ").append(value).append("\n");
+            }
+        });
+
+        return yaml.isEmpty() ? null : yaml.toString();
+    }
+
+    /**
+     * @return the BLAKE2b hash on 4 bytes of the non null parts, or null when all of them are null
+     */
+    static String hash(List<String> parts) {
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        boolean empty = true;
+        for (String part : parts) {
+            if (part != null) {
+                input.writeBytes(part.getBytes(StandardCharsets.UTF_8));
+                empty = false;
+            }
+        }
+
+        return empty ? null : HexFormat.of().formatHex(blake2b(input.toByteArray(), 4));
+    }
+
+    /**
+     * BLAKE2b without key, as specified by RFC 7693.
+     */
+    static byte[] blake2b(byte[] input, int digestSize) {
+        long[] h = IV.clone();
+        h[0] ^= 0x01010000L ^ digestSize;
+
+        int blocks = Math.max(1, (input.length + 127) / 128);
+        for (int i = 0; i < blocks; i++) {
+            byte[] block = new byte[128];
+            int offset = i * 128;
+            System.arraycopy(input, offset, block, 0, Math.max(0, Math.min(128, input.length - offset)));
+
+            boolean last = i == blocks - 1;
+            compress(h, block, last ? input.length : (long) (i + 1) * 128, last);
+        }
+
+        byte[] digest = new byte[digestSize];
+        for (int i = 0; i < digestSize; i++) {
+            digest[i] = (byte) (h[i / 8] >>> (8 * (i % 8)));
+        }
+
+        return digest;
+    }
+
+    private static void compress(long[] h, byte[] block, long counter, boolean last) {
+        long[] m = new long[16];
+        for (int i = 0; i < 16; i++) {
+            for (int j = 7; j >= 0; j--) {
+                m[i] = (m[i] << 8) | (block[i * 8 + j] & 0xff);
+            }
+        }
+
+        long[] v = new long[16];
+        System.arraycopy(h, 0, v, 0, 8);
+        System.arraycopy(IV, 0, v, 8, 8);
+        v[12] ^= counter;
+        if (last) {
+            v[14] = ~v[14];
+        }
+
+        for (int round = 0; round < 12; round++) {
+            byte[] s = SIGMA[round % 10];
+            mix(v, 0, 4, 8, 12, m[s[0]], m[s[1]]);
+            mix(v, 1, 5, 9, 13, m[s[2]], m[s[3]]);
+            mix(v, 2, 6, 10, 14, m[s[4]], m[s[5]]);
+            mix(v, 3, 7, 11, 15, m[s[6]], m[s[7]]);
+            mix(v, 0, 5, 10, 15, m[s[8]], m[s[9]]);
+            mix(v, 1, 6, 11, 12, m[s[10]], m[s[11]]);
+            mix(v, 2, 7, 8, 13, m[s[12]], m[s[13]]);
+            mix(v, 3, 4, 9, 14, m[s[14]], m[s[15]]);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            h[i] ^= v[i] ^ v[i + 8];
+        }
+    }
+
+    private static void mix(long[] v, int a, int b, int c, int d, long x, long y) {
+        v[a] = v[a] + v[b] + x;
+        v[d] = Long.rotateRight(v[d] ^ v[a], 32);
+        v[c] = v[c] + v[d];
+        v[b] = Long.rotateRight(v[b] ^ v[c], 24);
+        v[a] = v[a] + v[b] + y;
+        v[d] = Long.rotateRight(v[d] ^ v[a], 16);
+        v[c] = v[c] + v[d];
+        v[b] = Long.rotateRight(v[b] ^ v[c], 63);
+    }
+}
@@ -0,0 +1,55 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
+
+import lombok.Getter;
+
+/**
+ * A scan process whose input files are written and whose commands are ready to be run, holding the
+ * requirements cache session until the process completes.
+ */
+class SodaProcess implements AutoCloseable {
+    private final RunContext runContext;
+    private final WheelhouseCache cache;
+
+    @Getter
+    private final CommandsWrapper commandsWrapper;
+
+    /**
+     * The path, relative to the working directory, of the directory holding the files of this process.
+     */
+    @Getter
+    private final String prefix;
+
+    SodaProcess(RunContext runContext, WheelhouseCache cache, CommandsWrapper commandsWrapper, String prefix) {
+        this.runContext = runContext;
+        this.cache = cache;
+        this.commandsWrapper = commandsWrapper;
+        this.prefix = prefix;
+    }
+
+    ScriptOutput run() throws Exception {
+        ScriptOutput output = commandsWrapper.run();
+
+        try {
+            cache.store(output);
+        } catch (IOException e) {
+            runContext.logger().warn("Unable to store the requirements wheelhouse in the cache", e);
+        }
+
+        return output;
+    }
+
+    String file(String name) {
+        return prefix + name;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.close();
+    }
+}
@@ -0,0 +1,638 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * A long-running Python process serving scan requests, so the interpreter start-up, the Soda imports
+ * and the requirements installation are paid once for many scans.
+ * <p>
+ * Requests are written to the process as JSON lines on stdin. The process writes its responses on
+ * stdout prefixed by {@link #RESPONSE}; any other line is a log of the scan being served. Idle workers
+ * are pooled per launch key, health-checked before being reused, and recycled after a number of scans,
+ * a peak memory, an age, or an idle duration. A minimum of idle workers can be kept started ahead of
+ * the scans, so that they never wait for a container to start.
+ * <p>
+ * A container worker is given its scripts and the files of each scan with {@code docker cp} rather than
+ * a bind mount: the daemon running it usually doesn't see the file system of the Kestra worker.
+ */
+class WarmWorker implements AutoCloseable {
+    static final String RESPONSE = "::kestra-soda-worker::";
+
+    private static final ObjectMapper MAPPER = JacksonMapper.ofJson(false);
+    private static final Map<String, Deque<WarmWorker>> IDLE = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Void>> INSTALLS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> STARTING = new ConcurrentHashMap<>();
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(15);
+    private static final Duration PING_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration INSTALL_TIMEOUT = Duration.ofMinutes(15);
+    private static final Duration DOCKER_TIMEOUT = Duration.ofMinutes(5);
+    private static final String CONTAINER_DIRECTORY = "/kestra-soda-worker";
+    private static final String SCANS_DIRECTORY = "scans";
+
+    private final String key;
+    private final Process process;
+    private final List<String> docker;
+    private final String container;
+    private final Instant started = Instant.now();
+    private final BufferedWriter stdin;
+    private final BlockingQueue<JsonNode> responses = new LinkedBlockingQueue<>();
+    private final BiConsumer<String, Boolean> noLogs = (line, isStdErr) -> { };
+
+    private volatile BiConsumer<String, Boolean> logs = noLogs;
+    private volatile Instant lastUsed = Instant.now();
+    private volatile Limits limits;
+    private int scans;
+    private long maxRss;
+
+    private WarmWorker(String key, Process process, List<String> docker, String container) {
+        this.key = key;
+        this.process = process;
+        this.docker = docker;
+        this.container = container;
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        daemon("kestra-soda-worker-stdout", () -> this.read(process.getInputStream(), false));
+        daemon("kestra-soda-worker-stderr", () -> this.read(process.getErrorStream(), true));
+    }
+
+    /**
+     * How to start a worker; workers started from equal launches are interchangeable.
+     *
+     * @param command the command of a process of the worker host, or the arguments of
+     * {@code docker create} for a container
+     * @param directory the directory holding the scripts of the worker
+     * @param docker the command line of docker, null for a process of the worker host
+     */
+    record Launch(String key, List<String> command, Path directory, List<String> docker) {
+    }
+
+    /**
+     * The directory of one scan, as seen by the worker process ({@code workerPath}).
+     *
+     * @param worker the container worker the files written by the scan are copied back from, null when
+     * the scan runs in the working directory
+     */
+    record Workspace(String workerPath, Path workingDirectory, WarmWorker worker) implements AutoCloseable {
+        /**
+         * Copies the files written by the scan back to the working directory and deletes the workspace.
+         * The files already in the working directory are kept, as the scan only writes new ones.
+         */
+        @Override
+        public void close() throws IOException, InterruptedException {
+            if (worker == null) {
+                return;
+            }
+
+            Path staging = Files.createTempDirectory("kestra-soda-worker");
+            try {
+                worker.docker("cp", worker.container + ":" + workerPath + "/.", staging.toString());
+                copy(staging, workingDirectory, false);
+            } finally {
+                delete(staging);
+                worker.docker("exec", worker.container, "rm", "-rf", workerPath);
+            }
+        }
+    }
+
+    private static void copy(Path source, Path target, boolean replace) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else if (replace) {
+                    Files.createDirectories(copy.getParent());
+                    Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+                } else if (!Files.exists(copy)) {
+                    Files.createDirectories(copy.getParent());
+                    Files.copy(path, copy);
+                }
+            }
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * The requirements are installed with pip on the worker host itself, in a virtualenv of the
+     * launch directory, outside of any task runner.
+     *
+     * @param scope the tenant and namespace of the flow, workers are never shared across them
+     */
+    static Launch local(String scope, String python, List<String> requirements, Map<String, String> env, Logger logger) throws IOException, InterruptedException {
+        String key = launchKey(scope, "local:" + python, requirements, env);
+        Path directory = directory(key);
+
+        if (requirements == null || requirements.isEmpty()) {
+            return new Launch(key, List.of(python, "-u", PythonScripts.WORKER), directory, null);
+        }
+
+        install(key, directory, python, requirements, logger);
+
+        return new Launch(key, List.of("venv/bin/python", "-u", PythonScripts.WORKER), directory, null);
+    }
+
+    /**
+     * Installs the requirements once per launch. Scans needing the same installation wait for it
+     * without holding any lock, and for {@link #INSTALL_TIMEOUT} at most; a failed installation is
+     * retried by the next scan.
+     */
+    private static void install(String key, Path directory, String python, List<String> requirements, Logger logger) throws IOException, InterruptedException {
+        Path installed = directory.resolve("venv/.installed");
+        if (Files.exists(installed)) {
+            return;
+        }
+
+        CompletableFuture<Void> install = new CompletableFuture<>();
+        CompletableFuture<Void> running = INSTALLS.putIfAbsent(key, install);
+        if (running != null) {
+            try {
+                running.get(INSTALL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            } catch (ExecutionException e) {
+                throw new IOException("Unable to install the requirements of the Soda worker", e.getCause());
+            } catch (TimeoutException e) {
+                throw new IOException("The requirements of the Soda worker were not installed within " + INSTALL_TIMEOUT);
+            }
+        }
+
+        try {
+            if (!Files.exists(installed)) {
+                logger.info("Installing the requirements of the Soda worker in '{}'", directory);
+                // a virtualenv left by an installation that failed is cleared
+                exec(directory, List.of(python, "-m", "venv", "--clear", "--system-site-packages", "venv"), Map.of(), INSTALL_TIMEOUT);
+                exec(directory, List.of("venv/bin/pip", "install", "pip", "--upgrade"), Map.of(), INSTALL_TIMEOUT);
+
+                List<String> command = new ArrayList<>(List.of("venv/bin/pip", "install"));
+                command.addAll(requirements);
+                exec(directory, command, Map.of(), INSTALL_TIMEOUT);
+
+                Files.createFile(installed);
+            }
+
+            install.complete(null);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            install.completeExceptionally(e);
+            throw e;
+        } finally {
+            INSTALLS.remove(key, install);
+        }
+    }
+
+    /**
+     * The values of {@code env} are not part of the command line, where any user of the host could read
+     * them: only their names are, the command line of docker passing on the values it gets from the
+     * environment of the process starting it.
+     *
+     * @param scope the tenant and namespace of the flow, workers are never shared across them
+     * @param requirements the requirements to install when the container starts, null when the image
+     * already holds them
+     */
+    static Launch docker(String scope, String image, List<String> requirements, Map<String, String> env) throws IOException {
+        String key = launchKey(scope, "docker:" + image, requirements, env);
+        Path directory = directory(key);
+        Files.createDirectories(directory.resolve(SCANS_DIRECTORY));
+
+        List<String> command = new ArrayList<>(List.of(
+            "--interactive",
+            "--entrypoint", "/bin/sh",
+            "--workdir", CONTAINER_DIRECTORY,
+            "--env", "PYTHONUNBUFFERED=true",
+            "--env", "PIP_ROOT_USER_ACTION=ignore"
+        ));
+        env.keySet().forEach(name -> {
+            command.add("--env");
+            command.add(name);
+        });
+        command.add(image);
+        command.add("-c");
+
+        String start = "exec python -u " + PythonScripts.WORKER;
+        if (requirements != null && !requirements.isEmpty()) {
+            start = "pip install " + requirements.stream().map(AbstractSoda::shellQuote).collect(Collectors.joining(" ")) + " 1>&2 && " + start;
+        }
+        command.add(start);
+
+        return new Launch(key, command, directory, List.of("docker"));
+    }
+
+    private static String launchKey(String scope, String launcher, List<String> requirements, Map<String, String> env) {
+        List<String> parts = new ArrayList<>(requirements == null ? List.of() : requirements);
+        new TreeMap<>(env).forEach((name, value) -> parts.add(name + "=" + value));
+
+        return WheelhouseCache.key(scope + ":" + launcher, parts);
+    }
+
+    private static Path directory(String key) throws IOException {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"), "kestra-soda-worker", key);
+        Files.createDirectories(directory);
+
+        for (String script : List.of(PythonScripts.MODULE, PythonScripts.SAMPLING, PythonScripts.WORKER)) {
+            Path temp = Files.createTempFile(directory, script, ".tmp");
+            Files.writeString(temp, PythonScripts.load(script));
+            Files.move(temp, directory.resolve(script), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        return directory;
+    }
+
+    /**
+     * Runs a command to completion, its output being kept in a file so that a command writing a lot
+     * never blocks on a full pipe.
+     */
+    private static void exec(Path directory, List<String> command, Map<String, String> env, Duration timeout) throws IOException, InterruptedException {
+        Path output = Files.createTempFile("kestra-soda-worker", ".log");
+
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile());
+            processBuilder.environment().putAll(env);
+
+            Process process = processBuilder.start();
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("'" + String.join(" ", command) + "' didn't complete within " + timeout);
+            }
+
+            if (process.exitValue() != 0) {
+                throw new IOException("'" + String.join(" ", command) + "' failed: " + Files.readString(output));
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private void docker(String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(docker);
+        command.addAll(List.of(arguments));
+
+        exec(Path.of(System.getProperty("java.io.tmpdir")), command, Map.of(), DOCKER_TIMEOUT);
+    }
+
+    /**
+     * Limits of the pooled workers, each idle worker being bounded by the limits of the task that
+     * released it.
+     *
+     * @param minIdle the number of idle workers kept started ahead of the scans
+     */
+    record Limits(int maxScans, long maxMemory, Duration maxIdle, Duration maxAge, int minIdle) {
+    }
+
+    /**
+     * Takes an idle worker for this launch, or starts a new one, then tops up the idle workers of the
+     * launch to {@code minIdle} in the background. Idle workers that are not alive anymore, don't answer
+     * a ping, stayed idle longer than their {@code maxIdle}, or are older than their {@code maxAge} are
+     * stopped on the way, in every pool.
+     *
+     * @param env the environment of the worker process, or of the {@code docker create} command
+     * passing it on to the container
+     */
+    static WarmWorker acquire(Launch launch, Map<String, String> env, Limits limits, Logger logger) throws IOException, InterruptedException {
+        evictIdle();
+
+        Deque<WarmWorker> idle = IDLE.computeIfAbsent(launch.key(), k -> new ConcurrentLinkedDeque<>());
+        WarmWorker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            if (worker.ping()) {
+                logger.debug("Reusing Soda worker '{}' after {} scans", launch.key(), worker.scans);
+                prestart(launch, env, limits, logger);
+                return worker;
+            }
+
+            worker.close();
+        }
+
+        logger.info("Starting a Soda worker for '{}'", launch.key());
+        worker = start(launch, env);
+        prestart(launch, env, limits, logger);
+
+        return worker;
+    }
+
+    /**
+     * A container is created with the environment, given its scripts, then started attached to the
+     * worker; it is removed once the worker is closed.
+     */
+    private static WarmWorker start(Launch launch, Map<String, String> env) throws IOException, InterruptedException {
+        WarmWorker worker;
+
+        if (launch.docker() == null) {
+            ProcessBuilder processBuilder = new ProcessBuilder(launch.command())
+                .directory(launch.directory().toFile());
+            processBuilder.environment().putAll(env);
+            processBuilder.environment().put("PYTHONUNBUFFERED", "true");
+
+            worker = new WarmWorker(launch.key(), processBuilder.start(), null, null);
+        } else {
+            String container = "kestra-soda-worker-" + UUID.randomUUID();
+
+            List<String> create = new ArrayList<>(launch.docker());
+            create.addAll(List.of("create", "--name", container));
+            create.addAll(launch.command());
+            exec(launch.directory(), create, env, DOCKER_TIMEOUT);
+
+            List<String> attach = new ArrayList<>(launch.docker());
+            attach.addAll(List.of("start", "--attach", "--interactive", container));
+
+            try {
+                List<String> copy = new ArrayList<>(launch.docker());
+                copy.addAll(List.of("cp", launch.directory() + "/.", container + ":" + CONTAINER_DIRECTORY));
+                exec(launch.directory(), copy, Map.of(), DOCKER_TIMEOUT);
+
+                worker = new WarmWorker(launch.key(), new ProcessBuilder(attach).start(), launch.docker(), container);
+            } catch (IOException | InterruptedException e) {
+                List<String> remove = new ArrayList<>(launch.docker());
+                remove.addAll(List.of("rm", "--force", container));
+                try {
+                    exec(launch.directory(), remove, Map.of(), DOCKER_TIMEOUT);
+                } catch (IOException removal) {
+                    e.addSuppressed(removal);
+                }
+                throw e;
+            }
+        }
+
+        try {
+            worker.await(null, READY_TIMEOUT);
+        } catch (IOException | InterruptedException e) {
+            worker.close();
+            throw e;
+        }
+
+        return worker;
+    }
+
+    /**
+     * Starts the workers missing for the launch to have {@code minIdle} idle workers, each in a daemon
+     * thread adding it to the pool once ready.
+     */
+    private static void prestart(Launch launch, Map<String, String> env, Limits limits, Logger logger) {
+        Deque<WarmWorker> idle = IDLE.computeIfAbsent(launch.key(), k -> new ConcurrentLinkedDeque<>());
+        AtomicInteger starting = STARTING.computeIfAbsent(launch.key(), k -> new AtomicInteger());
+
+        while (true) {
+            int current = starting.get();
+            if (idle.size() + current >= limits.minIdle()) {
+                return;
+            }
+
+            if (starting.compareAndSet(current, current + 1)) {
+                daemon("kestra-soda-worker-prestart", () -> {
+                    try {
+                        start(launch, env).release(limits);
+                    } catch (IOException e) {
+                        logger.warn("Unable to pre-start a Soda worker for '{}'", launch.key(), e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        starting.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @return the number of idle workers of a launch
+     */
+    static int idle(String key) {
+        Deque<WarmWorker> idle = IDLE.get(key);
+        return idle == null ? 0 : idle.size();
+    }
+
+    private static void evictIdle() {
+        Instant now = Instant.now();
+
+        IDLE.values().forEach(idle -> idle.removeIf(worker -> {
+            Limits limits = worker.limits;
+            if (worker.lastUsed.isBefore(now.minus(limits.maxIdle())) || worker.expired(limits, now) || !worker.process.isAlive()) {
+                worker.close();
+                return true;
+            }
+
+            return false;
+        }));
+    }
+
+    /**
+     * @param inputs the files and directories read by the scan, relative to the working directory
+     * @return the directory the scan reads its input files from and writes its output files to: the
+     * working directory itself for a local process, or a fresh directory of the container holding a
+     * copy of the {@code inputs} only, as the working directory may hold the files of many scans
+     */
+    Workspace workspace(Path workingDirectory, Collection<String> inputs) throws IOException, InterruptedException {
+        if (container == null) {
+            return new Workspace(workingDirectory.toString(), workingDirectory, null);
+        }
+
+        String workerPath = CONTAINER_DIRECTORY + "/" + SCANS_DIRECTORY + "/" + UUID.randomUUID();
+        Path staging = Files.createTempDirectory("kestra-soda-worker");
+        try {
+            for (String input : inputs) {
+                Path source = workingDirectory.resolve(input);
+                if (Files.exists(source)) {
+                    copy(source, staging.resolve(input), true);
+                }
+            }
+
+            this.docker("cp", staging + "/.", container + ":" + workerPath);
+        } finally {
+            delete(staging);
+        }
+
+        return new Workspace(workerPath, workingDirectory, this);
+    }
+
+    /**
+     * Serves one scan request, forwarding the scan logs to {@code logs} while it runs. A worker that
+     * didn't answer within {@code timeout} may still be running the scan and must be closed.
+     */
+    JsonNode scan(Map<String, Object> request, Duration timeout, BiConsumer<String, Boolean> logs) throws IOException, InterruptedException {
+        this.logs = logs;
+
+        try {
+            JsonNode response = this.send(request, timeout);
+            scans++;
+
+            if (response.hasNonNull("error")) {
+                throw new IOException("The Soda worker failed to run the scan:\n" + response.get("error").asText());
+            }
+
+            return response;
+        } finally {
+            this.logs = noLogs;
+        }
+    }
+
+    /**
+     * Puts the worker back in the pool, unless it must be recycled.
+     */
+    void release(Limits limits) {
+        this.lastUsed = Instant.now();
+        this.limits = limits;
+
+        if (!process.isAlive() || scans >= limits.maxScans() || maxRss >= limits.maxMemory() || this.expired(limits, lastUsed)) {
+            this.close();
+            return;
+        }
+
+        IDLE.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>()).offerFirst(this);
+    }
+
+    private boolean expired(Limits limits, Instant now) {
+        return limits.maxAge() != null && started.plus(limits.maxAge()).isBefore(now);
+    }
+
+    private boolean ping() {
+        if (!process.isAlive()) {
+            return false;
+        }
+
+        try {
+            Map<String, Object> request = new HashMap<>();
+            request.put("type", "ping");
+
+            return this.send(request, PING_TIMEOUT).path("pong").asBoolean(false);
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private JsonNode send(Map<String, Object> request, Duration timeout) throws IOException, InterruptedException {
+        String id = UUID.randomUUID().toString();
+        Map<String, Object> message = new HashMap<>(request);
+        message.put("id", id);
+
+        synchronized (stdin) {
+            stdin.write(MAPPER.writeValueAsString(message));
+            stdin.newLine();
+            stdin.flush();
+        }
+
+        return this.await(id, timeout);
+    }
+
+    private JsonNode await(String id, Duration timeout) throws IOException, InterruptedException {
+        Instant deadline = timeout == null ? null : Instant.now().plus(timeout);
+
+        while (true) {
+            JsonNode response = responses.poll(1, TimeUnit.SECONDS);
+
+            if (response != null) {
+                maxRss = Math.max(maxRss, response.path("maxRss").asLong(0));
+
+                if (id == null ? response.path("ready").asBoolean(false) : id.equals(response.path("id").asText(null))) {
+                    return response;
+                }
+
+                // a late answer to a request that timed out
+                continue;
+            }
+
+            if (!process.isAlive()) {
+                throw new IOException("The Soda worker exited with code " + process.exitValue());
+            }
+
+            if (deadline != null && Instant.now().isAfter(deadline)) {
+                throw new IOException("The Soda worker didn't answer within " + timeout);
+            }
+        }
+    }
+
+    private void read(InputStream inputStream, boolean isStdErr) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!isStdErr && line.startsWith(RESPONSE)) {
+                    responses.add(MAPPER.readTree(line.substring(RESPONSE.length())));
+                } else {
+                    logs.accept(line, isStdErr);
+                }
+            }
+        } catch (IOException e) {
+            // the process is gone, the pending request fails on the liveness check
+        }
+    }
+
+    private static void daemon(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        try {
+            stdin.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+
+        if (container != null) {
+            try {
+                // stopping the attached command line doesn't stop a container still running a scan
+                this.docker("rm", "--force", container);
+            } catch (IOException e) {
+                // the container is already gone
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package io.kestra.plugin.soda;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+
+import lombok.Getter;
+
+/**
+ * Content-addressed cache of the wheels resolved for the {@code requirements} of a task.
+ * <p>
+ * A session is opened for each execution and ends in one of three modes: {@link Mode#RESTORE} when
+ * an archive was found and copied into the working directory, {@link Mode#BUILD} when this
+ * execution owns the lock for the key and must produce the archive, and {@link Mode#BYPASS} when
+ * there is nothing to do (no cache, or another execution is already building the same key).
+ * <p>
+ * Executions of the same worker are deduplicated in memory, and the ones of other workers by a file
+ * lock next to the {@code LOCAL} archives or a marker stored next to the {@code STORAGE} ones. Checking
+ * and writing the marker isn't atomic, so two workers starting the same build at the same time may
+ * still both build it, the last upload winning.
+ */
+class WheelhouseCache implements AutoCloseable {
+    static final String ARCHIVE = "wheelhouse.zip";
+    static final String DIRECTORY = ".wheelhouse";
+    static final String MARKER = ".python";
+
+    static final String CACHE_ID = "soda-wheelhouse";
+    static final String BUILDING_MARKER = ".building";
+
+    // a build marker older than this was left by a worker that died while building
+    private static final Duration BUILDING_MARKER_TTL = Duration.ofHours(1);
+    private static final Set<String> BUILDING = ConcurrentHashMap.newKeySet();
+
+    private final RunContext runContext;
+    private final RequirementsCache.Type type;
+    private final Path localDirectory;
+    private final long maxSize;
+    private final Duration ttl;
+
+    @Getter
+    private final String key;
+
+    private final Path archive;
+    private final String outputFile;
+
+    @Getter
+    private Mode mode = Mode.BYPASS;
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    private WheelhouseCache(RunContext runContext, RequirementsCache.Type type, Path localDirectory, long maxSize, Duration ttl, String key, Path workingDirectory, String prefix) {
+        this.runContext = runContext;
+        this.type = type;
+        this.localDirectory = localDirectory;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.key = key;
+        this.archive = workingDirectory != null ? workingDirectory.resolve(prefix + ARCHIVE) : null;
+        this.outputFile = prefix + ARCHIVE;
+    }
+
+    static WheelhouseCache disabled() {
+        return new WheelhouseCache(null, null, null, 0, null, null, null, "");
+    }
+
+    /**
+     * @param prefix the path, relative to the working directory, of the directory holding the virtualenv
+     */
+    static WheelhouseCache open(RunContext runContext, RequirementsCache options, String image, List<String> requirements, Path workingDirectory, String prefix) throws IllegalVariableEvaluationException, IOException {
+        if (options == null || requirements == null || requirements.isEmpty()) {
+            return disabled();
+        }
+
+        RequirementsCache.Type type = runContext.render(options.getType()).as(RequirementsCache.Type.class).orElse(RequirementsCache.Type.LOCAL);
+        Path localDirectory = type == RequirementsCache.Type.LOCAL ?
+            Path.of(runContext.render(options.getPath()).as(String.class).orElse(System.getProperty("java.io.tmpdir") + "/kestra-soda-wheelhouse")) :
+            null;
+
+        WheelhouseCache cache = new WheelhouseCache(
+            runContext,
+            type,
+            localDirectory,
+            runContext.render(options.getMaxSize()).as(Long.class).orElse(Long.MAX_VALUE),
+            runContext.render(options.getTtl()).as(Duration.class).orElse(null),
+            key(image, requirements),
+            workingDirectory,
+            prefix
+        );
+
+        cache.resolve();
+
+        return cache;
+    }
+
+    /**
+     * The key only covers what is known before the container starts; the Python version and platform
+     * are written into the archive by the build and compared by the install command on restore.
+     */
+    static String key(String image, List<String> requirements) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((image == null ? "" : image).getBytes(StandardCharsets.UTF_8));
+            for (String requirement : requirements) {
+                digest.update((byte) '\n');
+                digest.update(requirement.getBytes(StandardCharsets.UTF_8));
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void resolve() throws IOException {
+        if (this.restore(archive)) {
+            this.mode = Mode.RESTORE;
+            runContext.logger().debug("Restored requirements wheelhouse '{}' from the {} cache", key, type);
+            return;
+        }
+
+        if (this.acquire()) {
+            this.mode = Mode.BUILD;
+            runContext.logger().debug("Requirements wheelhouse '{}' not found in the {} cache, it will be built", key, type);
+        } else {
+            runContext.logger().debug("Requirements wheelhouse '{}' is being built by another execution, installing without cache", key);
+        }
+    }
+
+    private boolean restore(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+
+        if (type == RequirementsCache.Type.STORAGE) {
+            Optional<InputStream> cached = runContext.storage().getCacheFile(CACHE_ID, key, ttl);
+            if (cached.isEmpty()) {
+                return false;
+            }
+
+            try (InputStream inputStream = cached.get()) {
+                Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            return true;
+        }
+
+        Path cached = this.localArchive();
+        if (!Files.isRegularFile(cached) || this.expired(cached)) {
+            return false;
+        }
+
+        try {
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // evicted by a concurrent execution between the check and the copy
+            runContext.logger().debug("Unable to restore requirements wheelhouse '{}'", key, e);
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean acquire() throws IOException {
+        if (!BUILDING.add(key)) {
+            return false;
+        }
+
+        if (type == RequirementsCache.Type.LOCAL) {
+            Files.createDirectories(localDirectory);
+            lockChannel = FileChannel.open(localDirectory.resolve(key + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = lockChannel.tryLock();
+
+            if (lock == null) {
+                lockChannel.close();
+                lockChannel = null;
+                BUILDING.remove(key);
+                return false;
+            }
+        } else {
+            try {
+                if (!this.markBuilding()) {
+                    BUILDING.remove(key);
+                    return false;
+                }
+            } catch (IOException e) {
+                BUILDING.remove(key);
+                throw e;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return whether the build marker of the key was stored, {@code false} when another worker already stored it
+     */
+    private boolean markBuilding() throws IOException {
+        Optional<InputStream> marker = runContext.storage().getCacheFile(CACHE_ID, key + BUILDING_MARKER, BUILDING_MARKER_TTL);
+        if (marker.isPresent()) {
+            marker.get().close();
+            return false;
+        }
+
+        Path temp = runContext.workingDir().createTempFile(BUILDING_MARKER);
+        Files.writeString(temp, Instant.now().toString());
+        runContext.storage().putCacheFile(temp.toFile(), CACHE_ID, key + BUILDING_MARKER);
+
+        return true;
+    }
+
+    /**
+     * Saves the archive produced by a {@link Mode#BUILD} session. The archive is read from the local
+     * working directory when the task runner shares it with the worker, and from the uploaded output
+     * files otherwise.
+     */
+    void store(ScriptOutput output) throws IOException {
+        if (this.mode != Mode.BUILD) {
+            return;
+        }
+
+        Path archive = this.archive;
+        if (!Files.isRegularFile(archive)) {
+            if (output.getOutputFiles() == null || !output.getOutputFiles().containsKey(outputFile)) {
+                runContext.logger().debug("No requirements wheelhouse was produced, nothing to cache");
+                return;
+            }
+
+            archive = runContext.workingDir().createTempFile(".zip");
+            try (InputStream inputStream = runContext.storage().getFile(output.getOutputFiles().get(outputFile))) {
+                Files.copy(inputStream, archive, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        if (type == RequirementsCache.Type.STORAGE) {
+            runContext.storage().putCacheFile(archive.toFile(), CACHE_ID, key);
+        } else {
+            Path temp = localDirectory.resolve(key + ".zip.tmp");
+            Files.copy(archive, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, this.localArchive(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.evict();
+        }
+
+        runContext.logger().debug("Stored requirements wheelhouse '{}' in the {} cache", key, type);
+    }
+
+    /**
+     * Drops expired archives, then the least recently used ones until the directory fits in {@code maxSize}.
+     */
+    private void evict() throws IOException {
+        List<File> archives;
+        try (Stream<Path> files = Files.list(localDirectory)) {
+            archives = files
+                .filter(path -> path.getFileName().toString().endsWith(".zip"))
+                .map(Path::toFile)
+                .sorted(Comparator.comparingLong(File::lastModified))
+                .toList();
+        }
+
+        long total = archives.stream().mapToLong(File::length).sum();
+        for (File file : archives) {
+            if (!this.expired(file.toPath()) && total <= maxSize) {
+                break;
+            }
+
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    private boolean expired(Path archive) throws IOException {
+        return ttl != null && Files.getLastModifiedTime(archive).toInstant().plus(ttl).isBefore(Instant.now());
+    }
+
+    private Path localArchive() {
+        return localDirectory.resolve(key + ".zip");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (lock != null) {
+            lock.release();
+            lock = null;
+        }
+
+        if (lockChannel != null) {
+            lockChannel.close();
+            lockChannel = null;
+        }
+
+        if (key != null && this.mode == Mode.BUILD) {
+            try {
+                if (type == RequirementsCache.Type.STORAGE) {
+                    runContext.storage().deleteCacheFile(CACHE_ID, key + BUILDING_MARKER);
+                }
+            } finally {
+                BUILDING.remove(key);
+            }
+        }
+    }
+
+    enum Mode {
+        RESTORE,
+        BUILD,
+        BYPASS
+    }
+}
@@ -1,14 +1,18 @@
 package io.kestra.plugin.soda.models;
 
+import java.net.URI;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Value;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.jackson.Jacksonized;
 
 @Value
 @Jacksonized
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 public class Check {
     String identity;
     String name;
@@ -20,5 +24,34 @@ public class Check {
     String column;
     List<String> metrics;
     CheckOutcome outcome;
+
+    @Schema(title = "Whether the outcome was reused from a previous scan of the unchanged table")
+    Boolean cached;
+
+    @Schema(title = "Whether the check has no outcome because one of its queries timed out or was skipped once the time budget of the scan was exhausted")
+    Boolean timedOut;
+
+    @Schema(title = "Fraction of the rows of the table read by the check, when it ran on a percentage sample")
+    Double samplingRatio;
+
+    @Schema(title = "Number of rows of the table read by the check, when it ran on a row limit sample")
+    Integer sampleLimit;
+
+    @Schema(title = "Whether the check ran again on the full table after warning or failing on a sample")
+    Boolean escalated;
+
+    @Schema(title = "URI of the ION file holding the failed rows sample of the check", description = "Only set when `failedRowsLimit` is set and the check has failed rows.")
+    URI failedRowsUri;
+
+    @Schema(title = "Number of rows of the failed rows sample")
+    Long failedRowsCount;
+
+    /**
+     * The file of the failed rows sample written by the scan process, replaced by {@link #failedRowsUri}
+     * once uploaded.
+     */
+    @Schema(hidden = true)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    String failedRowsFile;
     // String diagnostics;
 }
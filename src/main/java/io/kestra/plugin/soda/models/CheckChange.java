@@ -0,0 +1,23 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class CheckChange {
+    String identity;
+    String name;
+    String dataSource;
+    String table;
+    String column;
+
+    @Schema(title = "Outcome of the check in the previous scan", description = "Null when the check could not be evaluated or did not exist.")
+    CheckOutcome previousOutcome;
+
+    @Schema(title = "Outcome of the check in the current scan", description = "Null when the check could not be evaluated or no longer exists.")
+    CheckOutcome currentOutcome;
+}
@@ -0,0 +1,16 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class ColumnProfile {
+    String columnName;
+
+    @Schema(title = "Statistics of the column", description = "Numeric statistics are only computed for numeric columns, and length statistics for text columns.")
+    ColumnStatistics profile;
+}
@@ -0,0 +1,58 @@
+package io.kestra.plugin.soda.models;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class ColumnStatistics {
+    @Schema(title = "Smallest value")
+    Object min;
+
+    @Schema(title = "Largest value")
+    Object max;
+
+    @Schema(title = "Smallest values, in ascending order")
+    List<Object> mins;
+
+    @Schema(title = "Largest values, in descending order")
+    List<Object> maxs;
+
+    @Schema(title = "Most frequent values, with their number of occurrences")
+    @JsonAlias("frequent_values")
+    List<FrequentValue> frequentValues;
+
+    Double avg;
+
+    Double sum;
+
+    Double stddev;
+
+    Double variance;
+
+    @Schema(title = "Number of distinct values")
+    Long distinct;
+
+    @Schema(title = "Number of missing values")
+    @JsonAlias("missing_count")
+    Long missingCount;
+
+    @Schema(title = "Distribution of the values")
+    Histogram histogram;
+
+    @JsonAlias("average_length")
+    Double averageLength;
+
+    @JsonAlias("min_length")
+    Long minLength;
+
+    @JsonAlias("max_length")
+    Long maxLength;
+}
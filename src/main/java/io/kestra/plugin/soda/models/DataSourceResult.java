@@ -0,0 +1,38 @@
+package io.kestra.plugin.soda.models;
+
+import java.net.URI;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class DataSourceResult {
+    @Schema(title = "Scan results payload", description = "Not set when `store` is true.")
+    ScanResult result;
+
+    @Schema(title = "Scan summary")
+    ScanSummary summary;
+
+    @Schema(title = "URI of the ION file holding the checks", description = "Only set when `store` is true.")
+    URI checksUri;
+
+    @Schema(title = "URI of the ION file holding the metrics", description = "Only set when `store` is true.")
+    URI metricsUri;
+
+    @Schema(title = "URI of the ION file holding the column profiles", description = "Only set when `store` is true and the checks profile columns.")
+    URI profilingUri;
+
+    @Schema(title = "URI of the ION file holding the discovered tables", description = "Only set when `store` is true and the checks discover tables.")
+    URI discoveryUri;
+
+    @Schema(title = "URIs of the raw `result.json` files of the scan, one per shard", description = "Only set when `keepResult` is true.")
+    List<URI> resultUris;
+
+    @Schema(title = "Exit code of the Soda scan")
+    Integer exitCode;
+}
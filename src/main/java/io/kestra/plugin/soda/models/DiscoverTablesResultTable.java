@@ -1,4 +1,25 @@
 package io.kestra.plugin.soda.models;
 
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
 public class DiscoverTablesResultTable {
+    @Schema(title = "Name of the discovered table")
+    String table;
+
+    @Schema(title = "Data source of the table")
+    String dataSource;
+
+    @Schema(title = "Number of rows of the table, when reported by the data source")
+    Long rowCount;
+
+    @Schema(title = "Columns of the table")
+    List<DiscoveredColumn> schema;
 }
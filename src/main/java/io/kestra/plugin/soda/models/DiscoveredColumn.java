@@ -0,0 +1,16 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class DiscoveredColumn {
+    String columnName;
+
+    @Schema(title = "Data type of the column, as named by the data source")
+    String sourceDataType;
+}
@@ -0,0 +1,16 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class FrequentValue {
+    Object value;
+
+    @Schema(title = "Number of occurrences of the value")
+    Long frequency;
+}
@@ -0,0 +1,19 @@
+package io.kestra.plugin.soda.models;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class Histogram {
+    @Schema(title = "Lower boundary of each bucket")
+    List<Object> boundaries;
+
+    @Schema(title = "Number of values of each bucket")
+    List<Long> frequencies;
+}
@@ -0,0 +1,22 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class MetricDelta {
+    String identity;
+    String metricName;
+    Double previousValue;
+    Double currentValue;
+
+    @Schema(title = "Current value minus previous value")
+    Double delta;
+
+    @Schema(title = "Delta relative to the previous value", description = "Null when the previous value is 0.")
+    Double relativeChange;
+}
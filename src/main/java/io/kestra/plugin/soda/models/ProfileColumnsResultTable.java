@@ -0,0 +1,25 @@
+package io.kestra.plugin.soda.models;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class ProfileColumnsResultTable {
+    @Schema(title = "Name of the profiled table")
+    String table;
+
+    @Schema(title = "Data source of the table")
+    String dataSource;
+
+    @Schema(title = "Number of rows of the table")
+    Long rowCount;
+
+    @Schema(title = "Profile of each profiled column")
+    List<ColumnProfile> columnProfiles;
+}
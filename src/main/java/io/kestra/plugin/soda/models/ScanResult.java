@@ -9,7 +9,7 @@ import lombok.extern.jackson.Jacksonized;
 
 @Value
 @Jacksonized
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 public class ScanResult {
     String definitionName;
     String defaultDataSource;
@@ -22,7 +22,7 @@ public class ScanResult {
     List<Metric> metrics;
     List<Check> checks;
     List<String> automatedMonitoringChecks;
-    List<String> profiling;
-    List<String> metadata;
+    List<ProfileColumnsResultTable> profiling;
+    List<DiscoverTablesResultTable> metadata;
     // List<Log> logs;
 }
@@ -0,0 +1,35 @@
+package io.kestra.plugin.soda.models;
+
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class ScanSummary {
+    @Schema(title = "Number of checks")
+    Long checks;
+
+    @Schema(title = "Number of metrics")
+    Long metrics;
+
+    @Schema(title = "Number of checks per outcome")
+    Map<CheckOutcome, Long> outcomes;
+
+    @Schema(title = "Number of checks that could not be evaluated")
+    Long errors;
+
+    @Schema(title = "Number of checks whose outcome was reused from a previous incremental scan")
+    Long cached;
+
+    @Schema(title = "Number of checks that could not be evaluated because of `checkTimeout` or `timeBudget`")
+    Long timedOut;
+
+    Boolean hasErrors;
+    Boolean hasWarnings;
+    Boolean hasFailures;
+}
@@ -0,0 +1,16 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class TenantCheck {
+    @Schema(title = "Name of the tenant the check was run for")
+    String tenant;
+
+    Check check;
+}
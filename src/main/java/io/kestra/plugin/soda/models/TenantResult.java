@@ -0,0 +1,20 @@
+package io.kestra.plugin.soda.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@SuperBuilder
+public class TenantResult {
+    @Schema(title = "Scan summary", description = "Null when the scan of the tenant failed.")
+    ScanSummary summary;
+
+    @Schema(title = "Exit code of the Soda scan", description = "Null when the scan of the tenant failed.")
+    Integer exitCode;
+
+    @Schema(title = "Why the scan of the tenant failed", description = "Null when the scan completed, whatever the outcome of its checks.")
+    String error;
+}
@@ -0,0 +1,194 @@
+"""
+Sampling of the scans: the SQL generated by Soda for the sampled tables is rewritten to read a sample
+in the dialect of the data source, and the checks that warn or fail on a sample are run again on the
+full tables. Kept free of any Soda import so that it can be tested on its own.
+"""
+import re
+
+# dialects whose sampling syntax is known, the tables of the other ones are always scanned in full
+SUPPORTED_DIALECTS = frozenset((
+    "postgres", "redshift", "mysql", "bigquery", "snowflake", "sqlserver", "spark", "spark_df", "databricks",
+))
+
+# the table read by a FROM keyword, qualified or quoted, and its alias
+TABLE_SOURCE = re.compile(
+    r"FROM\s+((?:[`\"\[]?[\w$-]+[`\"\]]?\.)*[`\"\[]?([\w$-]+)[`\"\]]?)"
+    r"(?:\s+AS\s+([A-Za-z_]\w*)|\s+(?!(?:WHERE|GROUP|ORDER|LIMIT|JOIN|LEFT|RIGHT|INNER|OUTER|FULL|CROSS|ON|HAVING|UNION|"
+    r"WINDOW|QUALIFY|OFFSET|FETCH|TABLESAMPLE|SAMPLE|WITH)\b)([A-Za-z_]\w*))?",
+    re.IGNORECASE,
+)
+
+# a table the query already samples is read as is
+SAMPLED = re.compile(r"\s*(?:TABLESAMPLE|SAMPLE)\b", re.IGNORECASE)
+
+# words after which a parenthesis opens a subquery or an expression rather than function arguments
+OPENING_WORDS = frozenset((
+    "all", "and", "any", "as", "by", "else", "except", "exists", "from", "having", "in", "intersect", "join",
+    "lateral", "not", "on", "or", "select", "some", "then", "union", "when", "where", "with",
+))
+
+
+def supports(dialect):
+    return dialect in SUPPORTED_DIALECTS
+
+
+def sample_source(source, sampling, dialect):
+    """
+    Returns the sampled select replacing a table in the FROM clause of a query, in the dialect of
+    the data source.
+    """
+    if sampling.get("rowLimit"):
+        if dialect == "sqlserver":
+            return "SELECT TOP " + str(sampling["rowLimit"]) + " * FROM " + source
+        return "SELECT * FROM " + source + " LIMIT " + str(sampling["rowLimit"])
+
+    percentage = sampling["percentage"]
+    if dialect == "mysql":
+        return "SELECT * FROM " + source + " WHERE RAND() < " + repr(percentage / 100)
+    if dialect == "redshift":
+        return "SELECT * FROM " + source + " WHERE RANDOM() < " + repr(percentage / 100)
+    if dialect == "bigquery":
+        return "SELECT * FROM " + source + " TABLESAMPLE SYSTEM (" + repr(percentage) + " PERCENT)"
+    if dialect in ("sqlserver", "spark", "spark_df", "databricks"):
+        return "SELECT * FROM " + source + " TABLESAMPLE (" + repr(percentage) + " PERCENT)"
+    return "SELECT * FROM " + source + " TABLESAMPLE SYSTEM (" + repr(percentage) + ")"
+
+
+def table_sources(sql):
+    """
+    Returns the positions of the FROM keywords of a statement that read a table or a subquery,
+    skipping the ones in string literals, quoted identifiers, comments and function arguments such as
+    EXTRACT(YEAR FROM created_at).
+    """
+    positions = []
+    functions = []
+    previous = ""
+    i = 0
+
+    while i < len(sql):
+        c = sql[i]
+
+        if c in "'\"`[":
+            close = "]" if c == "[" else c
+            end = i + 1
+            while end < len(sql):
+                if sql[end] == close:
+                    # a doubled quote escapes itself
+                    if close != "]" and end + 1 < len(sql) and sql[end + 1] == close:
+                        end += 2
+                        continue
+                    break
+                end += 1
+            previous = close
+            i = end + 1
+        elif sql.startswith("--", i):
+            end = sql.find("\n", i)
+            i = len(sql) if end < 0 else end + 1
+        elif sql.startswith("/*", i):
+            end = sql.find("*/", i + 2)
+            i = len(sql) if end < 0 else end + 2
+        elif c == "(":
+            functions.append((previous[:1].isalpha() or previous[:1] == "_") and previous.lower() not in OPENING_WORDS)
+            previous = c
+            i += 1
+        elif c == ")":
+            if functions:
+                functions.pop()
+            previous = c
+            i += 1
+        elif c.isalnum() or c == "_":
+            end = i
+            while end < len(sql) and (sql[end].isalnum() or sql[end] in "_$"):
+                end += 1
+            word = sql[i:end]
+            if word.lower() == "from" and not (functions and functions[-1]):
+                positions.append(i)
+            previous = word
+            i = end
+        else:
+            if not c.isspace():
+                previous = c
+            i += 1
+
+    return positions
+
+
+def rewrite(sql, sampling, dialect):
+    """
+    Returns the SQL with the sampled tables it reads replaced by a sample, keeping their alias or name
+    so that qualified column references still resolve, and the lowercased names of the tables
+    replaced.
+    """
+    sampled = set()
+    parts = []
+    last = 0
+
+    for position in table_sources(sql):
+        match = TABLE_SOURCE.match(sql, position)
+        if match is None or match.group(2).lower() not in sampling["tables"] or SAMPLED.match(sql, match.end()):
+            continue
+
+        table = match.group(2)
+        sampled.add(table.lower())
+        parts.append(sql[last:match.start()])
+        parts.append("FROM (" + sample_source(match.group(1), sampling, dialect) + ") " + (match.group(3) or match.group(4) or table))
+        last = match.end()
+
+    parts.append(sql[last:])
+
+    return "".join(parts), sampled
+
+
+def mark_sampled(result, sampling, sampled_tables):
+    for entry in result.get("checks") or []:
+        if (entry.get("table") or "").lower() in sampled_tables:
+            if sampling.get("rowLimit"):
+                entry["sampleLimit"] = sampling["rowLimit"]
+            else:
+                entry["samplingRatio"] = sampling["percentage"] / 100
+
+
+def escalated_tables(result):
+    """
+    Returns the lowercased names of the sampled tables having a check that warned or failed.
+    """
+    return {
+        (entry.get("table") or "").lower()
+        for entry in result.get("checks") or []
+        if entry.get("outcome") in ("warn", "fail") and (entry.get("samplingRatio") is not None or entry.get("sampleLimit") is not None)
+    }
+
+
+def merge(result, full, tables):
+    """
+    Returns the result with the checks and metrics of the tables run again replaced by the exact ones
+    of `full`, and the number of checks replaced.
+    """
+    kept = [entry for entry in result.get("checks") or [] if (entry.get("table") or "").lower() not in tables]
+    replaced = len(result.get("checks") or []) - len(kept)
+
+    kept_metrics = {identity for entry in kept for identity in entry.get("metrics") or []}
+    metrics = {metric.get("identity"): metric for metric in result.get("metrics") or [] if metric.get("identity") in kept_metrics}
+    for metric in full.get("metrics") or []:
+        metrics[metric.get("identity")] = metric
+
+    for entry in full.get("checks") or []:
+        entry["escalated"] = True
+
+    merged = dict(result)
+    merged["checks"] = kept + (full.get("checks") or [])
+    merged["metrics"] = list(metrics.values())
+    merged["hasErrors"] = bool(result.get("hasErrors")) or bool(full.get("hasErrors"))
+    merged["hasWarnings"] = any(entry.get("outcome") == "warn" for entry in merged["checks"])
+    merged["hasFailures"] = any(entry.get("outcome") == "fail" for entry in merged["checks"])
+    merged["scanEndTimestamp"] = full.get("scanEndTimestamp", result.get("scanEndTimestamp"))
+
+    return merged, replaced
+
+
+def exit_code(merged, full_exit_code):
+    if merged["hasErrors"]:
+        return max(3, full_exit_code)
+    if merged["hasFailures"]:
+        return 2
+    return 1 if merged["hasWarnings"] else 0
@@ -0,0 +1,766 @@
+import contextvars
+import json
+import logging
+import os
+import re
+import struct
+import sys
+import tempfile
+import threading
+import time
+import zlib
+
+from concurrent.futures import ThreadPoolExecutor
+from datetime import datetime, timedelta, timezone
+from io import StringIO
+
+from ruamel.yaml import YAML
+from soda.execution.check.check import Check
+from soda.execution.query.query import Query
+from soda.scan import Scan
+
+import kestra_sampling
+
+try:
+    import cbor2
+except ImportError:
+    cbor2 = None
+
+try:
+    from soda.sampler.sampler import Sampler
+except ImportError:
+    Sampler = object
+
+try:
+    from soda.soda_cloud.soda_cloud import SodaCloud
+except ImportError:
+    from soda.cloud.soda_cloud import SodaCloud
+
+logger = logging.getLogger("kestra_soda")
+
+EVENTS_LOCK = threading.Lock()
+PROGRESS = contextvars.ContextVar("kestra_soda_progress", default=None)
+CURRENT_QUERY = contextvars.ContextVar("kestra_soda_query", default=None)
+
+
+def emit(metrics=None, logs=None):
+    """
+    Writes a Kestra `::{...}::` event on stdout, turned into metrics and logs by the task while the
+    scan is still running.
+    """
+    event = {}
+    if metrics:
+        event["metrics"] = metrics
+    if logs:
+        event["logs"] = logs
+
+    with EVENTS_LOCK:
+        sys.stdout.write("::" + json.dumps(event, default=str) + "::\n")
+        sys.stdout.flush()
+
+
+class QueryTimeout(Exception):
+    pass
+
+
+def query_table(query):
+    table = getattr(query, "table", None) or getattr(getattr(query, "partition", None), "table", None)
+    return getattr(table, "table_name", table if isinstance(table, str) else None)
+
+
+def time_limit(progress):
+    """
+    Returns the number of seconds the next query may run, from the query timeout and the deadline of
+    the scan, or None when neither is set.
+    """
+    limits = []
+    if progress.get("queryTimeout"):
+        limits.append(progress["queryTimeout"])
+    if progress.get("deadline"):
+        limits.append(progress["deadline"] - time.time())
+
+    return min(limits) if limits else None
+
+
+def cancel_query(query, name, limit, progress):
+    """
+    Called by the watchdog of a query that exceeded its time limit: flags the query and cancels it
+    through the DB-API connection when the driver supports it, the query then failing like any other.
+    """
+    query._kestra_timed_out = True
+    progress["timedOutQueries"].append(query)
+
+    connection = getattr(getattr(getattr(query, "data_source_scan", None), "data_source", None), "connection", None)
+    cancel = getattr(connection, "cancel", None)
+    if cancel is None:
+        emit(logs=[{"level": "WARN", "message": "Query '" + name + "' timed out after " + format(limit, ".3f") + "s and cannot be cancelled by the driver"}])
+        return
+
+    emit(logs=[{"level": "WARN", "message": "Query '" + name + "' timed out after " + format(limit, ".3f") + "s, cancelling it"}])
+    try:
+        cancel()
+    except Exception as e:
+        logger.warning("Unable to cancel query '%s': %s", name, e)
+
+
+def sample_query(query, progress):
+    """
+    Rewrites the SQL of a query so that the sampled tables it reads are replaced by a sample. Queries
+    on a data source whose dialect has no known sampling syntax are left untouched, once warned.
+    """
+    sampling = progress.get("sampling")
+    sql = getattr(query, "sql", None)
+    if not sampling or not isinstance(sql, str):
+        return
+
+    data_source = getattr(getattr(query, "data_source_scan", None), "data_source", None)
+    dialect = getattr(data_source, "type", None) or getattr(data_source, "TYPE", None)
+    if not kestra_sampling.supports(dialect):
+        if not progress["samplingUnsupported"]:
+            progress["samplingUnsupported"] = True
+            emit(logs=[{"level": "WARN", "message": "Sampling isn't supported on '" + str(dialect) + "' data sources, scanning the full tables"}])
+        return
+
+    rewritten, sampled = kestra_sampling.rewrite(sql, sampling, dialect)
+    if sampled:
+        query.sql = rewritten
+        progress["sampledTables"].update(sampled)
+
+
+def timed_query(method):
+    def wrapper(query, *args, **kwargs):
+        progress = PROGRESS.get()
+        if progress is None:
+            return method(query, *args, **kwargs)
+
+        name = getattr(query, "query_name", None) or "query"
+        table = query_table(query)
+        tags = {"dataSource": progress["dataSource"]}
+        if table:
+            tags["dataset"] = table
+
+        limit = time_limit(progress)
+        if limit is not None and limit <= 0:
+            # soda reports a query exception as an errored check instead of failing the scan
+            query._kestra_timed_out = True
+            query.exception = QueryTimeout("The time budget of the scan is exhausted")
+            progress["timedOutQueries"].append(query)
+            emit(logs=[{"level": "WARN", "message": "Skipping query '" + name + "', the time budget of the scan is exhausted"}])
+            return None
+
+        sample_query(query, progress)
+
+        watchdog = None
+        if limit is not None:
+            watchdog = threading.Timer(limit, cancel_query, args=(query, name, limit, progress))
+            watchdog.daemon = True
+            watchdog.start()
+
+        emit(logs=[{"level": "INFO", "message": "Running query '" + name + "'"}])
+        start = time.monotonic()
+        query_token = CURRENT_QUERY.set(query)
+        try:
+            return method(query, *args, **kwargs)
+        finally:
+            CURRENT_QUERY.reset(query_token)
+            if watchdog is not None:
+                watchdog.cancel()
+
+            duration = time.monotonic() - start
+            progress["queries"] += 1
+            progress["querySeconds"] += duration
+            emit(
+                metrics=[{"name": "soda.query.duration", "type": "timer", "value": duration, "tags": tags}],
+                logs=[{"level": "INFO", "message": "Query '" + name + "' completed in " + format(duration, ".3f") + "s"}],
+            )
+
+    return wrapper
+
+
+def reported_outcome(setattr_method):
+    """
+    Wraps Check.__setattr__ to report each check once its outcome is set, whatever the check type
+    overriding `evaluate`.
+    """
+    def wrapper(check, name, value):
+        setattr_method(check, name, value)
+
+        progress = PROGRESS.get()
+        if name != "outcome" or value is None or progress is None or getattr(check, "_kestra_reported", False):
+            return
+
+        object.__setattr__(check, "_kestra_reported", True)
+        progress["checks"] += 1
+
+        outcome = getattr(value, "value", str(value))
+        partition = getattr(check, "partition", None)
+        table = getattr(getattr(partition, "table", None), "table_name", None)
+        column = getattr(getattr(check, "column", None), "column_name", None)
+        check_name = getattr(check, "name", None) or "check"
+
+        tags = {"dataSource": progress["dataSource"], "outcome": outcome}
+        if table:
+            tags["dataset"] = table
+        if column:
+            tags["column"] = column
+
+        emit(
+            metrics=[{"name": "soda.check", "type": "counter", "value": 1, "tags": tags}],
+            logs=[{
+                "level": "WARN" if outcome in ("warn", "fail") else "INFO",
+                "message": "Check '" + check_name + "'" + (" on " + table if table else "") + ": " + outcome
+                    + " after " + format(time.monotonic() - progress["start"], ".3f") + "s",
+            }],
+        )
+
+    return wrapper
+
+
+class FileSampler(Sampler):
+    """
+    Writes the failed rows samples of the scan as JSON lines files, one per sample and at most
+    `limit` rows each, instead of letting soda log them. The files are indexed in the progress of
+    the scan with the query that produced them, to be matched to their check once it completes.
+    """
+
+    def __init__(self, directory, path, limit):
+        self.directory = directory
+        self.path = path
+        self.limit = limit
+
+    def store_sample(self, sample_context):
+        progress = PROGRESS.get()
+        if progress is None:
+            return None
+
+        sample = sample_context.sample
+        columns = [getattr(column, "name", str(column)) for column in sample.get_schema().columns]
+        name = str(len(progress["samples"])) + ".jsonl"
+
+        os.makedirs(self.directory, exist_ok=True)
+        stored = 0
+        with open(os.path.join(self.directory, name), "w") as file:
+            for row in sample.get_rows():
+                if stored >= self.limit:
+                    break
+                file.write(json.dumps(dict(zip(columns, row)), default=str) + "\n")
+                stored += 1
+
+        progress["samples"].append({
+            "query": CURRENT_QUERY.get(),
+            "file": self.path + "/" + name,
+            "location": os.path.join(self.directory, name),
+            "rows": stored,
+        })
+
+        return None
+
+
+def read_segment_index(path):
+    """
+    Reads the index of a metric history segment written by the task: the offset, compressed length,
+    number of values and time range of the block of each metric.
+    """
+    with open(path, "rb") as file:
+        if file.read(4) != b"KSH1":
+            raise ValueError("Invalid metric history segment " + path)
+
+        (count,) = struct.unpack(">i", file.read(4))
+        index = {}
+        for _ in range(count):
+            (length,) = struct.unpack(">H", file.read(2))
+            identity = file.read(length).decode("utf-8")
+            index[identity] = struct.unpack(">qiiqq", file.read(32))
+
+        return index
+
+
+def read_segment_block(path, entry):
+    with open(path, "rb") as file:
+        file.seek(entry[0])
+        return list(struct.iter_unpack(">qd", zlib.decompress(file.read(entry[1]))))
+
+
+def epoch_millis(value):
+    return int(value.timestamp() * 1000)
+
+
+class LocalHistory:
+    """
+    Stands in for Soda Cloud as the metric store of a scan, the change-over-time and anomaly checks
+    reading the previous values of their metric from the history segments copied by the task. The
+    metrics of the scan are appended to the history by the task, so the other Soda Cloud calls do
+    nothing.
+    """
+
+    def __init__(self, scan, segments):
+        self.scan = scan
+        self.segments = segments
+        self.indexes = None
+        self.lock = threading.Lock()
+
+    def load_indexes(self):
+        with self.lock:
+            if self.indexes is None:
+                self.indexes = []
+                for path in self.segments:
+                    try:
+                        self.indexes.append((path, read_segment_index(path)))
+                    except Exception as e:
+                        logger.warning("Unable to read the metric history segment '%s', its values are ignored: %s", path, e)
+            return self.indexes
+
+    def values(self, identity):
+        """
+        Returns the (epoch millis, value) pairs of the metric, the newest first; a later segment
+        replaces the value of an earlier one at the same time.
+        """
+        values = {}
+        for path, index in self.load_indexes():
+            entry = index.get(identity)
+            if entry is not None:
+                values.update(read_segment_block(path, entry))
+
+        return sorted(values.items(), reverse=True)
+
+    def measurements(self, identity, limit=None, since=None, until=None):
+        results = []
+        for timestamp, value in self.values(identity):
+            if until is not None and timestamp >= until:
+                continue
+            if since is not None and timestamp < since:
+                break
+
+            results.append({
+                "identity": identity,
+                "id": str(timestamp),
+                "value": value,
+                "dataTime": datetime.fromtimestamp(timestamp / 1000, timezone.utc).isoformat(),
+            })
+            if limit and len(results) >= limit:
+                break
+
+        return {"results": results}
+
+    def get_historic_data(self, historic_descriptor):
+        identity = getattr(historic_descriptor, "metric_identity", None)
+        change_over_time = getattr(historic_descriptor, "change_over_time_cfg", None)
+        measurements = {"results": []}
+
+        if identity is not None and change_over_time is not None and getattr(change_over_time, "same_day_last_week", False):
+            data_timestamp = getattr(self.scan, "_data_timestamp", None) or datetime.now(timezone.utc)
+            day = (data_timestamp - timedelta(days=7)).replace(hour=0, minute=0, second=0, microsecond=0)
+            measurements = self.measurements(identity, since=epoch_millis(day), until=epoch_millis(day + timedelta(days=1)))
+        elif identity is not None and change_over_time is not None:
+            measurements = self.measurements(identity, limit=getattr(change_over_time, "last_measurements", None) or 1)
+        elif identity is not None:
+            measurements = self.measurements(identity, limit=getattr(historic_descriptor, "limit", None) or 1000)
+
+        return {"measurements": measurements, "check_results": {"results": []}}
+
+    def get_check_attributes_schema(self):
+        return []
+
+    def send_scan_results(self, scan):
+        return None
+
+    def __getattr__(self, name):
+        if name.startswith("__"):
+            raise AttributeError(name)
+
+        # the other Soda Cloud calls only send data to it, there is nothing to do locally
+        return lambda *args, **kwargs: None
+
+
+def install_progress_hooks():
+    if getattr(Query, "_kestra_progress", False):
+        return
+
+    for method in ("fetchone", "fetchall", "store"):
+        if hasattr(Query, method):
+            setattr(Query, method, timed_query(getattr(Query, method)))
+
+    Check.__setattr__ = reported_outcome(Check.__setattr__)
+    Query._kestra_progress = True
+
+
+install_progress_hooks()
+
+
+def run_scan(request):
+    """
+    Runs one Soda scan and writes its result to request["result"].
+
+    The request holds the data source name, the paths of the configuration and checks files, and
+    the optional variables, verbose flag, incremental plan, sampling options, failed rows sample
+    options, metric history segments, query timeout in seconds and deadline in epoch seconds.
+    Returns the exit code of the scan, the freshness signals of its tables when the scan is
+    incremental, and the progress reported while it ran.
+    """
+    progress = {
+        "dataSource": request.get("dataSource", "kestra"),
+        "checks": 0,
+        "queries": 0,
+        "querySeconds": 0.0,
+        "timedOut": 0,
+        "start": time.monotonic(),
+        "queryTimeout": request.get("queryTimeout"),
+        "deadline": request.get("deadline"),
+        "timedOutQueries": [],
+        "sampling": None,
+        "sampledTables": set(),
+        "samplingUnsupported": False,
+        "samples": [],
+    }
+    token = PROGRESS.set(progress)
+    try:
+        exit_code, incremental = execute_scan(request)
+    finally:
+        PROGRESS.reset(token)
+
+    for key in (
+        "start", "dataSource", "queryTimeout", "deadline", "timedOutQueries", "sampling", "sampledTables",
+        "samplingUnsupported", "samples",
+    ):
+        del progress[key]
+
+    return {"exitCode": exit_code, "incremental": incremental, "progress": progress}
+
+
+def new_scan(request):
+    scan = Scan()
+    scan.set_data_source_name(request.get("dataSource", "kestra"))
+    scan.add_configuration_yaml_file(file_path=request["configuration"])
+
+    if request.get("verbose"):
+        scan.set_verbose()
+
+    if request.get("variables"):
+        scan.add_variables(request["variables"])
+
+    failed_rows = request.get("failedRows")
+    if failed_rows:
+        scan.sampler = FileSampler(failed_rows["directory"], failed_rows["path"], failed_rows["limit"])
+
+    history = request.get("history")
+    if history and getattr(scan._configuration, "soda_cloud", None) is None:
+        scan._configuration.soda_cloud = LocalHistory(scan, history["segments"])
+
+    return scan
+
+
+def execute_scan(request):
+    scan = new_scan(request)
+
+    incremental = None
+    if request.get("incremental"):
+        checks, incremental = plan_incremental(scan, request)
+        if not checks:
+            scan._data_source_manager.close_all_connections()
+            write_result(request, skipped_result(request))
+            return 0, incremental
+    elif request.get("sampling"):
+        checks = load_yaml(request["checks"])
+    else:
+        checks = None
+
+    progress = PROGRESS.get()
+    sampling = request.get("sampling")
+    if sampling and progress is not None:
+        tables = sampling.get("tables") or checked_tables(checks)
+        progress["sampling"] = dict(sampling, tables={table.lower() for table in tables})
+
+    add_checks(scan, request, checks)
+
+    exit_code = scan.execute()
+
+    result = SodaCloud.build_scan_results(scan)
+    if mark_timed_out(scan, result):
+        exit_code = max(exit_code, 3)
+    mark_failed_rows(scan, result)
+
+    if sampling and progress is not None:
+        progress["sampling"] = None
+        kestra_sampling.mark_sampled(result, sampling, progress["sampledTables"])
+        if sampling.get("escalate", True):
+            exit_code, result = escalate(request, checks, result, exit_code)
+
+    write_result(request, result)
+
+    return exit_code, incremental
+
+
+def add_checks(scan, request, checks=None):
+    """
+    Adds the checks of the request to the scan, or the given subset of them. Soda hashes the name of
+    the file the checks are loaded from into their identity, so a subset is loaded from a file named
+    like the one of the request to keep the identities of the checks whatever runs them.
+    """
+    if checks is None:
+        scan.add_sodacl_yaml_file(request["checks"])
+        return
+
+    with tempfile.TemporaryDirectory(prefix="kestra-soda-checks-") as directory:
+        path = os.path.join(directory, os.path.basename(request["checks"]))
+        with open(path, "w") as file:
+            file.write(dump_yaml(checks))
+        scan.add_sodacl_yaml_file(path)
+
+
+def checked_table(key):
+    match = re.match(r"checks for\s+\"?([^\s\[\"]+)", key)
+    return match.group(1) if match else None
+
+
+def checked_tables(checks):
+    return [table for table in map(checked_table, checks) if table]
+
+
+def escalate(request, checks, result, exit_code):
+    """
+    Runs again on the full tables the checks of the sampled tables that warned or failed, and
+    replaces their sampled checks and metrics by the exact ones.
+    """
+    tables = kestra_sampling.escalated_tables(result)
+    if not tables:
+        return exit_code, result
+
+    escalated = {
+        key: value for key, value in checks.items()
+        if key.startswith("filter ") or (checked_table(key) or "").lower() in tables
+    }
+
+    emit(logs=[{"level": "WARN", "message": "Running the checks of " + ", ".join(sorted(tables)) + " on the full tables after warnings or failures on the sample"}])
+
+    scan = new_scan(request)
+    add_checks(scan, request, escalated)
+    full_exit_code = scan.execute()
+    full = SodaCloud.build_scan_results(scan)
+    mark_timed_out(scan, full)
+    mark_failed_rows(scan, full)
+
+    merged, replaced = kestra_sampling.merge(result, full, tables)
+    progress = PROGRESS.get()
+    if progress is not None:
+        progress["checks"] -= replaced
+
+    return kestra_sampling.exit_code(merged, full_exit_code), merged
+
+
+def query_metrics(query):
+    return [metric for metric in list(getattr(query, "metrics", None) or []) + [getattr(query, "metric", None)] if metric is not None]
+
+
+def mark_failed_rows(scan, result):
+    """
+    Adds to the checks of the result the file of the failed rows sample written by their query, the
+    check being matched to the query through the metrics it computes.
+    """
+    progress = PROGRESS.get()
+    samples = [sample for sample in (progress["samples"] if progress else []) if not sample.get("matched")]
+    if not samples:
+        return
+
+    entries = {(entry.get("name"), (entry.get("table") or "").lower()): entry for entry in result.get("checks") or []}
+
+    for check in scan._checks:
+        check_metrics = {id(metric) for metric in (getattr(check, "metrics", None) or {}).values()}
+        for sample in samples:
+            if sample.get("matched") or not any(id(metric) in check_metrics for metric in query_metrics(sample["query"])):
+                continue
+
+            table = getattr(getattr(getattr(check, "partition", None), "table", None), "table_name", None)
+            entry = entries.get((getattr(check, "name", None), (table or "").lower()))
+            if entry is not None and "failedRowsFile" not in entry:
+                entry["failedRowsFile"] = sample["file"]
+                entry["failedRowsCount"] = sample["rows"]
+                sample["matched"] = True
+
+    for sample in samples:
+        if not sample.get("matched"):
+            logger.info("The failed rows sample '%s' does not belong to a reported check, it is not kept", sample["file"])
+            os.remove(sample["location"])
+        sample["matched"] = True
+        sample["query"] = None
+
+
+def mark_timed_out(scan, result):
+    """
+    Flags with `timedOut` the checks left without outcome by a query that timed out or was skipped
+    once the time budget was exhausted, adding the ones soda left out of its result. A check is
+    matched to a query through the metrics it computes, or through its table when the query does
+    not expose them. Returns the number of timed out checks.
+    """
+    progress = PROGRESS.get()
+    queries = progress["timedOutQueries"] if progress else []
+    if not queries:
+        return 0
+
+    metrics = set()
+    tables = set()
+    for query in queries:
+        for metric in query_metrics(query):
+            metrics.add(id(metric))
+        table = query_table(query)
+        if table:
+            tables.add(table.lower())
+
+    entries = {(entry.get("name"), (entry.get("table") or "").lower()): entry for entry in result.get("checks") or []}
+    timed_out = 0
+
+    for check in scan._checks:
+        if getattr(check, "outcome", None) is not None:
+            continue
+
+        table = getattr(getattr(getattr(check, "partition", None), "table", None), "table_name", None)
+        check_metrics = getattr(check, "metrics", None) or {}
+        if not any(id(metric) in metrics for metric in check_metrics.values()) and (table or "").lower() not in tables:
+            continue
+
+        key = (getattr(check, "name", None), (table or "").lower())
+        entry = entries.get(key)
+        if entry is None:
+            try:
+                entry = check.get_cloud_dict()
+            except Exception:
+                entry = {"name": key[0], "table": table, "dataSource": progress["dataSource"]}
+            entry["outcome"] = None
+            result.setdefault("checks", []).append(entry)
+            entries[key] = entry
+
+        entry["timedOut"] = True
+        timed_out += 1
+
+    if timed_out:
+        result["hasErrors"] = True
+        progress["timedOut"] = timed_out
+
+    return timed_out
+
+
+def plan_incremental(scan, request):
+    """
+    Reads the freshness signal of every table of request["incremental"]["tables"], either the watermark
+    given by the task or the result of the watermark query, and drops from the checks the tables whose
+    signal is the same as the one of the previous scan.
+    """
+    plan = request["incremental"]
+    checks = load_yaml(request["checks"])
+    data_source = scan._data_source_manager.get_data_source(request.get("dataSource", "kestra"))
+    signals = {}
+    skipped = []
+
+    for table, unit in plan["tables"].items():
+        signal = unit.get("watermark")
+
+        if signal is None and plan.get("query") and data_source is not None:
+            try:
+                signal = query_signal(data_source, plan["query"].replace("{table}", unit.get("identifier") or table))
+            except Exception as e:
+                logger.warning("Unable to read the freshness signal of '%s', its checks will run: %s", table, e)
+
+        signals[table] = signal
+
+        if signal is not None and signal == unit.get("previous"):
+            skipped.append(table)
+            for key in unit["keys"]:
+                checks.pop(key, None)
+
+    if skipped:
+        logger.info("Skipping the checks of %s unchanged tables: %s", len(skipped), ", ".join(skipped))
+
+    return checks, {"signals": signals, "skipped": skipped}
+
+
+def query_signal(data_source, sql):
+    cursor = data_source.connection.cursor()
+    try:
+        cursor.execute(sql)
+        row = cursor.fetchone()
+        return None if row is None or row[0] is None else str(row[0])
+    finally:
+        cursor.close()
+
+
+def skipped_result(request):
+    now = datetime.now(timezone.utc).isoformat()
+
+    return {
+        "defaultDataSource": request.get("dataSource", "kestra"),
+        "dataTimestamp": now,
+        "scanStartTimestamp": now,
+        "scanEndTimestamp": now,
+        "hasErrors": False,
+        "hasWarnings": False,
+        "hasFailures": False,
+        "metrics": [],
+        "checks": [],
+    }
+
+
+def load_yaml(path):
+    with open(path) as file:
+        return YAML(typ="safe").load(file) or {}
+
+
+def dump_yaml(data):
+    stream = StringIO()
+    YAML(typ="safe").dump(data, stream)
+    return stream.getvalue()
+
+
+def write_result(request, result):
+    """
+    Writes the result in CBOR when request["resultFormat"] asks for it and cbor2 is installed, in JSON
+    otherwise; the task tells both apart from their first byte.
+    """
+    if request.get("resultFormat") == "CBOR":
+        if cbor2 is not None:
+            with open(request["result"], "wb") as out:
+                cbor2.dump(result, out)
+            return
+
+        logger.warning("The cbor2 package is not installed, writing the scan result in JSON")
+
+    with open(request["result"], "w") as out:
+        out.write(json.dumps(result))
+
+
+def run_scans(request):
+    """
+    Runs the scans listed in request["scans"], one per data source, sequentially or on a pool of
+    request["concurrency"] threads. Each scan inherits the configuration, variables and verbose flag
+    of the request, and the deadline of its request["timeBudget"] seconds. Returns the exit codes,
+    incremental signals and progress of the scans, each keyed by data source.
+    """
+    shared = {key: value for key, value in request.items() if key not in ("scans", "concurrency", "timeBudget")}
+    # the time budget is relative, the deadline is taken from the clock of this process once it starts scanning
+    if request.get("timeBudget") is not None:
+        shared["deadline"] = time.time() + request["timeBudget"]
+    scans = [dict(shared, **scan) for scan in request["scans"]]
+    concurrency = min(request.get("concurrency") or 1, len(scans))
+
+    if concurrency <= 1:
+        outcomes = [run_scan(scan) for scan in scans]
+    else:
+        with ThreadPoolExecutor(max_workers=concurrency, thread_name_prefix="kestra-soda") as executor:
+            outcomes = list(executor.map(run_scan, scans))
+
+    results = {"exitCodes": {}, "incremental": {}, "progress": {}}
+    for scan, outcome in zip(scans, outcomes):
+        results["exitCodes"][scan["dataSource"]] = outcome["exitCode"]
+        results["progress"][scan["dataSource"]] = outcome["progress"]
+        if outcome["incremental"] is not None:
+            results["incremental"][scan["dataSource"]] = outcome["incremental"]
+
+    return results
+
+
+def main(request_file):
+    with open(request_file) as file:
+        request = json.load(file)
+
+    results = run_scans(request)
+    outputs = dict(results, exitCode=max(results["exitCodes"].values(), default=0))
+
+    print("::" + json.dumps({"outputs": outputs}) + "::")
@@ -0,0 +1,66 @@
+import json
+import os
+import resource
+import sys
+import tempfile
+import traceback
+
+from soda.common.logs import configure_logging
+
+import kestra_soda
+
+RESPONSE = "::kestra-soda-worker::"
+
+
+def respond(response):
+    response["maxRss"] = resource.getrusage(resource.RUSAGE_SELF).ru_maxrss * 1024
+    sys.stdout.write(RESPONSE + json.dumps(response) + "\n")
+    sys.stdout.flush()
+
+
+def scan(request):
+    with tempfile.TemporaryDirectory(prefix="kestra-soda-") as directory:
+        configuration = os.path.join(directory, "configuration.yml")
+
+        with open(configuration, "w") as file:
+            file.write(request["configuration"])
+
+        scans = []
+        for index, item in enumerate(request["scans"]):
+            # named like the checks file of a scan run without worker, soda hashing the name into the check identities
+            os.makedirs(os.path.join(directory, str(index)))
+            checks = os.path.join(directory, str(index), item["checksFile"])
+            with open(checks, "w") as file:
+                file.write(item["checks"])
+
+            # the result is written in the scan directory, shared with the task, and never sent back inline
+            os.makedirs(os.path.dirname(item["result"]), exist_ok=True)
+            scans.append(dict(item, checks=checks))
+
+        return kestra_soda.run_scans(dict(request, configuration=configuration, scans=scans))
+
+
+def serve():
+    configure_logging()
+    respond({"id": None, "ready": True})
+
+    for line in sys.stdin:
+        if not line.strip():
+            continue
+
+        request = json.loads(line)
+
+        if request.get("type") == "ping":
+            respond({"id": request.get("id"), "pong": True})
+            continue
+
+        try:
+            respond(dict(scan(request), id=request.get("id")))
+        except Exception:
+            respond({"id": request.get("id"), "error": traceback.format_exc()})
+
+        sys.stderr.flush()
+
+
+if __name__ == "__main__":
+    serve()
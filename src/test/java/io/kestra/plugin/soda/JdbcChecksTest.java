@@ -0,0 +1,96 @@
+package io.kestra.plugin.soda;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JdbcChecksTest {
+    @Test
+    void parsesSupportedChecks() {
+        JdbcChecks.JdbcCheck rowCount = JdbcChecks.parse("row_count > 0").orElseThrow();
+        assertThat(rowCount.metric(), is("row_count"));
+        assertThat(rowCount.outcome(0), is("fail"));
+        assertThat(rowCount.outcome(10), is("pass"));
+
+        JdbcChecks.JdbcCheck max = JdbcChecks.parse(Map.of("max(unitPrice)", Map.of("warn", "when between 1 and 250", "fail", "when > 250"))).orElseThrow();
+        assertThat(max.columns(), contains("unitPrice"));
+        assertThat(max.outcome(0.5), is("pass"));
+        assertThat(max.outcome(100), is("warn"));
+        assertThat(max.outcome(300), is("fail"));
+        assertThat(max.outcome(null), nullValue());
+
+        JdbcChecks.JdbcCheck duplicates = JdbcChecks.parse("duplicate_count(email) = 0").orElseThrow();
+        assertThat(duplicates.columns(), contains("email"));
+
+        JdbcChecks.JdbcCheck failedRows = JdbcChecks.parse(Map.of("failed rows", Map.of("name", "No region 4", "fail condition", "regionId = 4"))).orElseThrow();
+        assertThat(failedRows.metric(), is("failed_rows"));
+        assertThat(failedRows.name(), is("No region 4"));
+        assertThat(failedRows.outcome(0), is("pass"));
+        assertThat(failedRows.outcome(3), is("fail"));
+
+        assertThat(JdbcChecks.parse("missing_count(email) not between 1 and 5").orElseThrow().outcome(3), is("fail"));
+    }
+
+    @Test
+    void leavesOtherChecksToSoda() {
+        assertThat(JdbcChecks.parse("missing_percent(email) < 5").isPresent(), is(false));
+        assertThat(JdbcChecks.parse("row_count > ${MIN_ROWS}").isPresent(), is(false));
+        assertThat(JdbcChecks.parse("freshness(created_at) < 1d").isPresent(), is(false));
+        assertThat(JdbcChecks.parse(Map.of("missing_count(email) = 0", Map.of("missing values", List.of("N/A")))).isPresent(), is(false));
+        assertThat(JdbcChecks.parse(Map.of("failed rows", Map.of("fail query", "SELECT 1"))).isPresent(), is(false));
+
+        // their identity is not known: Soda hashes the columns of a multi-column metric, and quotes or folds some configurations
+        assertThat(JdbcChecks.parse("duplicate_count(first_name, last_name) = 0").isPresent(), is(false));
+        assertThat(JdbcChecks.parse(Map.of("failed rows", Map.of("fail condition", "'lost' = status"))).isPresent(), is(false));
+        assertThat(JdbcChecks.parse(Map.of("max(amount)", Map.of("fail", "when > 250 # too high"))).isPresent(), is(false));
+        assertThat(JdbcChecks.parse(Map.of("failed rows", Map.of("fail condition", "amount > 0 AND " + "status IS NOT NULL AND ".repeat(4) + "region_id = 4"))).isPresent(), is(false));
+    }
+
+    @Test
+    void plansTablesAndRemaining() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("checks for orders", List.of("row_count > 0", "schema:\n  fail:\n    when required column missing: [id]"));
+        checks.put("checks for customers", List.of("missing_count(email) = 0"));
+        checks.put("checks for orders [daily]", List.of("row_count > 0"));
+        checks.put("discover datasets", Map.of("datasets", List.of("include %")));
+
+        JdbcChecks.Plan plan = JdbcChecks.plan(checks);
+
+        assertThat(plan.tables().keySet(), contains("orders", "customers"));
+        assertThat(plan.remaining().keySet(), contains("checks for orders", "checks for orders [daily]", "discover datasets"));
+        assertThat((List<?>) plan.remaining().get("checks for orders"), hasSize(1));
+
+        plan.fallback("orders");
+
+        assertThat(plan.tables().keySet(), contains("customers"));
+        assertThat((List<?>) plan.remaining().get("checks for orders"), hasSize(2));
+    }
+
+    @Test
+    void derivesPostgresUrl() {
+        assertThat(
+            JdbcScan.url(Map.of("type", "postgres", "connection", Map.of("host", "localhost", "port", 5433, "database", "app", "schema", "sales"))),
+            is("jdbc:postgresql://localhost:5433/app?currentSchema=sales")
+        );
+        assertThat(JdbcScan.url(Map.of("type", "postgres", "host", "localhost", "database", "app")), is("jdbc:postgresql://localhost:5432/app"));
+
+        Map<String, Object> connection = new LinkedHashMap<>();
+        connection.put("host", "db.internal");
+        connection.put("username", "kestra");
+        connection.put("password", "s3cr3t");
+        connection.put("database", "sales db");
+        connection.put("schema", "orders&returns");
+        connection.put("sslmode", "verify-full");
+        connection.put("connection_timeout", 10);
+        assertThat(
+            JdbcScan.url(Map.of("type", "postgres", "connection", connection)),
+            is("jdbc:postgresql://db.internal:5432/sales+db?currentSchema=orders%26returns&sslmode=verify-full&connectTimeout=10")
+        );
+        assertThat(JdbcScan.url(Map.of("type", "bigquery", "connection", Map.of("project_id", "kestra"))), nullValue());
+    }
+}
@@ -0,0 +1,104 @@
+package io.kestra.plugin.soda;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.Metric;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JdbcScanTest {
+    @Test
+    void evaluatesChecksWithOneQueryPerTable() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:soda_jdbc_scan;MODE=PostgreSQL")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE orders (id INT, email VARCHAR(255), amount DECIMAL(10, 2), regionId INT)");
+                statement.execute("INSERT INTO orders VALUES (1, 'a@kestra.io', 10.5, 1), (2, NULL, 300, 4), (2, 'b@kestra.io', 20, 2)");
+            }
+
+            Map<String, Object> checks = new LinkedHashMap<>();
+            checks.put("checks for orders", List.of(
+                "row_count > 0",
+                "missing_count(email) = 0",
+                "duplicate_count(id) = 0",
+                Map.of("max(amount)", Map.of("warn", "when between 100 and 250", "fail", "when > 250")),
+                Map.of("avg(amount)", Map.of("warn", "when > 1000")),
+                Map.of("failed rows", Map.of("name", "No region 4", "fail condition", "regionId = 4"))
+            ));
+            checks.put("checks for missing_table", List.of("row_count > 0"));
+
+            JdbcChecks.Plan plan = JdbcChecks.plan(checks);
+            JdbcScan.Result result = JdbcScan.scan(connection, "kestra", "checks.yml", plan, null, null, LoggerFactory.getLogger(JdbcScanTest.class));
+
+            assertThat(result.checks(), hasSize(6));
+            assertThat(result.checks().stream().map(Check::getOutcome).toList(), contains(
+                CheckOutcome.pass, CheckOutcome.fail, CheckOutcome.fail, CheckOutcome.fail, CheckOutcome.pass, CheckOutcome.fail
+            ));
+            assertThat(result.checks().getLast().getName(), is("No region 4"));
+            assertThat(result.header().getHasFailures(), is(true));
+            assertThat(result.exitCode(), is(2));
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            result.metrics().forEach(metric -> values.put(metric.getMetricName(), metric.getValue()));
+            assertThat(values.get("row_count"), is(3L));
+            assertThat(values.get("missing_count"), is(1L));
+            assertThat(values.get("duplicate_count"), is(1L));
+            assertThat(result.metrics().stream().map(Metric::getIdentity).distinct().count(), is((long) result.metrics().size()));
+
+            // identities computed like Soda does, as BLAKE2b hashes of the check section, line, configuration, data source and file name
+            assertThat(result.checks().getFirst().getIdentity(), is("2714f1e7"));
+            assertThat(result.checks().getLast().getIdentity(), is("761b62c6"));
+            assertThat(result.metrics().stream().map(Metric::getIdentity).toList(), hasItems(
+                "metric-kestra-orders-row_count",
+                "metric-kestra-orders-email-missing_count",
+                "metric-kestra-orders-id-duplicate_count",
+                "metric-kestra-orders-failed_rows-7f904cbf"
+            ));
+            assertThat(result.checks().getFirst().getMetrics(), contains("metric-kestra-orders-row_count"));
+
+            // the unknown table is given back to Soda
+            assertThat(plan.tables().keySet(), contains("orders"));
+            assertThat(plan.remaining().keySet(), contains("checks for missing_table"));
+        }
+    }
+
+    @Test
+    void reportsChecksPastTheDeadlineAsTimedOut() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:soda_jdbc_scan_deadline;MODE=PostgreSQL")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE orders (id INT)");
+            }
+
+            JdbcChecks.Plan plan = JdbcChecks.plan(Map.of("checks for orders", List.of("row_count > 0", "missing_count(id) = 0")));
+            JdbcScan.Result result = JdbcScan.scan(connection, "kestra", "checks.yml", plan, Duration.ofMinutes(1), Instant.now().minusSeconds(1), LoggerFactory.getLogger(JdbcScanTest.class));
+
+            assertThat(result.checks(), hasSize(2));
+            assertThat(result.checks().stream().map(Check::getOutcome).toList(), everyItem(nullValue()));
+            assertThat(result.checks().stream().map(Check::getTimedOut).toList(), everyItem(is(true)));
+            assertThat(result.header().getHasErrors(), is(true));
+
+            // timed out checks are not given back to Soda
+            assertThat(plan.remaining().keySet(), empty());
+        }
+    }
+
+    @Test
+    void boundsQueriesByTheSmallestLimit() {
+        assertThat(JdbcScan.timeLimit(null, null), nullValue());
+        assertThat(JdbcScan.timeLimit(Duration.ofSeconds(5), null), is(Duration.ofSeconds(5)));
+        assertThat(JdbcScan.timeLimit(Duration.ofSeconds(5), Instant.now().plusSeconds(60)), is(Duration.ofSeconds(5)));
+        assertThat(JdbcScan.timeLimit(Duration.ofMinutes(5), Instant.now().plusSeconds(60)), lessThanOrEqualTo(Duration.ofSeconds(60)));
+    }
+}
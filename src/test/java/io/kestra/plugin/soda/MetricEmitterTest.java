@@ -0,0 +1,137 @@
+package io.kestra.plugin.soda;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.AbstractMetricEntry;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.Metric;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class MetricEmitterTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void checkModeTagsEachMetricWithItsCheck() {
+        RunContext runContext = runContextFactory.of();
+        MetricEmitter emitter = new MetricEmitter(runContext, Scan.MetricMode.CHECK, "dataSource", "kestra");
+
+        emitter.metric(metric("orders-row_count", "row_count", 42));
+        emitter.metric(metric("orders-avg-amount", "avg", 12.5));
+        emitter.metric(metric("orders-schema", "schema", "not a number"));
+        emitter.check(check("orders", "amount", "orders-row_count", "orders-avg-amount"));
+        emitter.flush();
+
+        Map<String, AbstractMetricEntry<?>> metrics = metrics(runContext);
+        assertThat(metrics.keySet(), containsInAnyOrder("orders-row_count", "orders-avg-amount"));
+
+        assertThat(metrics.get("orders-row_count").getValue(), is(42.0));
+        assertThat(metrics.get("orders-row_count").getTags(), allOf(
+            hasEntry("dataSource", "kestra"),
+            hasEntry("type", "row_count"),
+            hasEntry("dataset", "orders"),
+            hasEntry("column", "amount")
+        ));
+        assertThat(metrics.get("orders-avg-amount").getValue(), is(12.5));
+    }
+
+    @Test
+    void checkModeTagsMetricsMatchingNoCheckWithTheirIdentity() {
+        RunContext runContext = runContextFactory.of();
+        MetricEmitter emitter = new MetricEmitter(runContext, Scan.MetricMode.CHECK);
+
+        emitter.metric(metric("orders-row_count", "row_count", 3));
+        emitter.metric(metric("orders-unnamed", null, 7L));
+        emitter.flush();
+
+        Map<String, AbstractMetricEntry<?>> metrics = metrics(runContext);
+        assertThat(metrics.get("orders-row_count").getTags(), allOf(hasEntry("type", "row_count"), not(hasKey("dataset"))));
+        assertThat(metrics.get("orders-unnamed").getValue(), is(7.0));
+        assertThat(metrics.get("orders-unnamed").getTags(), hasEntry("type", "orders-unnamed"));
+    }
+
+    @Test
+    void tableModeRollsUpPerTableAndName() {
+        RunContext runContext = runContextFactory.of();
+        MetricEmitter emitter = new MetricEmitter(runContext, Scan.MetricMode.TABLE);
+
+        emitter.metric(metric("orders-missing_count-amount", "missing_count", 2));
+        emitter.metric(metric("orders-missing_count-status", "missing_count", 4.5));
+        emitter.metric(metric("customers-missing_count-name", "missing_count", 1));
+        emitter.check(check("orders", "amount", "orders-missing_count-amount"));
+        emitter.check(check("orders", "status", "orders-missing_count-status"));
+        emitter.check(check("customers", "name", "customers-missing_count-name"));
+        emitter.flush();
+
+        List<AbstractMetricEntry<?>> orders = runContext.metrics().stream()
+            .filter(metric -> "orders".equals(metric.getTags().get("dataset")))
+            .toList();
+        Map<String, Object> values = orders.stream().collect(Collectors.toMap(AbstractMetricEntry::getName, AbstractMetricEntry::getValue));
+
+        assertThat(values, is(Map.of(
+            "missing_count.min", 2.0,
+            "missing_count.max", 4.5,
+            "missing_count.sum", 6.5,
+            "missing_count.count", 2.0
+        )));
+        orders.forEach(metric -> assertThat(metric.getTags(), allOf(hasEntry("type", "missing_count"), not(hasKey("column")))));
+
+        assertThat(runContext.metrics(), hasSize(8));
+    }
+
+    @Test
+    void tableModeRollsUpMetricsMatchingNoCheckWithoutDataset() {
+        RunContext runContext = runContextFactory.of();
+        MetricEmitter emitter = new MetricEmitter(runContext, Scan.MetricMode.TABLE);
+
+        emitter.metric(metric("orders-row_count", "row_count", 10));
+        emitter.metric(metric("customers-row_count", "row_count", 20));
+        emitter.flush();
+
+        Map<String, AbstractMetricEntry<?>> metrics = metrics(runContext);
+        assertThat(metrics.get("row_count.sum").getValue(), is(30.0));
+        assertThat(metrics.get("row_count.count").getValue(), is(2.0));
+        assertThat(metrics.get("row_count.sum").getTags(), not(hasKey("dataset")));
+    }
+
+    @Test
+    void noneModeEmitsNothing() {
+        RunContext runContext = runContextFactory.of();
+        MetricEmitter emitter = new MetricEmitter(runContext, Scan.MetricMode.NONE);
+
+        emitter.metric(metric("orders-row_count", "row_count", 10));
+        emitter.flush();
+
+        assertThat(runContext.metrics(), empty());
+    }
+
+    private static Metric metric(String identity, String name, Object value) {
+        return Metric.builder().identity(identity).metricName(name).value(value).build();
+    }
+
+    private static Check check(String table, String column, String... metrics) {
+        return Check.builder()
+            .identity(table + "-" + column)
+            .name(column + " check")
+            .table(table)
+            .column(column)
+            .metrics(List.of(metrics))
+            .build();
+    }
+
+    private static Map<String, AbstractMetricEntry<?>> metrics(RunContext runContext) {
+        return runContext.metrics().stream().collect(Collectors.toMap(AbstractMetricEntry::getName, metric -> metric));
+    }
+}
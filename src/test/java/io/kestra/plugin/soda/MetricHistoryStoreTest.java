@@ -0,0 +1,65 @@
+package io.kestra.plugin.soda;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.soda.models.Metric;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class MetricHistoryStoreTest {
+    private static final ZonedDateTime START = ZonedDateTime.parse("2024-01-01T10:00:00Z");
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void appendsAndCompacts() throws Exception {
+        MetricHistory options = MetricHistory.builder()
+            .maxPoints(Property.ofValue(3))
+            .maxSegments(Property.ofValue(2))
+            .build();
+        Scan task = Scan.builder()
+            .id(IdUtils.create())
+            .type(Scan.class.getName())
+            .history(options)
+            .build();
+
+        // the history lives in the cache storage of the task
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+
+        for (int day = 0; day < 5; day++) {
+            MetricHistoryStore store = MetricHistoryStore.open(runContext, options, "kestra");
+            store.record(Metric.builder().identity("metric-kestra-orders-row_count").metricName("row_count").value(100 + day).build());
+            store.record(Metric.builder().identity("metric-kestra-orders-distribution").metricName("distribution").value("not a number").build());
+            store.append(START.plusDays(day));
+        }
+
+        MetricHistoryStore store = MetricHistoryStore.open(runContext, options, "kestra");
+
+        // the third and fifth scans compacted the segments, keeping the last 3 values
+        assertThat(store.segments(), hasSize(1));
+        assertThat(store.segments().getFirst().points(), is(3L));
+
+        MetricSegment.Points points = store.points("metric-kestra-orders-row_count");
+        assertThat(points.size(), is(3));
+        assertThat(points.timestamps()[0], is(START.plusDays(2).toInstant().toEpochMilli()));
+        assertThat(points.values()[2], is(104.0));
+
+        assertThat(store.points("metric-kestra-orders-distribution").size(), is(0));
+        assertThat((List<?>) store.request("/work").get("segments"), hasSize(1));
+    }
+}
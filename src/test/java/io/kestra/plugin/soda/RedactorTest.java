@@ -0,0 +1,109 @@
+package io.kestra.plugin.soda;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RedactorTest {
+    @Test
+    void matchesNormalizedKeys() {
+        assertThat(Redactor.isSensitiveKey("Client-Secret"), is(true));
+        assertThat(Redactor.isSensitiveKey("ACCOUNT_INFO_JSON"), is(true));
+        assertThat(Redactor.isSensitiveKey("p.w.d"), is(true));
+        assertThat(Redactor.isSensitiveKey("passw0rd"), is(false));
+        assertThat(Redactor.isSensitiveKey("host"), is(false));
+        assertThat(Redactor.isSensitiveKey(""), is(false));
+        assertThat(Redactor.isSensitiveKey(null), is(false));
+    }
+
+    @Test
+    void keepsUntouchedStructures() {
+        Map<String, Object> connection = new LinkedHashMap<>();
+        connection.put("host", "db.internal");
+        connection.put("port", 5432);
+
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("type", "postgres");
+        configuration.put("connections", new ArrayList<>(List.of(connection)));
+
+        assertThat(Redactor.keys().scrub(configuration), sameInstance(configuration));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void copiesOnlyTheScrubbedPath() {
+        List<Object> schemas = new ArrayList<>(List.of("public", "analytics"));
+        Map<String, Object> connection = new LinkedHashMap<>();
+        connection.put("host", "db.internal");
+        connection.put("password", "hunter22");
+
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("schemas", schemas);
+        configuration.put("connection", connection);
+
+        Map<String, Object> scrubbed = Redactor.keys().scrub(configuration);
+
+        assertThat(scrubbed, not(sameInstance(configuration)));
+        assertThat(scrubbed.get("schemas"), sameInstance(schemas));
+        assertThat(((Map<String, Object>) scrubbed.get("connection")).get("password"), is(Redactor.REDACTED));
+        assertThat(connection.get("password"), is("hunter22"));
+    }
+
+    @Test
+    void masksSecretValuesInLines() {
+        Redactor redactor = Redactor.of(Map.of(
+            "data_source kestra", Map.of(
+                "type", "postgres",
+                "password", "hunter22",
+                "credentials", List.of("abcdef", "cdefgh"),
+                "token", "abc"
+            )
+        ));
+
+        String line = "connection to postgres failed for password hunter22";
+
+        assertThat(redactor.line(line), is("connection to postgres failed for password ******"));
+        assertThat(redactor.line("keys abcdefgh and cdef"), is("keys ****** and cdef"));
+        assertThat(redactor.line("token abc is too short to be searched"), is("token abc is too short to be searched"));
+
+        String clean = "nothing to hide";
+        assertThat(redactor.line(clean), sameInstance(clean));
+        assertThat(Redactor.keys().line(line), sameInstance(line));
+    }
+
+    @Test
+    void keepsTheOutputsAndMetricsOfEvents() {
+        // the password of the default data source is its name, which keys the outputs of the scan
+        Redactor redactor = Redactor.of(Map.of("data_source kestra", Map.of("type", "postgres", "password", "kestra")));
+
+        String outputs = "::{\"outputs\":{\"exitCodes\":{\"kestra\":0},\"progress\":{\"kestra\":{\"checks\":2}}}}::";
+        assertThat(redactor.event(outputs), sameInstance(outputs));
+
+        String metrics = "::{\"metrics\":[{\"name\":\"soda.check\",\"type\":\"counter\",\"value\":1,\"tags\":{\"dataSource\":\"kestra\"}}]}::";
+        assertThat(redactor.event(metrics), sameInstance(metrics));
+
+        String logs = "::{\"metrics\":[{\"name\":\"soda.check\",\"value\":1,\"tags\":{\"dataSource\":\"kestra\"}}],\"logs\":[{\"level\":\"INFO\",\"message\":\"connected as kestra\"}]}::";
+        assertThat(redactor.event(logs), is("::{\"metrics\":[{\"name\":\"soda.check\",\"value\":1,\"tags\":{\"dataSource\":\"kestra\"}}],\"logs\":[{\"level\":\"INFO\",\"message\":\"connected as ******\"}]}::"));
+
+        assertThat(redactor.event("connected to kestra"), is("connected to ******"));
+        assertThat(redactor.event("::{not an event kestra}::"), is("::{not an event ******}::"));
+    }
+
+    @Test
+    void masksSecretValuesInRows() {
+        Redactor redactor = Redactor.of(Map.of("password", "hunter22"));
+
+        Map<String, Object> row = Map.of("id", 1, "note", "reset to hunter22", "api_key", "xyz");
+        Map<String, Object> scrubbed = redactor.scrub(row);
+
+        assertThat(scrubbed.get("id"), is(1));
+        assertThat(scrubbed.get("note"), is("reset to ******"));
+        assertThat(scrubbed.get("api_key"), is(Redactor.REDACTED));
+    }
+}
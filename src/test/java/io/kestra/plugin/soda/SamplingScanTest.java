@@ -0,0 +1,186 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.JacksonMapper;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class SamplingScanTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void requestNeedsExactlyOneOfPercentageOrRowLimit() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> this.request(SamplingScan.builder().build()));
+        assertThat(e.getMessage(), containsString("Exactly one of"));
+
+        e = assertThrows(IllegalArgumentException.class, () -> this.request(SamplingScan.builder()
+            .percentage(Property.ofValue(10.0))
+            .rowLimit(Property.ofValue(100))
+            .build()
+        ));
+        assertThat(e.getMessage(), containsString("Exactly one of"));
+    }
+
+    @Test
+    void requestRejectsOutOfRangeValues() {
+        assertThrows(IllegalArgumentException.class, () -> this.request(SamplingScan.builder().percentage(Property.ofValue(0.0)).build()));
+        assertThrows(IllegalArgumentException.class, () -> this.request(SamplingScan.builder().percentage(Property.ofValue(100.5)).build()));
+        assertThrows(IllegalArgumentException.class, () -> this.request(SamplingScan.builder().rowLimit(Property.ofValue(0)).build()));
+    }
+
+    @Test
+    void request() throws Exception {
+        Map<String, Object> request = this.request(SamplingScan.builder()
+            .percentage(Property.ofValue(10.0))
+            .tables(Property.ofValue(List.of("orders")))
+            .build()
+        );
+
+        assertThat(request.get("percentage"), is(10.0));
+        assertThat(request.get("rowLimit"), nullValue());
+        assertThat(request.get("tables"), is(List.of("orders")));
+        assertThat(request.get("escalate"), is(true));
+    }
+
+    @Test
+    void rewritesTheSampledTablesKeepingTheirAlias() throws Exception {
+        JsonNode rewritten = this.rewrite("postgres", "SELECT COUNT(*) FROM public.orders o WHERE o.status = 'shipped'");
+
+        assertThat(rewritten.get(0).asText(), is("SELECT COUNT(*) FROM (SELECT * FROM public.orders TABLESAMPLE SYSTEM (10.0)) o WHERE o.status = 'shipped'"));
+        assertThat(rewritten.get(1).get(0).asText(), is("orders"));
+
+        assertThat(
+            this.rewrite("bigquery", "SELECT COUNT(*) FROM `project.dataset.orders`").get(0).asText(),
+            is("SELECT COUNT(*) FROM (SELECT * FROM `project.dataset.orders` TABLESAMPLE SYSTEM (10.0 PERCENT)) orders")
+        );
+    }
+
+    @Test
+    void rewritesSubqueriesButNotFromInLiteralsCommentsOrFunctions() throws Exception {
+        assertThat(
+            this.rewrite("postgres", "SELECT 'read from orders', EXTRACT(YEAR FROM created_at), SUBSTRING(name FROM 2) FROM customers -- from orders").get(1).size(),
+            is(0)
+        );
+
+        assertThat(
+            this.rewrite("postgres", "WITH recent AS (SELECT * FROM orders WHERE id > 1) SELECT COUNT(*) FROM recent").get(0).asText(),
+            is("WITH recent AS (SELECT * FROM (SELECT * FROM orders TABLESAMPLE SYSTEM (10.0)) orders WHERE id > 1) SELECT COUNT(*) FROM recent")
+        );
+        assertThat(
+            this.rewrite("postgres", "SELECT * FROM customers WHERE id IN (SELECT customer_id FROM orders)").get(0).asText(),
+            is("SELECT * FROM customers WHERE id IN (SELECT customer_id FROM (SELECT * FROM orders TABLESAMPLE SYSTEM (10.0)) orders)")
+        );
+    }
+
+    @Test
+    void leavesAlreadySampledTablesAndUnsupportedDialectsAlone() throws Exception {
+        assertThat(this.rewrite("snowflake", "SELECT * FROM orders o SAMPLE (5)").get(1).size(), is(0));
+        assertThat(this.rewrite("postgres", "SELECT * FROM orders TABLESAMPLE SYSTEM (5)").get(1).size(), is(0));
+
+        JsonNode supports = this.python("print(json.dumps([kestra_sampling.supports(d) for d in ('postgres', 'oracle', None)]))");
+        assertThat(supports.toString(), is("[true,false,false]"));
+    }
+
+    @Test
+    void escalatesTheFailingSampledTables() throws Exception {
+        JsonNode escalated = this.python("""
+            result = {
+                "checks": [
+                    {"table": "orders", "outcome": "fail", "metrics": ["orders-row_count"]},
+                    {"table": "orders", "outcome": "pass", "metrics": ["orders-avg"]},
+                    {"table": "customers", "outcome": "pass", "metrics": ["customers-row_count"]},
+                ],
+                "metrics": [
+                    {"identity": "orders-row_count", "value": 1},
+                    {"identity": "orders-avg", "value": 2},
+                    {"identity": "customers-row_count", "value": 3},
+                ],
+            }
+            kestra_sampling.mark_sampled(result, {"percentage": 10.0}, {"orders"})
+            tables = kestra_sampling.escalated_tables(result)
+            full = {
+                "checks": [
+                    {"table": "orders", "outcome": "pass", "metrics": ["orders-row_count"]},
+                    {"table": "orders", "outcome": "pass", "metrics": ["orders-avg"]},
+                ],
+                "metrics": [
+                    {"identity": "orders-row_count", "value": 10},
+                    {"identity": "orders-avg", "value": 20},
+                ],
+            }
+            merged, replaced = kestra_sampling.merge(result, full, tables)
+            print(json.dumps({
+                "sampled": result["checks"][0].get("samplingRatio"),
+                "tables": sorted(tables),
+                "merged": merged,
+                "replaced": replaced,
+                "exitCode": kestra_sampling.exit_code(merged, 0),
+            }))
+            """);
+
+        assertThat(escalated.get("sampled").asDouble(), is(0.1));
+        assertThat(escalated.get("tables").toString(), is("[\"orders\"]"));
+        assertThat(escalated.get("replaced").asInt(), is(2));
+        assertThat(escalated.get("exitCode").asInt(), is(0));
+
+        JsonNode merged = escalated.get("merged");
+        assertThat(merged.get("hasFailures").asBoolean(), is(false));
+        assertThat(merged.get("checks").size(), is(3));
+        assertThat(merged.get("checks").get(1).get("escalated").asBoolean(), is(true));
+        assertThat(merged.get("checks").get(0).has("escalated"), is(false));
+        assertThat(merged.get("metrics").toString(), allOf(containsString("\"value\":3"), containsString("\"value\":10"), not(containsString("\"value\":1,"))));
+    }
+
+    private Map<String, Object> request(SamplingScan sampling) throws Exception {
+        Scan task = Scan.builder()
+            .id("unit-test")
+            .type(Scan.class.getName())
+            .sampling(sampling)
+            .build();
+
+        return task.samplingRequest(runContextFactory.of());
+    }
+
+    private JsonNode rewrite(String dialect, String sql) throws Exception {
+        return this.python("print(json.dumps(kestra_sampling.rewrite(" + JacksonMapper.ofJson().writeValueAsString(sql) +
+            ", {\"percentage\": 10.0, \"tables\": {\"orders\"}}, \"" + dialect + "\"), default=sorted))");
+    }
+
+    private JsonNode python(String code) throws IOException, InterruptedException {
+        Files.writeString(directory.resolve(PythonScripts.SAMPLING), PythonScripts.load(PythonScripts.SAMPLING));
+
+        Process process = new ProcessBuilder("python3", "-c", "import json\nimport kestra_sampling\n" + code)
+            .directory(directory.toFile())
+            .redirectErrorStream(true)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(30, TimeUnit.SECONDS), is(true));
+        assertThat(output, process.exitValue(), is(0));
+
+        return JacksonMapper.ofJson().readTree(output);
+    }
+}
@@ -0,0 +1,89 @@
+package io.kestra.plugin.soda;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.flows.State;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.scripts.runner.docker.Docker;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.TenantResult;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class ScanManyTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void run() throws Exception {
+        ScanMany task = ScanMany.builder()
+            .id(IdUtils.create())
+            .type(ScanMany.class.getName())
+            .taskRunner(Docker.builder().type(Docker.class.getName()).build())
+            .configurations(Property.ofValue(Map.of(
+                "acme", configuration("kestra_unit_test"),
+                "globex", configuration("kestra_unit_test_missing")
+            )))
+            .checks(Map.of("checks for orderDetail", List.of("row_count > 0")))
+            .concurrency(Property.ofValue(2))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, Map.of());
+        ScanMany.Output runOutput = task.run(runContext);
+
+        assertThat(runOutput.getTenants().keySet(), containsInAnyOrder("acme", "globex"));
+
+        // the dataset of globex has no orderDetail table, its scan fails without affecting acme
+        TenantResult acme = runOutput.getTenants().get("acme");
+        assertThat(acme.getError(), nullValue());
+        assertThat(acme.getSummary().getChecks(), is(1L));
+        assertThat(acme.getSummary().getOutcomes().get(CheckOutcome.pass), is(1L));
+
+        TenantResult globex = runOutput.getTenants().get("globex");
+        assertThat(globex.getError() != null || Boolean.TRUE.equals(globex.getSummary().getHasErrors()), is(true));
+        assertThat(runOutput.finalState(), is(Optional.of(State.Type.FAILED)));
+
+        Map<Object, List<Object>> outcomes;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(runOutput.getChecksUri())))) {
+            outcomes = FileSerde.readAll(reader).collectList().block().stream()
+                .map(record -> (Map<?, ?>) record)
+                .collect(Collectors.groupingBy(
+                    record -> record.get("tenant"),
+                    Collectors.mapping(record -> ((Map<?, ?>) record.get("check")).get("outcome"), Collectors.toList())
+                ));
+        }
+
+        assertThat(outcomes.get("acme"), contains("pass"));
+        assertThat(outcomes.getOrDefault("globex", List.of()), not(hasItem("pass")));
+    }
+
+    private static Map<String, Object> configuration(String dataset) throws Exception {
+        return Map.of(
+            "data_source kestra", Map.of(
+                "type", "bigquery",
+                "connection", Map.of(
+                    "project_id", "kestra-unit-test",
+                    "dataset", dataset,
+                    "account_info_json", UtilsTest.serviceAccount()
+                )
+            )
+        );
+    }
+}
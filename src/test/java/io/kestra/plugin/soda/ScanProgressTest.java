@@ -0,0 +1,139 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.soda.models.ScanSummary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ScanProgressTest {
+    /**
+     * Stands in for the Soda and ruamel modules imported by kestra_soda.py, so that its progress hooks
+     * run without Soda installed.
+     */
+    private static final String STUBS = """
+        import sys, types
+        def stub(name, **attributes):
+            module = types.ModuleType(name)
+            module.__dict__.update(attributes)
+            sys.modules[name] = module
+        class Check:
+            pass
+        class Query:
+            pass
+        for name in ("ruamel", "soda", "soda.execution", "soda.execution.check", "soda.execution.query", "soda.soda_cloud"):
+            stub(name)
+        stub("ruamel.yaml", YAML=object)
+        stub("soda.execution.check.check", Check=Check)
+        stub("soda.execution.query.query", Query=Query)
+        stub("soda.scan", Scan=object)
+        stub("soda.soda_cloud.soda_cloud", SodaCloud=object)
+        import kestra_soda
+        """;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void eachCheckOutcomeIsReportedOnce() throws Exception {
+        List<JsonNode> events = this.events("""
+            import time
+            from types import SimpleNamespace
+            progress = {"dataSource": "orders_db", "checks": 0, "start": time.monotonic()}
+            kestra_soda.PROGRESS.set(progress)
+            check = Check()
+            check.name = "row_count > 0"
+            check.partition = SimpleNamespace(table=SimpleNamespace(table_name="orders"))
+            check.column = SimpleNamespace(column_name="amount")
+            check.outcome = None
+            check.outcome = SimpleNamespace(value="fail")
+            check.outcome = SimpleNamespace(value="pass")
+            other = Check()
+            other.outcome = SimpleNamespace(value="pass")
+            print("::" + json.dumps({"progress": progress}) + "::")
+            """);
+
+        assertThat(events, hasSize(3));
+
+        JsonNode failed = events.get(0);
+        assertThat(failed.at("/metrics/0/name").asText(), is("soda.check"));
+        assertThat(failed.at("/metrics/0/value").asInt(), is(1));
+        assertThat(failed.at("/metrics/0/tags").toString(), is("{\"dataSource\":\"orders_db\",\"outcome\":\"fail\",\"dataset\":\"orders\",\"column\":\"amount\"}"));
+        assertThat(failed.at("/logs/0/level").asText(), is("WARN"));
+        assertThat(failed.at("/logs/0/message").asText(), startsWith("Check 'row_count > 0' on orders: fail after "));
+
+        JsonNode passed = events.get(1);
+        assertThat(passed.at("/metrics/0/tags").toString(), is("{\"dataSource\":\"orders_db\",\"outcome\":\"pass\"}"));
+        assertThat(passed.at("/logs/0/level").asText(), is("INFO"));
+        assertThat(passed.at("/logs/0/message").asText(), startsWith("Check 'check': pass after "));
+
+        assertThat(events.get(2).at("/progress/checks").asInt(), is(2));
+    }
+
+    @Test
+    void checksAreNotReportedOutsideOfAScan() throws Exception {
+        List<JsonNode> events = this.events("""
+            from types import SimpleNamespace
+            Check().outcome = SimpleNamespace(value="pass")
+            """);
+
+        assertThat(events, empty());
+    }
+
+    @Test
+    void reconciledProgressIsNotWarned() {
+        ScanSummary summary = ScanSummary.builder().checks(5L).cached(1L).errors(1L).build();
+
+        assertThat(Scan.reconciliationWarning("kestra", 3, summary).isPresent(), is(false));
+    }
+
+    @Test
+    void unreconciledProgressIsWarned() {
+        ScanSummary summary = ScanSummary.builder().checks(5L).cached(1L).errors(1L).build();
+
+        assertThat(
+            Scan.reconciliationWarning("orders_db", 2, summary).orElseThrow(),
+            is("The scan of data source 'orders_db' reported the outcome of 2 checks while running but its result holds 3 evaluated checks, the result is kept")
+        );
+    }
+
+    /**
+     * @return the `::{...}::` events written on stdout by the code, run after importing kestra_soda.py
+     */
+    private List<JsonNode> events(String code) throws IOException, InterruptedException {
+        for (String script : List.of(PythonScripts.MODULE, PythonScripts.SAMPLING)) {
+            Files.writeString(directory.resolve(script), PythonScripts.load(script));
+        }
+
+        Process process = new ProcessBuilder("python3", "-c", STUBS + "import json\n" + code)
+            .directory(directory.toFile())
+            .redirectErrorStream(true)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(30, TimeUnit.SECONDS), is(true));
+        assertThat(output, process.exitValue(), is(0));
+
+        return output.lines()
+            .filter(line -> line.startsWith("::{") && line.endsWith("}::"))
+            .map(line -> {
+                try {
+                    return JacksonMapper.ofJson().readTree(line.substring(2, line.length() - 2));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            })
+            .toList();
+    }
+}
@@ -0,0 +1,224 @@
+package io.kestra.plugin.soda;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import io.kestra.core.models.flows.State;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.ColumnStatistics;
+import io.kestra.plugin.soda.models.Metric;
+import io.kestra.plugin.soda.models.ScanResult;
+import io.kestra.plugin.soda.models.ScanSummary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScanResultReaderTest {
+    static final String RESULT = """
+        {
+          "definitionName": null,
+          "defaultDataSource": "kestra",
+          "dataTimestamp": "2024-01-01T10:00:00+00:00",
+          "scanStartTimestamp": "2024-01-01T10:00:00+00:00",
+          "scanEndTimestamp": "2024-01-01T10:00:05+00:00",
+          "hasErrors": false,
+          "hasWarnings": false,
+          "hasFailures": false,
+          "metrics": [
+            {"identity": "metric-kestra-orderDetail-row_count", "metricName": "row_count", "value": 2},
+            {"identity": "metric-kestra-orderDetail-max-unitPrice", "metricName": "max", "value": 200.0}
+          ],
+          "checks": [
+            {
+              "identity": "kestra-orderDetail-row_count",
+              "name": "row_count > 0",
+              "type": "generic",
+              "definition": "checks for orderDetail:\\n  row_count > 0",
+              "location": {"filePath": "checks.yml", "line": 2, "col": 5},
+              "dataSource": "kestra",
+              "table": "orderDetail",
+              "column": null,
+              "metrics": ["metric-kestra-orderDetail-row_count"],
+              "outcome": "pass"
+            },
+            {
+              "identity": "kestra-orderDetail-max-unitPrice",
+              "name": "max(unitPrice)",
+              "type": "generic",
+              "dataSource": "kestra",
+              "table": "orderDetail",
+              "column": "unitPrice",
+              "metrics": ["metric-kestra-orderDetail-max-unitPrice"],
+              "outcome": "warn"
+            }
+          ],
+          "logs": [{"level": "INFO", "message": "Scan summary", "timestamp": "2024-01-01T10:00:05+00:00", "index": 0}],
+          "automatedMonitoringChecks": [],
+          "profiling": [],
+          "metadata": []
+        }
+        """;
+
+    static ScanResult read(String json, List<Metric> metrics, List<Check> checks) throws IOException {
+        return read(json.getBytes(StandardCharsets.UTF_8), metrics, checks);
+    }
+
+    static ScanResult read(byte[] result, List<Metric> metrics, List<Check> checks) throws IOException {
+        return ScanResultReader.read(new ByteArrayInputStream(result), new ScanResultReader.Listener() {
+            @Override
+            public void metric(Metric metric) {
+                metrics.add(metric);
+            }
+
+            @Override
+            public void check(Check check) {
+                checks.add(check);
+            }
+        });
+    }
+
+    @Test
+    void streamsMetricsAndChecks() throws Exception {
+        List<Metric> metrics = new ArrayList<>();
+        List<Check> checks = new ArrayList<>();
+
+        ScanResult summary = read(RESULT, metrics, checks);
+
+        assertThat(summary.getDefaultDataSource(), is("kestra"));
+        assertThat(summary.getScanEndTimestamp().getSecond(), is(5));
+        assertThat(summary.getMetrics(), nullValue());
+        assertThat(summary.getChecks(), nullValue());
+
+        assertThat(metrics, hasSize(2));
+        assertThat(metrics.get(0).getValue(), is(2));
+        assertThat(metrics.get(1).getValue(), is(200.0));
+
+        assertThat(checks, hasSize(2));
+        assertThat(checks.get(1).getColumn(), is("unitPrice"));
+        assertThat(checks.get(1).getOutcome(), is(CheckOutcome.warn));
+    }
+
+    @Test
+    void derivesFlagsFromOutcomes() throws Exception {
+        ScanResult summary = read(RESULT, new ArrayList<>(), new ArrayList<>());
+
+        assertThat(summary.getHasWarnings(), is(true));
+        assertThat(summary.getHasFailures(), is(false));
+        assertThat(summary.getHasErrors(), is(false));
+    }
+
+    @Test
+    void keepsScanLevelFlags() throws Exception {
+        ScanResult summary = read("{\"hasErrors\": true, \"metrics\": [], \"checks\": []}", new ArrayList<>(), new ArrayList<>());
+
+        assertThat(summary.getHasErrors(), is(true));
+        assertThat(summary.getHasWarnings(), is(false));
+    }
+
+    @Test
+    void keepsCompletedChecksOfPartialScans() throws Exception {
+        String json = """
+            {
+              "hasErrors": true,
+              "metrics": [{"identity": "metric-kestra-orders-row_count", "metricName": "row_count", "value": 2}],
+              "checks": [
+                {"name": "row_count > 0", "table": "orders", "metrics": ["metric-kestra-orders-row_count"], "outcome": "pass"},
+                {"name": "failed rows", "table": "orders", "outcome": null, "timedOut": true}
+              ]
+            }
+            """;
+
+        ScanResultCollector collector = new ScanResultCollector(null, false, new MetricEmitter(null, Scan.MetricMode.NONE));
+        ScanResult header = ScanResultReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), collector);
+        ScanSummary summary = collector.summary(header);
+
+        assertThat(collector.result(header).getChecks(), hasSize(2));
+        assertThat(summary.getErrors(), is(1L));
+        assertThat(summary.getTimedOut(), is(1L));
+        assertThat(summary.getOutcomes().get(CheckOutcome.pass), is(1L));
+        assertThat(Scan.Output.builder().summary(summary).build().finalState(), is(Optional.of(State.Type.WARNING)));
+
+        ScanSummary failed = ScanSummary.builder().errors(2L).timedOut(1L).hasErrors(true).hasWarnings(false).hasFailures(false).build();
+        assertThat(Scan.Output.builder().summary(failed).build().finalState(), is(Optional.of(State.Type.FAILED)));
+    }
+
+    @Test
+    void parsesProfilingAndDiscovery() throws Exception {
+        String json = """
+            {
+              "metrics": [],
+              "checks": [],
+              "profiling": [
+                {
+                  "table": "orders",
+                  "dataSource": "kestra",
+                  "rowCount": 3,
+                  "columnProfiles": [
+                    {
+                      "columnName": "amount",
+                      "profile": {
+                        "mins": [1, 2],
+                        "maxs": [9, 8],
+                        "min": 1,
+                        "max": 9,
+                        "frequent_values": [{"value": 2, "frequency": 2}],
+                        "avg": 4.3,
+                        "distinct": 2,
+                        "missing_count": 0,
+                        "histogram": {"boundaries": [1.0, 5.0, 9.0], "frequencies": [2, 1]}
+                      }
+                    }
+                  ]
+                }
+              ],
+              "metadata": [
+                {"table": "orders", "dataSource": "kestra", "rowCount": 3, "schema": [{"columnName": "amount", "sourceDataType": "integer"}]}
+              ]
+            }
+            """;
+
+        ScanResultCollector collector = new ScanResultCollector(null, false, new MetricEmitter(null, Scan.MetricMode.NONE));
+        ScanResult result = collector.result(ScanResultReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), collector));
+
+        assertThat(result.getProfiling(), hasSize(1));
+        ColumnStatistics statistics = result.getProfiling().getFirst().getColumnProfiles().getFirst().getProfile();
+        assertThat(statistics.getFrequentValues().getFirst().getFrequency(), is(2L));
+        assertThat(statistics.getMissingCount(), is(0L));
+        assertThat(statistics.getHistogram().getFrequencies(), contains(2L, 1L));
+
+        assertThat(result.getMetadata(), hasSize(1));
+        assertThat(result.getMetadata().getFirst().getSchema().getFirst().getSourceDataType(), is("integer"));
+    }
+
+    @Test
+    void readsCbor() throws Exception {
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(JacksonMapper.ofJson().readTree(RESULT));
+        List<Metric> metrics = new ArrayList<>();
+        List<Check> checks = new ArrayList<>();
+
+        ScanResult summary = read(cbor, metrics, checks);
+
+        assertThat(summary.getScanEndTimestamp().getSecond(), is(5));
+        assertThat(summary.getHasWarnings(), is(true));
+        assertThat(metrics.get(1).getValue(), is(200.0));
+        assertThat(checks.get(1).getOutcome(), is(CheckOutcome.warn));
+    }
+
+    @Test
+    void rejectsInvalidDocument() {
+        assertThrows(IOException.class, () -> read("[]", new ArrayList<>(), new ArrayList<>()));
+        assertThrows(IOException.class, () -> read("{\"checks\": {}}", new ArrayList<>(), new ArrayList<>()));
+    }
+}
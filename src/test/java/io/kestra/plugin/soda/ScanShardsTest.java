@@ -0,0 +1,82 @@
+package io.kestra.plugin.soda;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.plugin.soda.models.ScanResult;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ScanShardsTest {
+    private static Map<String, Object> checks() {
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("filter orders [daily]", Map.of("where", "created_at > now() - interval '1 day'"));
+        checks.put("checks for orders", List.of("row_count > 0", "missing_count(id) = 0", "duplicate_count(id) = 0"));
+        checks.put("checks for customers", List.of("row_count > 0", "missing_count(email) = 0"));
+        checks.put("checks for territory", List.of("row_count > 0"));
+        checks.put("checks for regions", List.of("row_count > 0"));
+        checks.put("discover datasets", Map.of("datasets", List.of("include %")));
+
+        return checks;
+    }
+
+    @Test
+    void singleShard() {
+        Map<String, Object> checks = checks();
+
+        assertThat(ScanShards.split(checks, 1), contains(checks));
+        assertThat(ScanShards.split(Map.of("checks for orders", List.of("row_count > 0")), 4), hasSize(1));
+    }
+
+    @Test
+    void balancesTables() {
+        List<Map<String, Object>> shards = ScanShards.split(checks(), 2);
+
+        assertThat(shards, hasSize(2));
+        assertThat(shards.get(0).keySet(), containsInAnyOrder("filter orders [daily]", "discover datasets", "checks for orders", "checks for regions"));
+        assertThat(shards.get(1).keySet(), containsInAnyOrder("filter orders [daily]", "checks for customers", "checks for territory"));
+    }
+
+    @Test
+    void neverMoreShardsThanTables() {
+        List<Map<String, Object>> shards = ScanShards.split(checks(), 10);
+
+        assertThat(shards, hasSize(4));
+        assertThat(shards.stream().mapToLong(shard -> shard.keySet().stream().filter(key -> key.startsWith("checks for")).count()).sum(), is(4L));
+    }
+
+    @Test
+    void splitsEachDataSource() {
+        Map<String, Map<String, Object>> dataSources = new LinkedHashMap<>();
+        dataSources.put("orders_db", checks());
+        dataSources.put("billing_db", Map.of("checks for invoices", List.of("row_count > 0")));
+
+        List<Map<String, Map<String, Object>>> shards = ScanShards.splitDataSources(dataSources, 2);
+
+        assertThat(shards, hasSize(2));
+        assertThat(shards.get(0).keySet(), contains("orders_db", "billing_db"));
+        assertThat(shards.get(1).keySet(), contains("orders_db"));
+        assertThat(shards.get(1).get("orders_db").keySet(), containsInAnyOrder("filter orders [daily]", "checks for customers", "checks for territory"));
+    }
+
+    @Test
+    void mergesHeaders() {
+        ZonedDateTime now = ZonedDateTime.now();
+
+        ScanResult merged = ScanShards.merge(List.of(
+            ScanResult.builder().defaultDataSource("kestra").scanStartTimestamp(now).scanEndTimestamp(now.plusSeconds(5)).hasErrors(false).hasWarnings(true).hasFailures(false).build(),
+            ScanResult.builder().defaultDataSource("kestra").scanStartTimestamp(now.minusSeconds(1)).scanEndTimestamp(now.plusSeconds(3)).hasErrors(false).hasWarnings(false).hasFailures(true).build()
+        ));
+
+        assertThat(merged.getScanStartTimestamp(), is(now.minusSeconds(1)));
+        assertThat(merged.getScanEndTimestamp(), is(now.plusSeconds(5)));
+        assertThat(merged.getHasWarnings(), is(true));
+        assertThat(merged.getHasFailures(), is(true));
+        assertThat(merged.getHasErrors(), is(false));
+    }
+}
@@ -1,7 +1,11 @@
 package io.kestra.plugin.soda;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
@@ -14,14 +18,17 @@ import io.kestra.core.models.flows.State;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.core.utils.TestsUtils;
 import io.kestra.plugin.scripts.runner.docker.Docker;
+import io.kestra.plugin.soda.models.CheckOutcome;
 
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 class ScanTest {
@@ -75,6 +82,61 @@ class ScanTest {
         assertThat(runOutput.finalState().get(), is(State.Type.WARNING));
     }
 
+    @Test
+    void store() throws Exception {
+        Scan task = Scan.builder()
+            .id("unit-test")
+            .type(Scan.class.getName())
+            .taskRunner(Docker.builder().type(Docker.class.getName()).build())
+            .configuration(
+                Property.ofValue(
+                    JacksonMapper.ofYaml().readValue(
+                        "data_source kestra:\n" +
+                            "  type: bigquery\n" +
+                            "  connection:\n" +
+                            "    project_id: \"kestra-unit-test\"\n" +
+                            "    dataset: kestra_unit_test\n" +
+                            "    account_info_json: |\n" +
+                            "      " + StringUtils.replace(UtilsTest.serviceAccount(), "\n", "\n      "),
+                        TYPE_REFERENCE
+                    )
+                )
+            )
+            .checks(
+                JacksonMapper.ofYaml().readValue(
+                    "checks for orderDetail:\n" +
+                        "  - row_count > 0\n" +
+                        "  - max(unitPrice):\n" +
+                        "      warn: when between 1 and 250\n" +
+                        "      fail: when > 250\n",
+                    TYPE_REFERENCE
+                )
+            )
+            .store(Property.ofValue(true))
+            .keepResult(Property.ofValue(true))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, ImmutableMap.of());
+        Scan.Output runOutput = task.run(runContext);
+
+        assertThat(runOutput.getResult(), nullValue());
+        assertThat(runOutput.getChecksUri(), notNullValue());
+        assertThat(runOutput.getMetricsUri(), notNullValue());
+        assertThat(runOutput.getSummary().getChecks(), is(2L));
+        assertThat(runOutput.getSummary().getOutcomes().get(CheckOutcome.pass), is(1L));
+        assertThat(runOutput.getSummary().getOutcomes().get(CheckOutcome.warn), is(1L));
+        assertThat(runOutput.finalState().get(), is(State.Type.WARNING));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(runContext.storage().getFile(runOutput.getChecksUri())))) {
+            assertThat(FileSerde.readAll(reader).collectList().block(), hasSize(2));
+        }
+
+        assertThat(runOutput.getResultUris(), hasSize(1));
+        try (InputStream inputStream = new GZIPInputStream(runContext.storage().getFile(runOutput.getResultUris().getFirst()))) {
+            assertThat(JacksonMapper.ofJson().readValue(inputStream, TYPE_REFERENCE), hasKey("checks"));
+        }
+    }
+
     @Test
     void failed() throws Exception {
         Scan task = Scan.builder()
@@ -138,8 +200,7 @@ class ScanTest {
             )
             .checks(
                 JacksonMapper.ofYaml().readValue(
-                    "checks for orderDetail:\n" +
-                        "checks for invalid_table:\n" +
+                    "checks for invalid_table:\n" +
                         "  - row_count > 0",
                     TYPE_REFERENCE
                 )
@@ -155,4 +216,26 @@ class ScanTest {
         assertThat(runOutput.getResult().getHasWarnings(), is(false));
         assertThat(runOutput.finalState().get(), is(State.Type.FAILED));
     }
+
+    @Test
+    void invalidChecks() throws Exception {
+        Scan task = Scan.builder()
+            .id("unit-test")
+            .type(Scan.class.getName())
+            .configuration(Property.ofValue(Map.of("data_source kestra", Map.of("type", "bigquery"))))
+            .checks(
+                JacksonMapper.ofYaml().readValue(
+                    "checks for orderDetail:\n" +
+                        "checks for invalid_table:\n" +
+                        "  - row_count > 0",
+                    TYPE_REFERENCE
+                )
+            )
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, task, ImmutableMap.of());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> task.run(runContext));
+
+        assertThat(exception.getMessage(), containsString("'checks for orderDetail' must contain a list of checks"));
+    }
 }
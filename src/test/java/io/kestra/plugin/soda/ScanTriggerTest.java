@@ -0,0 +1,122 @@
+package io.kestra.plugin.soda;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.triggers.Trigger;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.kv.KVMetadata;
+import io.kestra.core.storages.kv.KVValueAndMetadata;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.soda.models.Check;
+import io.kestra.plugin.soda.models.CheckOutcome;
+import io.kestra.plugin.soda.models.ScanResult;
+import io.kestra.plugin.soda.models.ScanSummary;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class ScanTriggerTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void firstPollOnlyRecordsOutcomes() throws Exception {
+        ScanTrigger trigger = trigger();
+        Map.Entry<ConditionContext, Trigger> context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        assertThat(evaluate(trigger, context, List.of(), true, CheckOutcome.pass, CheckOutcome.fail), is(Optional.empty()));
+
+        Object recorded = context.getKey().getRunContext().namespaceKv(context.getKey().getFlow().getNamespace())
+            .getValue(stateKey(context, trigger)).orElseThrow().value();
+        assertThat(recorded, is(Map.of("check-0", "pass", "check-1", "fail")));
+    }
+
+    @Test
+    void outcomesTriggerOnce() throws Exception {
+        ScanTrigger trigger = trigger();
+        Map.Entry<ConditionContext, Trigger> context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        assertThat(evaluate(trigger, context, List.of(CheckOutcome.fail), false, CheckOutcome.pass, CheckOutcome.pass), is(Optional.empty()));
+
+        Optional<Execution> execution = evaluate(trigger, context, List.of(CheckOutcome.fail), false, CheckOutcome.pass, CheckOutcome.fail);
+        assertThat(execution.isPresent(), is(true));
+        assertThat((List<?>) execution.get().getTrigger().getVariables().get("matchedChecks"), hasSize(1));
+        assertThat((List<?>) execution.get().getTrigger().getVariables().get("changedChecks"), hasSize(1));
+
+        assertThat(evaluate(trigger, context, List.of(CheckOutcome.fail), false, CheckOutcome.pass, CheckOutcome.fail), is(Optional.empty()));
+    }
+
+    @Test
+    void onChangeTriggersOnOutcomeChange() throws Exception {
+        ScanTrigger trigger = trigger();
+        Map.Entry<ConditionContext, Trigger> context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        assertThat(evaluate(trigger, context, List.of(), true, CheckOutcome.pass, CheckOutcome.warn), is(Optional.empty()));
+        assertThat(evaluate(trigger, context, List.of(), true, CheckOutcome.pass, CheckOutcome.warn), is(Optional.empty()));
+
+        Optional<Execution> execution = evaluate(trigger, context, List.of(), true, CheckOutcome.pass, CheckOutcome.pass);
+        assertThat(execution.isPresent(), is(true));
+        assertThat((List<?>) execution.get().getTrigger().getVariables().get("changedChecks"), hasSize(1));
+    }
+
+    @Test
+    void unreadablePreviousOutcomesAreIgnored() throws Exception {
+        ScanTrigger trigger = trigger();
+        Map.Entry<ConditionContext, Trigger> context = TestsUtils.mockTrigger(runContextFactory, trigger);
+        context.getKey().getRunContext().namespaceKv(context.getKey().getFlow().getNamespace())
+            .put(stateKey(context, trigger), new KVValueAndMetadata(new KVMetadata(null, (Duration) null), "not the outcomes of a poll"));
+
+        // handled like a first poll, then overwritten with outcomes the next poll can compare with
+        assertThat(evaluate(trigger, context, List.of(), true, CheckOutcome.pass, CheckOutcome.pass), is(Optional.empty()));
+        assertThat(evaluate(trigger, context, List.of(), true, CheckOutcome.pass, CheckOutcome.fail).isPresent(), is(true));
+    }
+
+    private static ScanTrigger trigger() {
+        return ScanTrigger.builder()
+            .id(IdUtils.create())
+            .type(ScanTrigger.class.getName())
+            .configuration(Property.ofValue(Map.of("data_source kestra", Map.of("type", "postgres"))))
+            .checks(Map.of("checks for orders", List.of("row_count > 0")))
+            .warmWorker(ScanWorker.builder().type(Property.ofValue(ScanWorker.Type.DOCKER)).build())
+            .build();
+    }
+
+    private static String stateKey(Map.Entry<ConditionContext, Trigger> context, ScanTrigger trigger) {
+        return "soda-trigger_" + context.getKey().getFlow().getId() + "_" + trigger.getId();
+    }
+
+    private static Optional<Execution> evaluate(ScanTrigger trigger, Map.Entry<ConditionContext, Trigger> context, List<CheckOutcome> outcomes, boolean onChange, CheckOutcome... checkOutcomes) throws Exception {
+        List<Check> checks = new ArrayList<>();
+        for (int i = 0; i < checkOutcomes.length; i++) {
+            checks.add(Check.builder()
+                .identity("check-" + i)
+                .name("check " + i)
+                .table("orders")
+                .dataSource("kestra")
+                .outcome(checkOutcomes[i])
+                .build()
+            );
+        }
+
+        Scan.Output scanOutput = Scan.Output.builder()
+            .result(ScanResult.builder().checks(checks).build())
+            .summary(ScanSummary.builder().checks((long) checks.size()).build())
+            .build();
+
+        return trigger.evaluate(context.getKey(), context.getValue(), scanOutput, outcomes, onChange);
+    }
+}
@@ -122,6 +122,20 @@ class SecurityHardeningTest {
         assertThat(result.get("type"), is("postgres"));
     }
 
+    @Test
+    void scrub_keepsNonSensitiveValuesEqualToASecret() throws Exception {
+        Map<String, Object> input = new LinkedHashMap<>();
+        input.put("username", "kestra");
+        input.put("password", "kestra");
+        input.put("database", "kestra_db");
+
+        Map<String, Object> result = scrub(input);
+
+        assertThat(result.get("password"), is("******"));
+        assertThat(result.get("username"), is("kestra"));
+        assertThat(result.get("database"), is("kestra_db"));
+    }
+
     @Test
     void scrub_recursesIntoLists() throws Exception {
         // A non-sensitive key whose value is a list of maps: secrets nested in list elements
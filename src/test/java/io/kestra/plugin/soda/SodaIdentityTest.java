@@ -0,0 +1,58 @@
+package io.kestra.plugin.soda;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SodaIdentityTest {
+    @Test
+    void blake2b() {
+        // RFC 7693 test vector
+        assertThat(
+            HexFormat.of().formatHex(SodaIdentity.blake2b("abc".getBytes(StandardCharsets.UTF_8), 64)),
+            is("ba80a53f981c4d0d6a2797b69f12f6e94c212f14685ac4b74b12bb6fdbffa2d17d87c5392aab792dc252d5de4533cc9518d38aa8dbf1925ab92386edd4009923")
+        );
+        assertThat(HexFormat.of().formatHex(SodaIdentity.blake2b(new byte[0], 4)), is("1271cf25"));
+        assertThat(HexFormat.of().formatHex(SodaIdentity.blake2b("z".repeat(300).getBytes(StandardCharsets.UTF_8), 4)), is("549aa608"));
+    }
+
+    @Test
+    void hashSkipsNullParts() {
+        assertThat(SodaIdentity.hash(Arrays.asList("checks for orders", null, "row_count > 0")), is(SodaIdentity.hash(List.of("checks for orders", "row_count > 0"))));
+        assertThat(SodaIdentity.hash(Arrays.asList(null, null)), nullValue());
+    }
+
+    @Test
+    void checkIdentityHashesTheConfigurationWithoutItsName() {
+        String identity = SodaIdentity.check("checks for orders", "failed rows", Map.of("name", "No region 4", "fail condition", "regionId = 4"), "kestra", "checks.yml");
+
+        assertThat(identity, is("761b62c6"));
+        assertThat(SodaIdentity.check("checks for orders", "failed rows", Map.of("fail condition", "regionId = 4"), "kestra", "checks.yml"), is(identity));
+        assertThat(SodaIdentity.check("checks for orders", "failed rows", Map.of("fail condition", "regionId = 4"), "kestra", "checks-kestra.yml"), not(identity));
+        assertThat(SodaIdentity.check("checks for orders", "row_count > 0", null, "kestra", "checks.yml"), is("2714f1e7"));
+    }
+
+    @Test
+    void metricIdentity() {
+        assertThat(SodaIdentity.metric("kestra", "orders", null, "row_count", null), is("metric-kestra-orders-row_count"));
+        assertThat(SodaIdentity.metric("kestra", "orders", "email", "missing_count", null), is("metric-kestra-orders-email-missing_count"));
+        assertThat(SodaIdentity.metric("kestra", "orders", null, "failed_rows", List.of("regionId = 4")), is("metric-kestra-orders-failed_rows-7f904cbf"));
+    }
+
+    @Test
+    void plainValues() {
+        assertThat(SodaIdentity.plain("fail", "when > 250"), is(true));
+        assertThat(SodaIdentity.plain("fail condition", "status = 'lost'"), is(true));
+        assertThat(SodaIdentity.plain("fail condition", "'lost' = status"), is(false));
+        assertThat(SodaIdentity.plain("fail", "when > 250 # too high"), is(false));
+        assertThat(SodaIdentity.plain("fail", "true"), is(false));
+        assertThat(SodaIdentity.plain("fail", 250), is(false));
+    }
+}
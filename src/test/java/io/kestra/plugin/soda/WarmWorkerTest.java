@@ -0,0 +1,194 @@
+package io.kestra.plugin.soda;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WarmWorkerTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmWorkerTest.class);
+
+    /**
+     * Answers the requests like the worker script, without Soda: a request can ask for a failure, a
+     * delay or a peak memory.
+     */
+    private static final String FAKE_WORKER = """
+        import json, sys, time
+        def respond(response):
+            sys.stdout.write("%s" + json.dumps(response) + "\\n")
+            sys.stdout.flush()
+        respond({"id": None, "ready": True})
+        for line in sys.stdin:
+            request = json.loads(line)
+            if request.get("type") == "ping":
+                respond({"id": request["id"], "pong": True})
+                continue
+            time.sleep(request.get("sleep", 0))
+            print("scanning " + request["id"])
+            sys.stdout.flush()
+            if request.get("fail"):
+                respond({"id": request["id"], "error": "boom"})
+            else:
+                respond({"id": request["id"], "exitCodes": {"kestra": 0}, "maxRss": request.get("maxRss", 0)})
+        """.formatted(WarmWorker.RESPONSE);
+
+    private static final WarmWorker.Limits LIMITS = new WarmWorker.Limits(100, Long.MAX_VALUE, Duration.ofMinutes(10), null, 0);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void reusesReleasedWorkers() throws Exception {
+        WarmWorker.Launch launch = this.launch();
+
+        WarmWorker worker = WarmWorker.acquire(launch, Map.of(), LIMITS, LOGGER);
+        List<String> logs = new CopyOnWriteArrayList<>();
+        JsonNode response = worker.scan(Map.of("type", "scan"), Duration.ofSeconds(30), (line, isStdErr) -> logs.add(line));
+        worker.release(LIMITS);
+
+        assertThat(response.path("exitCodes").path("kestra").asInt(), is(0));
+        assertThat(logs, hasItem(startsWith("scanning ")));
+        assertThat(WarmWorker.idle(launch.key()), is(1));
+
+        WarmWorker reused = WarmWorker.acquire(launch, Map.of(), LIMITS, LOGGER);
+        assertThat(reused, sameInstance(worker));
+        assertThat(WarmWorker.idle(launch.key()), is(0));
+        reused.close();
+    }
+
+    @Test
+    void recyclesWorkersAfterMaxScansAndMaxMemory() throws Exception {
+        WarmWorker.Launch launch = this.launch();
+        WarmWorker.Limits limits = new WarmWorker.Limits(2, 1024, Duration.ofMinutes(10), null, 0);
+
+        WarmWorker worker = WarmWorker.acquire(launch, Map.of(), limits, LOGGER);
+        worker.scan(Map.of("type", "scan"), Duration.ofSeconds(30), (line, isStdErr) -> { });
+        worker.release(limits);
+        assertThat(WarmWorker.acquire(launch, Map.of(), limits, LOGGER), sameInstance(worker));
+
+        // the second scan reaches maxScans
+        worker.scan(Map.of("type", "scan"), Duration.ofSeconds(30), (line, isStdErr) -> { });
+        worker.release(limits);
+        assertThat(WarmWorker.idle(launch.key()), is(0));
+
+        WarmWorker next = WarmWorker.acquire(launch, Map.of(), limits, LOGGER);
+        assertThat(next, not(sameInstance(worker)));
+
+        next.scan(Map.of("type", "scan", "maxRss", 2048), Duration.ofSeconds(30), (line, isStdErr) -> { });
+        next.release(limits);
+        assertThat(WarmWorker.idle(launch.key()), is(0));
+    }
+
+    @Test
+    void failedScansAreReportedAndTheWorkerReplaced() throws Exception {
+        WarmWorker.Launch launch = this.launch();
+
+        WarmWorker worker = WarmWorker.acquire(launch, Map.of(), LIMITS, LOGGER);
+        IOException e = assertThrows(IOException.class, () -> worker.scan(Map.of("type", "scan", "fail", true), Duration.ofSeconds(30), (line, isStdErr) -> { }));
+        assertThat(e.getMessage(), containsString("boom"));
+
+        // like the task does on a failed scan
+        worker.close();
+        worker.release(LIMITS);
+        assertThat(WarmWorker.idle(launch.key()), is(0));
+
+        assertThat(WarmWorker.acquire(launch, Map.of(), LIMITS, LOGGER), not(sameInstance(worker)));
+    }
+
+    @Test
+    void scansAreBoundedByTheirTimeout() throws Exception {
+        WarmWorker worker = WarmWorker.acquire(this.launch(), Map.of(), LIMITS, LOGGER);
+
+        try {
+            IOException e = assertThrows(IOException.class, () -> worker.scan(Map.of("type", "scan", "sleep", 30), Duration.ofSeconds(1), (line, isStdErr) -> { }));
+            assertThat(e.getMessage(), containsString("didn't answer within"));
+        } finally {
+            worker.close();
+        }
+    }
+
+    @Test
+    void idleWorkersAreEvictedOnTheLimitsTheyWereReleasedWith() throws Exception {
+        WarmWorker.Launch shortLived = this.launch();
+        WarmWorker.Launch longLived = this.launch();
+        WarmWorker.Limits noIdle = new WarmWorker.Limits(100, Long.MAX_VALUE, Duration.ZERO, null, 0);
+
+        WarmWorker.acquire(shortLived, Map.of(), noIdle, LOGGER).release(noIdle);
+        WarmWorker.acquire(longLived, Map.of(), LIMITS, LOGGER).release(LIMITS);
+        Thread.sleep(10);
+
+        // acquiring from another launch with no idle time at all doesn't evict the long-lived worker
+        WarmWorker.acquire(this.launch(), Map.of(), noIdle, LOGGER).close();
+
+        assertThat(WarmWorker.idle(shortLived.key()), is(0));
+        assertThat(WarmWorker.idle(longLived.key()), is(1));
+    }
+
+    @Test
+    void prestartsMinIdleWorkers() throws Exception {
+        WarmWorker.Launch launch = this.launch();
+        WarmWorker.Limits limits = new WarmWorker.Limits(100, Long.MAX_VALUE, Duration.ofMinutes(10), null, 2);
+
+        WarmWorker worker = WarmWorker.acquire(launch, Map.of(), limits, LOGGER);
+
+        Instant deadline = Instant.now().plusSeconds(30);
+        while (WarmWorker.idle(launch.key()) < 2 && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertThat(WarmWorker.idle(launch.key()), is(2));
+
+        // a worker taken from the pool is replaced
+        WarmWorker pooled = WarmWorker.acquire(launch, Map.of(), limits, LOGGER);
+        assertThat(pooled, not(sameInstance(worker)));
+
+        deadline = Instant.now().plusSeconds(30);
+        while (WarmWorker.idle(launch.key()) < 2 && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        assertThat(WarmWorker.idle(launch.key()), is(2));
+
+        worker.close();
+        pooled.close();
+    }
+
+    @Test
+    void localScansInTheWorkingDirectory(@TempDir Path workingDirectory) throws Exception {
+        WarmWorker worker = WarmWorker.acquire(this.launch(), Map.of(), LIMITS, LOGGER);
+
+        try (WarmWorker.Workspace workspace = worker.workspace(workingDirectory, List.of("checks.yml"))) {
+            assertThat(workspace.workerPath(), is(workingDirectory.toString()));
+        } finally {
+            worker.close();
+        }
+    }
+
+    @Test
+    void workersAreScopedAndContainerEnvironmentValuesAreNotOnTheCommandLine() throws Exception {
+        WarmWorker.Launch launch = WarmWorker.docker("main/company.team", "sodadata/soda-core", null, Map.of("PG_PASSWORD", "s3cr3t"));
+
+        assertThat(launch.command(), hasItem("PG_PASSWORD"));
+        assertThat(String.join(" ", launch.command()), not(containsString("s3cr3t")));
+
+        assertThat(WarmWorker.docker("main/company.other", "sodadata/soda-core", null, Map.of("PG_PASSWORD", "s3cr3t")).key(), not(launch.key()));
+        assertThat(WarmWorker.docker("main/company.team", "sodadata/soda-core", null, Map.of("PG_PASSWORD", "s3cr3t")).key(), is(launch.key()));
+    }
+
+    private WarmWorker.Launch launch() {
+        return new WarmWorker.Launch("test-" + UUID.randomUUID(), List.of("python3", "-u", "-c", FAKE_WORKER), directory, null);
+    }
+}
@@ -0,0 +1,192 @@
+package io.kestra.plugin.soda;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@KestraTest
+class WheelhouseCacheTest {
+    private static final String IMAGE = "sodadata/soda-core";
+    private static final ScriptOutput OUTPUT = ScriptOutput.builder().outputFiles(Map.of()).build();
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void keyIsStable() {
+        String key = WheelhouseCache.key("sodadata/soda-core", List.of("soda-core-bigquery", "soda-core-postgres"));
+
+        assertThat(key, is(WheelhouseCache.key("sodadata/soda-core", List.of("soda-core-bigquery", "soda-core-postgres"))));
+        assertThat(key, matchesPattern("[0-9a-f]{64}"));
+    }
+
+    @Test
+    void keyDependsOnImageAndRequirements() {
+        String key = WheelhouseCache.key("sodadata/soda-core", List.of("soda-core-bigquery"));
+
+        assertThat(key, not(WheelhouseCache.key("sodadata/soda-core:v3.3.0", List.of("soda-core-bigquery"))));
+        assertThat(key, not(WheelhouseCache.key("sodadata/soda-core", List.of("soda-core-bigquery==3.3.0"))));
+        assertThat(key, not(WheelhouseCache.key(null, List.of("soda-core-bigquery"))));
+    }
+
+    @Test
+    void disabledNeverBuilds() throws Exception {
+        try (WheelhouseCache cache = WheelhouseCache.disabled()) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.BYPASS));
+        }
+    }
+
+    @Test
+    void buildsThenRestoresLocally() throws Exception {
+        RequirementsCache options = this.local(Long.MAX_VALUE);
+        List<String> requirements = requirements();
+
+        this.build(options, requirements, "wheels");
+
+        assertThat(Files.readString(directory.resolve("cache").resolve(WheelhouseCache.key(IMAGE, requirements) + ".zip")), is("wheels"));
+
+        Path workingDirectory = this.workingDirectory();
+        try (WheelhouseCache cache = WheelhouseCache.open(runContextFactory.of(), options, IMAGE, requirements, workingDirectory, "")) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.RESTORE));
+            assertThat(Files.readString(workingDirectory.resolve(WheelhouseCache.ARCHIVE)), is("wheels"));
+        }
+    }
+
+    @Test
+    void expiredArchivesAreBuiltAgain() throws Exception {
+        RequirementsCache options = this.local(Long.MAX_VALUE);
+        List<String> requirements = requirements();
+
+        this.build(options, requirements, "wheels");
+        Files.setLastModifiedTime(
+            directory.resolve("cache").resolve(WheelhouseCache.key(IMAGE, requirements) + ".zip"),
+            FileTime.from(Instant.now().minus(Duration.ofDays(8)))
+        );
+
+        try (WheelhouseCache cache = WheelhouseCache.open(runContextFactory.of(), options, IMAGE, requirements, this.workingDirectory(), "")) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.BUILD));
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedArchivesAreEvicted() throws Exception {
+        Path cacheDirectory = Files.createDirectories(directory.resolve("cache"));
+        Path oldest = Files.writeString(cacheDirectory.resolve("oldest.zip"), "x".repeat(100));
+        Files.setLastModifiedTime(oldest, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        Path recent = Files.writeString(cacheDirectory.resolve("recent.zip"), "x".repeat(100));
+        Files.setLastModifiedTime(recent, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+        List<String> requirements = requirements();
+        this.build(this.local(250), requirements, "x".repeat(100));
+
+        assertThat(Files.exists(oldest), is(false));
+        assertThat(Files.exists(recent), is(true));
+        assertThat(Files.exists(cacheDirectory.resolve(WheelhouseCache.key(IMAGE, requirements) + ".zip")), is(true));
+    }
+
+    @Test
+    void concurrentBuildsOfTheSameKeyAreBypassed() throws Exception {
+        RequirementsCache options = this.local(Long.MAX_VALUE);
+        List<String> requirements = requirements();
+
+        try (WheelhouseCache building = WheelhouseCache.open(runContextFactory.of(), options, IMAGE, requirements, this.workingDirectory(), "")) {
+            assertThat(building.getMode(), is(WheelhouseCache.Mode.BUILD));
+
+            try (WheelhouseCache concurrent = WheelhouseCache.open(runContextFactory.of(), options, IMAGE, requirements, this.workingDirectory(), "")) {
+                assertThat(concurrent.getMode(), is(WheelhouseCache.Mode.BYPASS));
+            }
+        }
+
+        // the build failed without storing anything, the next execution builds again
+        try (WheelhouseCache next = WheelhouseCache.open(runContextFactory.of(), options, IMAGE, requirements, this.workingDirectory(), "")) {
+            assertThat(next.getMode(), is(WheelhouseCache.Mode.BUILD));
+        }
+    }
+
+    @Test
+    void storageBuildMarkerKeepsOtherWorkersFromBuilding() throws Exception {
+        RequirementsCache options = RequirementsCache.builder()
+            .type(Property.ofValue(RequirementsCache.Type.STORAGE))
+            .build();
+        List<String> requirements = requirements();
+        String key = WheelhouseCache.key(IMAGE, requirements);
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, Scan.builder().id(IdUtils.create()).type(Scan.class.getName()).build(), Map.of());
+
+        // as stored by a build running on another worker
+        Path marker = Files.writeString(directory.resolve("marker"), Instant.now().toString());
+        runContext.storage().putCacheFile(marker.toFile(), WheelhouseCache.CACHE_ID, key + WheelhouseCache.BUILDING_MARKER);
+
+        try (WheelhouseCache cache = WheelhouseCache.open(runContext, options, IMAGE, requirements, this.workingDirectory(), "")) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.BYPASS));
+        }
+
+        runContext.storage().deleteCacheFile(WheelhouseCache.CACHE_ID, key + WheelhouseCache.BUILDING_MARKER);
+
+        Path workingDirectory = this.workingDirectory();
+        try (WheelhouseCache cache = WheelhouseCache.open(runContext, options, IMAGE, requirements, workingDirectory, "")) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.BUILD));
+            assertThat(runContext.storage().getCacheFile(WheelhouseCache.CACHE_ID, key + WheelhouseCache.BUILDING_MARKER, null).isPresent(), is(true));
+
+            Files.writeString(workingDirectory.resolve(WheelhouseCache.ARCHIVE), "wheels");
+            cache.store(OUTPUT);
+        }
+
+        assertThat(runContext.storage().getCacheFile(WheelhouseCache.CACHE_ID, key + WheelhouseCache.BUILDING_MARKER, null).isPresent(), is(false));
+
+        workingDirectory = this.workingDirectory();
+        try (WheelhouseCache cache = WheelhouseCache.open(runContext, options, IMAGE, requirements, workingDirectory, "")) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.RESTORE));
+            assertThat(Files.readString(workingDirectory.resolve(WheelhouseCache.ARCHIVE)), is("wheels"));
+        }
+    }
+
+    private void build(RequirementsCache options, List<String> requirements, String archive) throws Exception {
+        Path workingDirectory = this.workingDirectory();
+
+        try (WheelhouseCache cache = WheelhouseCache.open(runContextFactory.of(), options, IMAGE, requirements, workingDirectory, "")) {
+            assertThat(cache.getMode(), is(WheelhouseCache.Mode.BUILD));
+
+            Files.writeString(workingDirectory.resolve(WheelhouseCache.ARCHIVE), archive);
+            cache.store(OUTPUT);
+        }
+    }
+
+    private RequirementsCache local(long maxSize) {
+        return RequirementsCache.builder()
+            .path(Property.ofValue(directory.resolve("cache").toString()))
+            .maxSize(Property.ofValue(maxSize))
+            .build();
+    }
+
+    private Path workingDirectory() throws Exception {
+        return Files.createTempDirectory(directory, "working");
+    }
+
+    // unique per test, the builds in progress being tracked per JVM
+    private static List<String> requirements() {
+        return List.of("soda-core-postgres", "# " + IdUtils.create());
+    }
+}